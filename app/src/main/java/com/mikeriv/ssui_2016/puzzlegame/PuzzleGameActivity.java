@@ -2,53 +2,70 @@ package com.mikeriv.ssui_2016.puzzlegame;
 
 import android.app.AlertDialog;
 import android.content.DialogInterface;
-import android.content.res.Resources;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.graphics.Point;
-import android.graphics.Rect;
-import android.graphics.drawable.BitmapDrawable;
-import android.graphics.drawable.ColorDrawable;
-import android.graphics.drawable.Drawable;
-import android.icu.text.AlphabeticIndex;
 import android.os.Bundle;
-import android.support.v4.content.ContextCompat;
+import android.os.Handler;
+import android.os.Looper;
 import android.support.v7.app.AppCompatActivity;
-import android.support.v7.widget.Toolbar;
 import android.text.Editable;
 import android.text.InputType;
 import android.text.TextWatcher;
-import android.view.Display;
-import android.view.Menu;
-import android.view.MenuItem;
+import android.util.Log;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.ViewTreeObserver;
 import android.widget.ArrayAdapter;
-import android.widget.Button;
 import android.widget.EditText;
 import android.widget.LinearLayout;
 import android.widget.Spinner;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import com.mikeriv.ssui_2016.puzzlegame.metrics.AndroidTraceListener;
+import com.mikeriv.ssui_2016.puzzlegame.metrics.FrameMonitor;
+import com.mikeriv.ssui_2016.puzzlegame.metrics.FrameStats;
+import com.mikeriv.ssui_2016.puzzlegame.metrics.GameMetrics;
+import com.mikeriv.ssui_2016.puzzlegame.metrics.Interaction;
+import com.mikeriv.ssui_2016.puzzlegame.metrics.Metrics;
+import com.mikeriv.ssui_2016.puzzlegame.model.MoveJournal;
 import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameBoard;
 import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameState;
-import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameTile;
-import com.mikeriv.ssui_2016.puzzlegame.util.PuzzleImageUtil;
-import com.mikeriv.ssui_2016.puzzlegame.view.PuzzleGameTileView;
-
-import java.util.ArrayList;
-import java.util.Dictionary;
+import com.mikeriv.ssui_2016.puzzlegame.save.GameSnapshot;
+import com.mikeriv.ssui_2016.puzzlegame.save.MoveJournalFile;
+import com.mikeriv.ssui_2016.puzzlegame.setup.ImageResourceTileSource;
+import com.mikeriv.ssui_2016.puzzlegame.setup.PuzzleGameLoader;
+import com.mikeriv.ssui_2016.puzzlegame.setup.PuzzleTileCache;
+import com.mikeriv.ssui_2016.puzzlegame.shuffle.PuzzleShuffler;
+import com.mikeriv.ssui_2016.puzzlegame.shuffle.RandomWalkShuffler;
+import com.mikeriv.ssui_2016.puzzlegame.shuffle.UniformShuffler;
+import com.mikeriv.ssui_2016.puzzlegame.view.PuzzleBoardView;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
 import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 public class PuzzleGameActivity extends AppCompatActivity {
 
-    // The default grid size to use for the puzzle game 4 => 4x4 grid
-    private static final int DEFAULT_PUZZLE_BOARD_SIZE = 4;
+    private static final String TAG = "PuzzleGameActivity";
+
+    // The saved instance state keys and the file the current game is saved under
+    private static final String STATE_START_SNAPSHOT = "start_snapshot";
+    private static final String STATE_MOVES = "moves";
+    private static final String STATE_MOVE_COUNT = "move_count";
+    private static final String STATE_MOVE_POSITION = "move_position";
+    private static final String STATE_SCORE = "score";
+    private static final String MOVE_JOURNAL_FILE_NAME = "puzzle_game.journal";
+
+    // The file frame stats are exported to while metrics are enabled
+    private static final String FRAME_STATS_FILE_NAME = "frame_stats.csv";
+
+    // Boards with more tiles than this are shuffled uniformly instead of by a random walk, which
+    // would leave parts of large boards far from the empty tile untouched
+    private static final int MAX_RANDOM_WALK_TILE_COUNT = 25;
 
     // The id of the image to use for our puzzle game
     private static final int TILE_IMAGE_ID = R.drawable.kitty;
@@ -59,6 +76,20 @@ public class PuzzleGameActivity extends AppCompatActivity {
                 put("duck", R.drawable.duck);
             }};
 
+    // Picks the seed of every shuffle
+    private static final SplittableRandom SEED_GENERATOR = new SplittableRandom();
+
+    // Decodes, slices and shuffles new games one at a time
+    private static final Executor SETUP_EXECUTOR = Executors.newSingleThreadExecutor();
+
+    // Decoded images and sliced tiles of recent games, kept across activity restarts
+    private static final PuzzleTileCache TILE_CACHE =
+            new PuzzleTileCache(Runtime.getRuntime().maxMemory() / 8);
+
+    // The frames of every board size played, kept across activity restarts; null until metrics
+    // are enabled
+    private static FrameStats sFrameStats;
+
     /**
      * Button Listener that starts a new game - this must be attached to the new game button
      */
@@ -72,35 +103,10 @@ public class PuzzleGameActivity extends AppCompatActivity {
             final LinearLayout container = new LinearLayout(PuzzleGameActivity.this);
             container.setOrientation(LinearLayout.VERTICAL);
 
-            final EditText gridSizeInput = new EditText(PuzzleGameActivity.this);
-            gridSizeInput.setInputType(InputType.TYPE_CLASS_NUMBER);
-            gridSizeInput.setHint("Grid Size");
-            gridSizeInput.setText(String.valueOf(mPuzzleBoardSize));
-            gridSizeInput.addTextChangedListener(new TextWatcher() {
-                @Override
-                public void beforeTextChanged(CharSequence s, int start, int count, int after) {
-
-                }
-
-                @Override
-                public void onTextChanged(CharSequence s, int start, int before, int count) {
-
-                }
-
-                @Override
-                public void afterTextChanged(Editable s) {
-                    if(s.length() == 0)
-                        return;
-                    int min = 2;
-                    int max = 5;
-                    int currVal = Integer.parseInt(s.toString());
-                    if(currVal < min)
-                        s.replace(0, s.length(), String.valueOf(min));
-                    else if(currVal > max)
-                        s.replace(0, s.length(), String.valueOf(max));
-                }
-            });
-            container.addView(gridSizeInput);
+            final EditText rowCountInput = createGridSizeInput("Rows", mPuzzleBoardRows);
+            container.addView(rowCountInput);
+            final EditText colCountInput = createGridSizeInput("Columns", mPuzzleBoardColumns);
+            container.addView(colCountInput);
 
             final Spinner imgSelector = new Spinner(PuzzleGameActivity.this);
             String[] imgNames = new String[]{"kitty", "duck"};
@@ -116,9 +122,9 @@ public class PuzzleGameActivity extends AppCompatActivity {
                     new DialogInterface.OnClickListener() {
                         @Override
                         public void onClick(DialogInterface dialog, int which) {
-                            String gridSizeStr = gridSizeInput.getText().toString();
-                            if(gridSizeStr.length() != 0)
-                                mPuzzleBoardSize = Integer.parseInt(gridSizeStr);
+                            mPuzzleBoardRows = parseGridSize(rowCountInput, mPuzzleBoardRows);
+                            mPuzzleBoardColumns =
+                                    parseGridSize(colCountInput, mPuzzleBoardColumns);
                             mTileImageId =
                                     DRAWABLE_ID_MAP.get(imgSelector.getSelectedItem().toString());
                             startNewGame();
@@ -138,35 +144,52 @@ public class PuzzleGameActivity extends AppCompatActivity {
     };
 
     /**
-     * Click Listener that Handles Tile Swapping when we click on a tile that is
-     * neighboring the empty tile - this must be attached to every tileView in the grid
+     * Button Listeners that take back the last move and make it again. A won game is over, so
+     * its moves can no longer be changed
      */
-    private final View.OnClickListener mGameTileOnClickListener = new View.OnClickListener() {
+    private final View.OnClickListener mUndoButtonOnClickListener = new View.OnClickListener() {
         @Override
         public void onClick(View view) {
-           // TODO handle swapping tiles and updating the tileViews if there is a valid swap
-            // with an empty tile
-            // If any changes happen, be sure to update the state of the game to check for a win
-            // condition
-            PuzzleGameTileView tileView = (PuzzleGameTileView)view;
-            int tileId = tileView.getTileId();
-            int rTile = tileId / mPuzzleBoardSize;
-            int cTile = tileId % mPuzzleBoardSize;
-
-            int rowCount = mPuzzleGameBoard.getRowsCount();
-            int colCount = mPuzzleGameBoard.getColumnsCount();
-            for(int r = 0; r < rowCount; r++){
-                for(int c = 0; c < colCount; c++){
-                    if(mPuzzleGameBoard.isEmptyTile(r, c)){
-                        if(mPuzzleGameBoard.areTilesNeighbors(rTile, cTile, r, c)) {
-                            mPuzzleGameBoard.swapTiles(rTile, cTile, r, c);
-                            mPuzzleGameBoard.getTile(r, c).setIsEmpty(false);
-                            mPuzzleGameBoard.getTile(rTile, cTile).setIsEmpty(true);
-                            updateGameState();
-                        }
-                        break;
-                    }
-                }
+            if(mGameState != PuzzleGameState.PLAYING)
+                return;
+            if(mPuzzleGameBoard != null && mPuzzleGameBoard.undo()) {
+                updateGameState();
+                saveMoves();
+            }
+        }
+    };
+
+    private final View.OnClickListener mRedoButtonOnClickListener = new View.OnClickListener() {
+        @Override
+        public void onClick(View view) {
+            if(mGameState != PuzzleGameState.PLAYING)
+                return;
+            if(mPuzzleGameBoard != null && mPuzzleGameBoard.redo()) {
+                updateGameState();
+                saveMoves();
+            }
+        }
+    };
+
+    /**
+     * Listener that Handles Tile Swapping when we tap a tile that is in line with the empty tile
+     * - this must be attached to the board view
+     */
+    private final PuzzleBoardView.OnCellClickListener mBoardCellClickListener =
+            new PuzzleBoardView.OnCellClickListener() {
+        @Override
+        public void onCellClick(int row, int col) {
+            // Slides the tapped tile, and any tiles between it and the empty tile, if it is in
+            // line with the empty tile. The board view redraws the cells the board reports as
+            // swapped. Taps on a won game are ignored
+            if(mGameState != PuzzleGameState.PLAYING)
+                return;
+            int movedCount = mPuzzleGameBoard.slide(row, col);
+            if(movedCount > 0) {
+                GameMetrics.MOVES.add(movedCount);
+                reportInteraction(Interaction.TILE_TAP);
+                updateGameState();
+                saveMoves();
             }
         }
     };
@@ -174,22 +197,42 @@ public class PuzzleGameActivity extends AppCompatActivity {
     // Game State - what the game is currently doin
     private PuzzleGameState mGameState = PuzzleGameState.NONE;
 
-    // The size of our puzzle board (mPuzzleBoardSize x mPuzzleBoardSize grid)
-    private int mPuzzleBoardSize = DEFAULT_PUZZLE_BOARD_SIZE;
+    // The size of our puzzle board (mPuzzleBoardRows x mPuzzleBoardColumns grid), read from
+    // integers.xml
+    private int mPuzzleBoardRows;
+    private int mPuzzleBoardColumns;
 
     // The puzzleboard model
     private PuzzleGameBoard mPuzzleGameBoard;
 
     private int mTileImageId = TILE_IMAGE_ID;
 
+    // The seed the current board was shuffled with
+    private long mShuffleSeed;
+
+    // Prepares new games off the UI thread
+    private PuzzleGameLoader mPuzzleGameLoader;
+
     // Views
     private TextView mScoreTextView;
 
     private int mScore = 0;
 
-    // The views for the puzzleboardtile models
-    private PuzzleGameTileView[][] mPuzzleTileViews =
-            new PuzzleGameTileView[mPuzzleBoardSize][mPuzzleBoardSize];
+    // The current game as it was shuffled, and the moves made since
+    private GameSnapshot mStartSnapshot;
+    private MoveJournal mMoveJournal;
+
+    // Keeps the moves on disk as they are made; null if the file cannot be written
+    private MoveJournalFile mMoveJournalFile;
+
+    // The saved game to restore once the board has been sized, if any
+    private MoveJournalFile.Contents mPendingGame;
+
+    // Draws the puzzleboard model
+    private PuzzleBoardView mPuzzleBoardView;
+
+    // Attributes frames to the board size and interaction; null while metrics are disabled
+    private FrameMonitor mFrameMonitor;
 
 
     @Override
@@ -197,243 +240,419 @@ public class PuzzleGameActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_puzzle_game);
 
+        // Debug builds time their hot paths and show them in system traces
+        if(BuildConfig.DEBUG) {
+            Metrics.setTraceListener(new AndroidTraceListener());
+            Metrics.setEnabled(true);
+        }
+        if(Metrics.isEnabled()) {
+            if(sFrameStats == null) {
+                float refreshRate = getWindowManager().getDefaultDisplay().getRefreshRate();
+                sFrameStats = new FrameStats((long) (1e9 / refreshRate));
+            }
+            mFrameMonitor = new FrameMonitor(sFrameStats);
+        }
+
+        mPuzzleBoardRows = getResources().getInteger(R.integer.game_board_row_count);
+        mPuzzleBoardColumns = getResources().getInteger(R.integer.game_board_column_count);
+        mPendingGame = readSavedGame(savedInstanceState);
+        if(mPendingGame != null)
+            mScore = mPendingGame.getScore();
+
         mScoreTextView = (TextView) findViewById(R.id.text_score);
         updateScore();
 
+        mPuzzleBoardView = (PuzzleBoardView) findViewById(R.id.puzzleBoardView);
+        mPuzzleBoardView.setOnCellClickListener(mBoardCellClickListener);
+
         findViewById(R.id.btnNewGame).setOnClickListener(mNewGameButtonOnClickListener);
+        findViewById(R.id.btnUndo).setOnClickListener(mUndoButtonOnClickListener);
+        findViewById(R.id.btnRedo).setOnClickListener(mRedoButtonOnClickListener);
+
+        final Handler mainHandler = new Handler(Looper.getMainLooper());
+        mPuzzleGameLoader = new PuzzleGameLoader(SETUP_EXECUTOR, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                mainHandler.post(command);
+            }
+        });
 
         // Initializes the game and updates the game state
         initGame();
     }
 
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        MoveJournalFile.Contents game = getSavedGame();
+        if(game == null)
+            return;
+        MoveJournal journal = game.getMoveJournal();
+        outState.putByteArray(STATE_START_SNAPSHOT, game.getStartSnapshot().toByteArray());
+        outState.putByteArray(STATE_MOVES, journal.toPackedMoves());
+        outState.putInt(STATE_MOVE_COUNT, journal.size());
+        outState.putInt(STATE_MOVE_POSITION, journal.getPosition());
+        outState.putInt(STATE_SCORE, game.getScore());
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        if(mFrameMonitor != null)
+            mFrameMonitor.start();
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        if(Metrics.isEnabled())
+            Log.d(TAG, "Metrics:\n" + Metrics.dump());
+        if(mFrameMonitor != null) {
+            mFrameMonitor.stop();
+            exportFrameStats();
+        }
+        // Every move is already in the journal file, it only has to reach the disk
+        if(mMoveJournalFile == null)
+            return;
+        try {
+            mMoveJournalFile.force();
+        } catch (IOException e) {
+            Log.w(TAG, "Could not save the game", e);
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        // A game still being prepared would otherwise be attached to a destroyed activity
+        mPuzzleGameLoader.cancel();
+        closeMoveJournalFile();
+    }
+
     /**
-     * Creates the puzzleboard and the PuzzleGameTiles that serve as the model for the game. It
-     * does image slicing to get the appropriate bitmap subdivisions of the TILE_IMAGE_ID. It
-     * then creates a set for PuzzleGameTileViews that are used to display the information in models
+     * Waits for the first layout to size the board, then prepares the first game
      */
     private void initGame() {
-        mPuzzleGameBoard = new PuzzleGameBoard(mPuzzleBoardSize, mPuzzleBoardSize);
-
-        // Get the original image bitmap
-        Bitmap fullImageBitmap = BitmapFactory.decodeResource(getResources(), mTileImageId);
-        // Now scale the bitmap so it fits out screen dimensions and change aspect ratio (scale) to
-        // fit a square
-        int fullImageWidth = fullImageBitmap.getWidth();
-        int fullImageHeight = fullImageBitmap.getHeight();
-        int squareImageSize = (fullImageWidth > fullImageHeight) ? fullImageWidth : fullImageHeight;
-        fullImageBitmap = Bitmap.createScaledBitmap(
-                fullImageBitmap,
-                squareImageSize,
-                squareImageSize,
-                false);
-
-        // TODO calculate the appropriate size for each puzzle tile
-        int tileSize = fullImageBitmap.getWidth() / mPuzzleBoardSize;
-
-        // TODO create the PuzzleGameTiles for the PuzzleGameBoard using sections of the bitmap.
-        // You may find PuzzleImageUtil helpful for getting sections of the bitmap
-        // Also ensure the last tile (the bottom right tile) is set to be an "empty" tile
-        // (i.e. not filled with an section of the original image)
-        for(int r = 0; r < mPuzzleGameBoard.getRowsCount(); r++){
-            for(int c = 0; c < mPuzzleGameBoard.getColumnsCount(); c++){
-                Bitmap bitmapSection = PuzzleImageUtil.getSubdivisionOfBitmap(fullImageBitmap,
-                        tileSize, tileSize, r, c);
-                Drawable drawable = new BitmapDrawable(getResources(),
-                        bitmapSection);
-                boolean isEmpty = false;
-                if(r == mPuzzleBoardSize-1 && c == mPuzzleBoardSize-1)
-                    isEmpty = true;
-                PuzzleGameTile tile = new PuzzleGameTile(r*mPuzzleBoardSize+c,
-                        drawable, isEmpty);
-                mPuzzleGameBoard.setTile(tile, r, c);
-            }
-        }
-
         final LinearLayout rootView = (LinearLayout)findViewById(R.id.layout_game_display);
         rootView.getViewTreeObserver().addOnGlobalLayoutListener(
                 new ViewTreeObserver.OnGlobalLayoutListener() {
                     @Override
                     public void onGlobalLayout() {
                         rootView.getViewTreeObserver().removeOnGlobalLayoutListener(this);
-
-                        // TODO createPuzzleTileViews with the appropriate width, height
-                        int screenWidth = rootView.getWidth();
-                        int screenHeight = rootView.getHeight();
-
-                        int resid = (screenHeight - screenWidth) / 2;
-                        float residWeight = (float)resid / screenHeight;
-                        float mainContentWeight = 1 - 2*residWeight;
-
-                        LinearLayout boardContainer = (LinearLayout)findViewById(R.id.boardContainer);
-                        LinearLayout btnScoreContainer = (LinearLayout)findViewById(R.id.btnScoreContainer);
-                        LinearLayout topPadding = (LinearLayout)findViewById(R.id.topPadding);
-
-                        LinearLayout.LayoutParams lpBoardContainer = new LinearLayout.LayoutParams(
-                                ViewGroup.LayoutParams.MATCH_PARENT,
-                                0,
-                                mainContentWeight
-                        );
-                        boardContainer.setLayoutParams(lpBoardContainer);
-
-                        LinearLayout.LayoutParams lpBtnScoreContainer = new LinearLayout.LayoutParams(
-                                ViewGroup.LayoutParams.MATCH_PARENT,
-                                0,
-                                residWeight
-                        );
-                        btnScoreContainer.setLayoutParams(lpBtnScoreContainer);
-
-                        LinearLayout.LayoutParams lpTopPadding = new LinearLayout.LayoutParams(
-                                ViewGroup.LayoutParams.MATCH_PARENT,
-                                0,
-                                residWeight
-                        );
-                        topPadding.setLayoutParams(lpTopPadding);
-
-                        int minTileSize = screenWidth / mPuzzleBoardSize;
-                        createPuzzleTileViews(minTileSize, minTileSize);
-
-                        shufflePuzzleTiles();
-
-                        updateGameState();
-                        mGameState = PuzzleGameState.PLAYING;
+                        if(mPendingGame != null)
+                            restorePuzzleGame(layoutGameDisplay(), mPendingGame);
+                        else
+                            loadPuzzleGame(layoutGameDisplay(), false);
                     }
                 });
     }
 
     /**
-     * Creates a set of tile views based on the tileWidth and height
-     * @param minTileViewWidth the minimum width of the tile
-     * @param minTileViewHeight the minimum height of the tile
+     * Splits the game display between the board and the score and button bar, so that the
+     * board area is a square as wide as the screen
+     * @return the side of the board area, in pixels
      */
+    private int layoutGameDisplay() {
+        LinearLayout rootView = (LinearLayout)findViewById(R.id.layout_game_display);
+        int screenWidth = rootView.getWidth();
+        int screenHeight = rootView.getHeight();
+
+        int resid = (screenHeight - screenWidth) / 2;
+        float residWeight = (float)resid / screenHeight;
+        float mainContentWeight = 1 - 2*residWeight;
 
-    private void createPuzzleTileViews(int minTileViewWidth, int minTileViewHeight) {
-        int rowsCount = mPuzzleGameBoard.getRowsCount();
-        int colsCount = mPuzzleGameBoard.getColumnsCount();
-        // TODO Set up TileViews (that will be what the user interacts with)
-        // Make sure each tileView gets a click listener for interaction
-        // Be sure to set the appropriate LayoutParams so that your tileViews
-        // So that they fit your gameboard properly\
         LinearLayout boardContainer = (LinearLayout)findViewById(R.id.boardContainer);
-        for(int r = 0; r < rowsCount; r++){
-            LinearLayout rowContainer = new LinearLayout(this);
-            rowContainer.setOrientation(LinearLayout.HORIZONTAL);
-            LinearLayout.LayoutParams lpRowContainer = new LinearLayout.LayoutParams(
-                    ViewGroup.LayoutParams.MATCH_PARENT,
-                    0,
-                    0.25f
-            );
-            rowContainer.setLayoutParams(lpRowContainer);
-
-            for(int c = 0; c < colsCount; c++){
-                PuzzleGameTile tile = mPuzzleGameBoard.getTile(r, c);
-                PuzzleGameTileView tileView = new PuzzleGameTileView(this,
-                       r*mPuzzleBoardSize+c, minTileViewWidth, minTileViewHeight);
-                ViewGroup.LayoutParams lp = new ViewGroup.LayoutParams(minTileViewWidth,
-                       minTileViewHeight);
-                tileView.setLayoutParams(lp);
-                tileView.setImageDrawable(tile.getDrawable());
-
-                LinearLayout imageContainer = new LinearLayout(this);
-                imageContainer.setOrientation(LinearLayout.HORIZONTAL);
-                LinearLayout.LayoutParams lpImageContainer = new LinearLayout.LayoutParams(
-                        0,
-                        ViewGroup.LayoutParams.MATCH_PARENT,
-                        0.25f
-                );
-                imageContainer.setLayoutParams(lpImageContainer);
-
-                tileView.setOnClickListener(mGameTileOnClickListener);
-
-                imageContainer.addView(tileView);
-
-                rowContainer.addView(imageContainer);
-            }
-            boardContainer.addView(rowContainer);
+        LinearLayout btnScoreContainer = (LinearLayout)findViewById(R.id.btnScoreContainer);
+        LinearLayout topPadding = (LinearLayout)findViewById(R.id.topPadding);
+
+        LinearLayout.LayoutParams lpBoardContainer = new LinearLayout.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT,
+                0,
+                mainContentWeight
+        );
+        boardContainer.setLayoutParams(lpBoardContainer);
+
+        LinearLayout.LayoutParams lpBtnScoreContainer = new LinearLayout.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT,
+                0,
+                residWeight
+        );
+        btnScoreContainer.setLayoutParams(lpBtnScoreContainer);
+
+        LinearLayout.LayoutParams lpTopPadding = new LinearLayout.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT,
+                0,
+                residWeight
+        );
+        topPadding.setLayoutParams(lpTopPadding);
+
+        return screenWidth;
+    }
+
+    /**
+     * Prepares a new game in the background: decoding and slicing the image unless it is
+     * cached, building the puzzleboard and shuffling it. The current game stays playable until
+     * the new one is attached, and a game that is still being prepared is dropped if another is
+     * started. A new seed is picked for every shuffle so the board can be reproduced from it.
+     * @param boardAreaSize the side of the square the board is fitted into, in pixels
+     * @param showNewGameMessage true to tell the user once the game has started
+     */
+    private void loadPuzzleGame(int boardAreaSize, final boolean showNewGameMessage) {
+        // A new game replaces a saved game that is still being restored
+        mPendingGame = null;
+        reportInteraction(Interaction.NEW_GAME);
+        // Measured across threads, so it is recorded rather than traced as a section
+        final long setupStartNanos = Metrics.isEnabled() ? System.nanoTime() : 0;
+        int tileCount = mPuzzleBoardRows * mPuzzleBoardColumns;
+        PuzzleShuffler shuffler = tileCount <= MAX_RANDOM_WALK_TILE_COUNT
+                ? RandomWalkShuffler.forTileCount(tileCount)
+                : new UniformShuffler();
+        mPuzzleGameLoader.load(
+                createTileSource(boardAreaSize),
+                mPuzzleBoardRows,
+                mPuzzleBoardColumns,
+                shuffler,
+                SEED_GENERATOR.nextLong(),
+                new PuzzleGameLoader.OnPuzzleGameLoadedListener() {
+                    @Override
+                    public void onPuzzleGameLoaded(PuzzleGameBoard board, long shuffleSeed) {
+                        attachPuzzleGame(board, shuffleSeed);
+                        if(setupStartNanos != 0)
+                            GameMetrics.NEW_GAME_SETUP.record(System.nanoTime() - setupStartNanos);
+                        if(showNewGameMessage)
+                            showNewGameMessage();
+                    }
+
+                    @Override
+                    public void onPuzzleGameLoadFailed(RuntimeException error) {
+                        Toast.makeText(PuzzleGameActivity.this, error.getMessage(),
+                                Toast.LENGTH_LONG).show();
+                    }
+                });
+    }
+
+    /**
+     * Puts a saved game back on the board. The tiles are created the same way as for a new
+     * game, so they come straight from the tile cache if the image was sliced for this board
+     * size before; instead of a shuffle, the board is set to the saved start of the game and the
+     * applied moves are replayed. If the saved game cannot be restored a new game is started
+     * instead
+     * @param boardAreaSize the side of the square the board is fitted into, in pixels
+     * @param game the saved game
+     */
+    private void restorePuzzleGame(final int boardAreaSize, final MoveJournalFile.Contents game) {
+        final GameSnapshot startSnapshot = game.getStartSnapshot();
+        final MoveJournal journal = game.getMoveJournal();
+        mPuzzleBoardRows = startSnapshot.getRowsCount();
+        mPuzzleBoardColumns = startSnapshot.getColumnsCount();
+        // Resource ids may change when the app is updated, so only known images are restored
+        if(DRAWABLE_ID_MAP.containsValue(startSnapshot.getImageId()))
+            mTileImageId = startSnapshot.getImageId();
+        mPuzzleGameLoader.load(
+                createTileSource(boardAreaSize),
+                mPuzzleBoardRows,
+                mPuzzleBoardColumns,
+                new PuzzleShuffler() {
+                    @Override
+                    public void shuffle(PuzzleGameBoard board, SplittableRandom random) {
+                        startSnapshot.applyTo(board);
+                        journal.replay(board, journal.getPosition());
+                    }
+                },
+                startSnapshot.getShuffleSeed(),
+                new PuzzleGameLoader.OnPuzzleGameLoadedListener() {
+                    @Override
+                    public void onPuzzleGameLoaded(PuzzleGameBoard board, long shuffleSeed) {
+                        mPendingGame = null;
+                        mPuzzleGameBoard = board;
+                        mShuffleSeed = shuffleSeed;
+                        mPuzzleBoardView.setBoard(board);
+                        if(mFrameMonitor != null)
+                            mFrameMonitor.setBoardSize(board.getRowsCount(),
+                                    board.getColumnsCount());
+                        startMoveJournal(startSnapshot, journal);
+                        // A game saved after it was won keeps its score as it was
+                        mGameState = board.isSolved()
+                                ? PuzzleGameState.WON
+                                : PuzzleGameState.PLAYING;
+                    }
+
+                    @Override
+                    public void onPuzzleGameLoadFailed(RuntimeException error) {
+                        Log.w(TAG, "Could not restore the game", error);
+                        mPendingGame = null;
+                        loadPuzzleGame(boardAreaSize, false);
+                    }
+                });
+    }
+
+    /**
+     * @param boardAreaSize the side of the square the board is fitted into, in pixels
+     * @return a source of tiles of the current image for the current board size
+     */
+    private ImageResourceTileSource createTileSource(int boardAreaSize) {
+        // Tiles are square, so a rectangular board fills the area along its longer side only
+        int tileSize = Math.min(boardAreaSize / mPuzzleBoardColumns,
+                boardAreaSize / mPuzzleBoardRows);
+        return new ImageResourceTileSource(getResources(), mTileImageId,
+                tileSize * mPuzzleBoardColumns, tileSize * mPuzzleBoardRows, TILE_CACHE);
+    }
+
+    /**
+     * Attributes the next frames to an interaction, if frames are being monitored
+     * @param interaction what the user just did
+     */
+    private void reportInteraction(Interaction interaction) {
+        if(mFrameMonitor != null)
+            mFrameMonitor.onInteraction(interaction);
+    }
+
+    /**
+     * Writes the frame stats of every board size played so far to a CSV file in the app's
+     * external files directory, or its internal one if there is none, to be pulled off the
+     * device and compared between builds
+     */
+    private void exportFrameStats() {
+        File directory = getExternalFilesDir(null);
+        if(directory == null)
+            directory = getFilesDir();
+        File file = new File(directory, FRAME_STATS_FILE_NAME);
+        try (PrintStream out = new PrintStream(new FileOutputStream(file), false, "UTF-8")) {
+            sFrameStats.writeCsv(out, BuildConfig.VERSION_NAME + "-" + BuildConfig.VERSION_CODE);
+            if(out.checkError())
+                throw new IOException("Could not write " + file);
+        } catch (IOException e) {
+            Log.w(TAG, "Could not export the frame stats", e);
         }
     }
 
     /**
-     * Shuffles the puzzle tiles randomly such that tiles may only swap if they are swapping with
-     * an empty tile to maintain solvability
+     * Records the moves of the current game from now on, both for undo and redo and in the
+     * journal file, which is rewritten for the game
+     * @param startSnapshot the game as it was shuffled
+     * @param journal the moves made since
      */
-    private void shufflePuzzleTiles() {
-        // TODO randomly shuffle the tiles such that tiles may only move spots if it is randomly
-        // swapped with a neighboring empty tile
-        int i = mPuzzleBoardSize * mPuzzleBoardSize - 1;
-        while(i > 0) {
-            int j = (int)Math.floor(Math.random() * i);
-            int ci = i % mPuzzleBoardSize;
-            int ri = i / mPuzzleBoardSize;
-            int cj = j % mPuzzleBoardSize;
-            int rj = j / mPuzzleBoardSize;
-            mPuzzleGameBoard.swapTiles(ri, ci, rj, cj);
-            --i;
+    private void startMoveJournal(GameSnapshot startSnapshot, MoveJournal journal) {
+        mStartSnapshot = startSnapshot;
+        mMoveJournal = journal;
+        mPuzzleGameBoard.setMoveJournal(journal);
+        closeMoveJournalFile();
+        try {
+            mMoveJournalFile = MoveJournalFile.create(
+                    new File(getFilesDir(), MOVE_JOURNAL_FILE_NAME), startSnapshot);
+        } catch (IOException e) {
+            Log.w(TAG, "Could not save the game", e);
+            return;
         }
-        resetEmptyTileLocation();
-        forceSolvable();
+        saveMoves();
     }
 
     /**
-     * Places the empty tile in the lower right corner of the grid
+     * Writes the moves made since the last save to the journal file
      */
-    private void resetEmptyTileLocation() {
-        // TODO
-        int rowCount = mPuzzleGameBoard.getRowsCount();
-        int colCount = mPuzzleGameBoard.getColumnsCount();
-        for(int r = 0; r < rowCount; r++){
-            for(int c = 0; c < colCount; c++){
-                if(mPuzzleGameBoard.isEmptyTile(r, c)){
-                    mPuzzleGameBoard.swapTiles(r, c,
-                            rowCount-1, colCount-1);
-                    break;
-                }
-            }
+    private void saveMoves() {
+        if(mMoveJournalFile == null)
+            return;
+        try {
+            mMoveJournalFile.sync(mMoveJournal, mScore);
+        } catch (IOException e) {
+            Log.w(TAG, "Could not save the game", e);
+            closeMoveJournalFile();
         }
     }
 
-    private int sumInversions() {
-        int rowCount = mPuzzleGameBoard.getRowsCount();
-        int colCount = mPuzzleGameBoard.getColumnsCount();
-        ArrayList<Integer> prev = new ArrayList<>();
-        int sum = 0;
-        for(int r = 0; r < rowCount; r++){
-            for(int c = 0; c < colCount; c++){
-                int id = mPuzzleGameBoard.getTile(r, c).getOrderIndex();
-                prev.add(id);
-                int inv = id;
-                for(Integer i : prev){
-                    if(i < id){
-                        inv--;
-                    }
-                }
-                sum += inv;
-            }
+    private void closeMoveJournalFile() {
+        if(mMoveJournalFile == null)
+            return;
+        try {
+            mMoveJournalFile.close();
+        } catch (IOException e) {
+            Log.w(TAG, "Could not close the move journal", e);
         }
-        return sum;
+        mMoveJournalFile = null;
     }
 
-    private boolean isSolvable(){
-        return sumInversions() % 2 == 0;
+    /**
+     * @return the current game, the saved game still being restored, or null if there is none
+     */
+    private MoveJournalFile.Contents getSavedGame() {
+        if(mPendingGame != null)
+            return mPendingGame;
+        if(mPuzzleGameBoard == null)
+            return null;
+        return new MoveJournalFile.Contents(mStartSnapshot, mMoveJournal, mScore);
     }
 
-    private void forceSolvable() {
-        if(isSolvable())
-            return;
-        mPuzzleGameBoard.swapTiles(0, 0, 0, 1);
+    /**
+     * Reads the game saved in the instance state or, when the app is started afresh or after a
+     * crash, in the journal file
+     * @param savedInstanceState the state passed to onCreate
+     * @return the saved game, or null if there is none that can be read
+     */
+    private MoveJournalFile.Contents readSavedGame(Bundle savedInstanceState) {
+        if(savedInstanceState != null
+                && savedInstanceState.containsKey(STATE_START_SNAPSHOT)) {
+            try {
+                return new MoveJournalFile.Contents(
+                        GameSnapshot.fromByteArray(
+                                savedInstanceState.getByteArray(STATE_START_SNAPSHOT)),
+                        new MoveJournal(
+                                savedInstanceState.getByteArray(STATE_MOVES),
+                                savedInstanceState.getInt(STATE_MOVE_COUNT),
+                                savedInstanceState.getInt(STATE_MOVE_POSITION)),
+                        savedInstanceState.getInt(STATE_SCORE));
+            } catch (IllegalArgumentException e) {
+                Log.w(TAG, "Could not read the saved game", e);
+            }
+        }
+        File file = new File(getFilesDir(), MOVE_JOURNAL_FILE_NAME);
+        if(!file.exists())
+            return null;
+        try {
+            return MoveJournalFile.read(file);
+        } catch (IOException e) {
+            Log.w(TAG, "Could not read the saved game", e);
+            return null;
+        }
     }
 
     /**
-     * Updates the game state by checking if the user has won. Also triggers the tileViews to update
-     * their visuals based on the gameboard
+     * Replaces the current game with a prepared one and shows it on the board view
+     * @param board the shuffled puzzleboard
+     * @param shuffleSeed the seed it was shuffled with
+     */
+    private void attachPuzzleGame(PuzzleGameBoard board, long shuffleSeed) {
+        mPuzzleGameBoard = board;
+        mShuffleSeed = shuffleSeed;
+        mPuzzleBoardView.setBoard(board);
+        if(mFrameMonitor != null)
+            mFrameMonitor.setBoardSize(board.getRowsCount(), board.getColumnsCount());
+        // The first frames of the new board are part of starting the game
+        reportInteraction(Interaction.NEW_GAME);
+
+        mGameState = PuzzleGameState.PLAYING;
+        updateGameState();
+        startMoveJournal(new GameSnapshot(board, mScore, mTileImageId, shuffleSeed),
+                new MoveJournal());
+    }
+
+    /**
+     * Updates the game state by checking if the user has won. The board view follows the
+     * puzzleboard by itself, so nothing needs to be refreshed here
      */
     private void updateGameState() {
         // TODO refresh tiles and handle winning the game and updating score
-        refreshGameBoardView();
-        if(hasWonGame()) {
+        // Only a game that is being played can be won, so each game scores at most once
+        long moveStart = GameMetrics.MOVE.start();
+        boolean hasJustWon = mGameState == PuzzleGameState.PLAYING && hasWonGame();
+        GameMetrics.MOVE.stop(moveStart);
+        if(hasJustWon) {
             mGameState = PuzzleGameState.WON;
             mScore++;
             updateScore();
 
+            reportInteraction(Interaction.WIN_DIALOG);
+            long winDialogStart = GameMetrics.WIN_DIALOG.start();
             AlertDialog.Builder winNotifier =
                     new AlertDialog.Builder(PuzzleGameActivity.this);
             winNotifier.setTitle(getResources().getString(R.string.win_title));
@@ -446,47 +665,17 @@ public class PuzzleGameActivity extends AppCompatActivity {
                         }
                     });
             winNotifier.show();
+            GameMetrics.WIN_DIALOG.stop(winDialogStart);
         }
     }
 
-    private void refreshGameBoardView() {
-        // TODO update the PuzzleTileViews with the data stored in the PuzzleGameBoard
-        LinearLayout boardContainer = (LinearLayout)findViewById(R.id.boardContainer);
-        int rowCount = mPuzzleGameBoard.getRowsCount();
-        int colCount = mPuzzleGameBoard.getColumnsCount();
-        for(int r = 0; r < rowCount; r++){
-            LinearLayout rowContainer = (LinearLayout)boardContainer.getChildAt(r);
-            for(int c = 0; c < colCount; c++){
-                PuzzleGameTile tile = mPuzzleGameBoard.getTile(r, c);
-                LinearLayout imageContainer = (LinearLayout)rowContainer.getChildAt(c);
-                PuzzleGameTileView tileView = (PuzzleGameTileView)
-                        imageContainer.getChildAt(0);
-                tileView.updateWithTile(tile);
-                if(tile.isEmpty())
-                    tileView.setVisibility(View.INVISIBLE);
-                else
-                    tileView.setVisibility(View.VISIBLE);
-            }
-        }
-    }
-
-
     /**
      * Checks the game board to see if the tile indices are in proper increasing order
      * @return true if the tiles are in correct order and the game is won
      */
     private boolean hasWonGame() {
         // TODO check if the user has won the game
-        int rowCount = mPuzzleGameBoard.getRowsCount();
-        int colCount = mPuzzleGameBoard.getColumnsCount();
-        for(int r = 0; r < rowCount; r++){
-            for(int c = 0; c < colCount; c++) {
-                int tileIndex = mPuzzleGameBoard.getTile(r, c).getOrderIndex();
-                if(tileIndex != r * rowCount + c)
-                    return false;
-            }
-        }
-        return true;
+        return mPuzzleGameBoard.isSolved();
     }
 
     /**
@@ -498,94 +687,69 @@ public class PuzzleGameActivity extends AppCompatActivity {
     }
 
     /**
-     * Begins a new game by shuffling the puzzle tiles, changing the game state to playing
-     * and showing a start message
+     * Creates a number input for the new game dialog that stops at the largest grid size
+     * @param hint what the number is
+     * @param value the current number
+     * @return the input
      */
-    private void startNewGame() {
-        // TODO - handle starting a new game by shuffling the tiles and showing a start message,
-        // and updating the game state
-        mPuzzleGameBoard = new PuzzleGameBoard(mPuzzleBoardSize, mPuzzleBoardSize);
-
-        // Get the original image bitmap
-        Bitmap fullImageBitmap = BitmapFactory.decodeResource(getResources(), mTileImageId);
-        // Now scale the bitmap so it fits out screen dimensions and change aspect ratio (scale) to
-        // fit a square
-        int fullImageWidth = fullImageBitmap.getWidth();
-        int fullImageHeight = fullImageBitmap.getHeight();
-        int squareImageSize = (fullImageWidth > fullImageHeight) ? fullImageWidth : fullImageHeight;
-        fullImageBitmap = Bitmap.createScaledBitmap(
-                fullImageBitmap,
-                squareImageSize,
-                squareImageSize,
-                false);
-
-        // TODO calculate the appropriate size for each puzzle tile
-        int tileSize = fullImageBitmap.getWidth() / mPuzzleBoardSize;
-
-        // TODO create the PuzzleGameTiles for the PuzzleGameBoard using sections of the bitmap.
-        // You may find PuzzleImageUtil helpful for getting sections of the bitmap
-        // Also ensure the last tile (the bottom right tile) is set to be an "empty" tile
-        // (i.e. not filled with an section of the original image)
-        for(int r = 0; r < mPuzzleGameBoard.getRowsCount(); r++){
-            for(int c = 0; c < mPuzzleGameBoard.getColumnsCount(); c++){
-                Bitmap bitmapSection = PuzzleImageUtil.getSubdivisionOfBitmap(fullImageBitmap,
-                        tileSize, tileSize, r, c);
-                Drawable drawable = new BitmapDrawable(getResources(),
-                        bitmapSection);
-                boolean isEmpty = false;
-                if(r == mPuzzleBoardSize-1 && c == mPuzzleBoardSize-1)
-                    isEmpty = true;
-                PuzzleGameTile tile = new PuzzleGameTile(r*mPuzzleBoardSize+c,
-                        drawable, isEmpty);
-                mPuzzleGameBoard.setTile(tile, r, c);
-            }
-        }
-
-        final LinearLayout rootView = (LinearLayout)findViewById(R.id.layout_game_display);
-
-        // TODO createPuzzleTileViews with the appropriate width, height
-        int screenWidth = rootView.getWidth();
-        int screenHeight = rootView.getHeight();
-
-        int resid = (screenHeight - screenWidth) / 2;
-        float residWeight = (float)resid / screenHeight;
-        float mainContentWeight = 1 - 2*residWeight;
-
-        LinearLayout boardContainer = (LinearLayout)findViewById(R.id.boardContainer);
-        LinearLayout btnScoreContainer = (LinearLayout)findViewById(R.id.btnScoreContainer);
-        LinearLayout topPadding = (LinearLayout)findViewById(R.id.topPadding);
+    private EditText createGridSizeInput(String hint, int value) {
+        final int max = getResources().getInteger(R.integer.game_board_max_size);
+        EditText input = new EditText(PuzzleGameActivity.this);
+        input.setInputType(InputType.TYPE_CLASS_NUMBER);
+        input.setHint(hint);
+        input.setText(String.valueOf(value));
+        input.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
 
-        LinearLayout.LayoutParams lpBoardContainer = new LinearLayout.LayoutParams(
-                ViewGroup.LayoutParams.MATCH_PARENT,
-                0,
-                mainContentWeight
-        );
-        boardContainer.setLayoutParams(lpBoardContainer);
-
-        LinearLayout.LayoutParams lpBtnScoreContainer = new LinearLayout.LayoutParams(
-                ViewGroup.LayoutParams.MATCH_PARENT,
-                0,
-                residWeight
-        );
-        btnScoreContainer.setLayoutParams(lpBtnScoreContainer);
+            }
 
-        LinearLayout.LayoutParams lpTopPadding = new LinearLayout.LayoutParams(
-                ViewGroup.LayoutParams.MATCH_PARENT,
-                0,
-                residWeight
-        );
-        topPadding.setLayoutParams(lpTopPadding);
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
 
-        int minTileSize = screenWidth / mPuzzleBoardSize;
+            }
 
-        boardContainer.removeAllViews();
-        createPuzzleTileViews(minTileSize, minTileSize);
+            @Override
+            public void afterTextChanged(Editable s) {
+                // Too small numbers are only raised once the dialog is confirmed, so that
+                // numbers starting with a 1 can still be typed
+                if(s.length() == 0)
+                    return;
+                if(s.length() > 2 || Integer.parseInt(s.toString()) > max)
+                    s.replace(0, s.length(), String.valueOf(max));
+            }
+        });
+        return input;
+    }
 
-        shufflePuzzleTiles();
+    /**
+     * @param input a grid size input of the new game dialog
+     * @param fallback the size to use if the input is empty
+     * @return the size in the input, clamped to the supported grid sizes
+     */
+    private int parseGridSize(EditText input, int fallback) {
+        String text = input.getText().toString();
+        if(text.length() == 0)
+            return fallback;
+        int min = getResources().getInteger(R.integer.game_board_min_size);
+        int max = getResources().getInteger(R.integer.game_board_max_size);
+        return Math.max(min, Math.min(max, Integer.parseInt(text)));
+    }
 
-        updateGameState();
-        mGameState = PuzzleGameState.PLAYING;
+    /**
+     * Begins a new game by preparing and shuffling new puzzle tiles in the background, then
+     * changing the game state to playing and showing a start message
+     */
+    private void startNewGame() {
+        // TODO - handle starting a new game by shuffling the tiles and showing a start message,
+        // and updating the game state
+        loadPuzzleGame(layoutGameDisplay(), true);
+    }
 
+    /**
+     * Tells the user a new game has started
+     */
+    private void showNewGameMessage() {
         AlertDialog.Builder newGameNotifier =
                 new AlertDialog.Builder(PuzzleGameActivity.this);
         //newGameNotifier.setTitle(getResources().getString(R.string.new_game_notif_title));
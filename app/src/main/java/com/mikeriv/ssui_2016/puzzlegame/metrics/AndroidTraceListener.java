@@ -0,0 +1,25 @@
+package com.mikeriv.ssui_2016.puzzlegame.metrics;
+
+import android.os.Trace;
+
+/**
+ * Emits every timed section as an android.os.Trace section, so that the game's stages show up
+ * in systrace and Perfetto captures.
+ */
+public class AndroidTraceListener implements TraceListener {
+
+    // Longer section names are rejected by Trace.beginSection()
+    private static final int MAX_SECTION_NAME_LENGTH = 127;
+
+    @Override
+    public void beginSection(String name) {
+        Trace.beginSection(name.length() > MAX_SECTION_NAME_LENGTH
+                ? name.substring(0, MAX_SECTION_NAME_LENGTH)
+                : name);
+    }
+
+    @Override
+    public void endSection() {
+        Trace.endSection();
+    }
+}
@@ -0,0 +1,93 @@
+package com.mikeriv.ssui_2016.puzzlegame.metrics;
+
+import android.view.Choreographer;
+
+/**
+ * Measures every frame of the UI thread with a Choreographer frame callback and records it in
+ * FrameStats under the board size shown and the interaction that caused it. A frame belongs to
+ * the last interaction reported through onInteraction() if it starts within
+ * INTERACTION_WINDOW_NANOS of it, and is idle otherwise. Frames are measured from one frame
+ * callback to the next, so a frame that blocks the UI thread shows up as one long frame.
+ *
+ * The monitor posts a callback for every frame while it runs, which keeps the display's frames
+ * coming, so it should only be started when metrics are wanted. Must be used on the UI thread.
+ */
+public class FrameMonitor implements Choreographer.FrameCallback {
+
+    // How long after an interaction frames are still attributed to it
+    private static final long INTERACTION_WINDOW_NANOS = 500L * 1000 * 1000;
+
+    private final FrameStats mStats;
+
+    private boolean mIsRunning;
+    // The frame time of the last frame, or 0 before the first frame since starting
+    private long mLastFrameNanos;
+    private int mRows;
+    private int mColumns;
+    private Interaction mInteraction = Interaction.IDLE;
+    private long mInteractionNanos;
+
+    /**
+     * @param stats - receives the frames
+     */
+    public FrameMonitor(FrameStats stats) {
+        mStats = stats;
+    }
+
+    public FrameStats getStats() {
+        return mStats;
+    }
+
+    public void start() {
+        if (mIsRunning) {
+            return;
+        }
+        mIsRunning = true;
+        // The time spent stopped is not a frame
+        mLastFrameNanos = 0;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    public void stop() {
+        if (!mIsRunning) {
+            return;
+        }
+        mIsRunning = false;
+        Choreographer.getInstance().removeFrameCallback(this);
+    }
+
+    /**
+     * Frames are only recorded while a board is shown
+     * @param rows - the rows of the board shown, or 0 if there is none
+     * @param columns - the cols of the board shown, or 0 if there is none
+     */
+    public void setBoardSize(int rows, int columns) {
+        mRows = rows;
+        mColumns = columns;
+    }
+
+    /**
+     * @param interaction - what the user just did, which the next frames are attributed to
+     */
+    public void onInteraction(Interaction interaction) {
+        mInteraction = interaction;
+        mInteractionNanos = System.nanoTime();
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!mIsRunning) {
+            return;
+        }
+        if (mLastFrameNanos != 0 && mRows > 0 && mColumns > 0) {
+            // Frame times share System.nanoTime()'s time base
+            Interaction interaction =
+                    frameTimeNanos - mInteractionNanos <= INTERACTION_WINDOW_NANOS
+                    ? mInteraction
+                    : Interaction.IDLE;
+            mStats.recordFrame(mRows, mColumns, interaction, frameTimeNanos - mLastFrameNanos);
+        }
+        mLastFrameNanos = frameTimeNanos;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+}
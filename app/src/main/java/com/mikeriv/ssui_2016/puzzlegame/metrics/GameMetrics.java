@@ -0,0 +1,33 @@
+package com.mikeriv.ssui_2016.puzzlegame.metrics;
+
+/**
+ * The counters and timers of the game's hot paths, shared by the stages that record them.
+ * Timer names double as the names of their android.os.Trace sections.
+ */
+public final class GameMetrics {
+
+    // Decoding the board's image
+    public static final Timer DECODE = Metrics.timer("decode");
+    // Slicing the decoded image into tiles
+    public static final Timer SLICE = Metrics.timer("slice");
+    // Shuffling a new board
+    public static final Timer SHUFFLE = Metrics.timer("shuffle");
+    // From asking for a new game until its board is shown
+    public static final Timer NEW_GAME_SETUP = Metrics.timer("new_game_setup");
+    // Checking for a win after each move
+    public static final Timer MOVE = Metrics.timer("move");
+    // From a move being made until the board is next drawn
+    public static final Timer MOVE_TO_FRAME = Metrics.timer("move_to_frame");
+    // Drawing the board
+    public static final Timer BOARD_DRAW = Metrics.timer("board_draw");
+    // Showing the win dialog
+    public static final Timer WIN_DIALOG = Metrics.timer("win_dialog");
+
+    // Tiles moved by taps, one per move journal entry
+    public static final Counter MOVES = Metrics.counter("moves");
+    public static final Counter IMAGE_CACHE_MISSES = Metrics.counter("image_cache_misses");
+
+    private GameMetrics() {
+        // Only constants
+    }
+}
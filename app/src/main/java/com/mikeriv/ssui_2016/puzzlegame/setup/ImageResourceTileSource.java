@@ -0,0 +1,91 @@
+package com.mikeriv.ssui_2016.puzzlegame.setup;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+
+import com.mikeriv.ssui_2016.puzzlegame.metrics.GameMetrics;
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameTile;
+import com.mikeriv.ssui_2016.puzzlegame.util.PuzzleImageDecoder;
+import com.mikeriv.ssui_2016.puzzlegame.util.PuzzleImageUtil;
+import com.mikeriv.ssui_2016.puzzlegame.view.BitmapRegionDrawable;
+import com.mikeriv.ssui_2016.puzzlegame.view.DrawablePuzzleTile;
+
+/**
+ * Creates tiles from an image resource. The centered part of the image with the aspect ratio of
+ * the board is decoded at about the size of the board, and every tile draws its section
+ * straight from that one shared bitmap, so slicing copies no pixels. The last tile (the bottom
+ * right tile) is the "empty" tile. Decoded images and tile sets are kept in a PuzzleTileCache
+ * and reused by later games.
+ */
+public class ImageResourceTileSource implements PuzzleTileSource {
+
+    private final Resources mResources;
+    private final int mImageId;
+    private final int mBoardWidth;
+    private final int mBoardHeight;
+    private final PuzzleTileCache mCache;
+
+    /**
+     * @param resources - the resources to decode from
+     * @param imageId - the id of the image resource
+     * @param boardWidth - the width of the board on screen, in pixels
+     * @param boardHeight - the height of the board on screen, in pixels
+     * @param cache - the cache to reuse images and tiles from
+     */
+    public ImageResourceTileSource(
+            Resources resources,
+            int imageId,
+            int boardWidth,
+            int boardHeight,
+            PuzzleTileCache cache) {
+        mResources = resources;
+        mImageId = imageId;
+        mBoardWidth = boardWidth;
+        mBoardHeight = boardHeight;
+        mCache = cache;
+    }
+
+    @Override
+    public PuzzleGameTile[] createTiles(int rows, int columns) {
+        // Tiles are square, so the board is as many tiles wide as it has cols
+        int tileSize = mBoardWidth / columns;
+        PuzzleGameTile[] tiles = mCache.getTiles(mImageId, rows, columns, tileSize);
+        if (tiles != null) {
+            return tiles;
+        }
+
+        Bitmap fullImageBitmap = mCache.getImage(mImageId, mBoardWidth, mBoardHeight);
+        if (fullImageBitmap == null) {
+            GameMetrics.IMAGE_CACHE_MISSES.increment();
+            long decodeStart = GameMetrics.DECODE.start();
+            try {
+                fullImageBitmap = PuzzleImageDecoder.decodeResource(mResources, mImageId,
+                        mBoardWidth, mBoardHeight);
+            } finally {
+                GameMetrics.DECODE.stop(decodeStart);
+            }
+            mCache.putImage(mImageId, mBoardWidth, mBoardHeight, fullImageBitmap);
+        }
+        int fullImageWidth = fullImageBitmap.getWidth();
+        int fullImageHeight = fullImageBitmap.getHeight();
+
+        long sliceStart = GameMetrics.SLICE.start();
+        tiles = new PuzzleGameTile[rows * columns];
+        Rect tileBounds = new Rect();
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                PuzzleImageUtil.getSubdivisionBounds(fullImageWidth, fullImageHeight,
+                        rows, columns, r, c, tileBounds);
+                int orderIndex = r * columns + c;
+                tiles[orderIndex] = new DrawablePuzzleTile(
+                        orderIndex,
+                        new BitmapRegionDrawable(fullImageBitmap, tileBounds),
+                        orderIndex == tiles.length - 1);
+            }
+        }
+        GameMetrics.SLICE.stop(sliceStart);
+        mCache.putTiles(mImageId, rows, columns, tileSize, tiles, fullImageBitmap);
+        return tiles;
+    }
+}
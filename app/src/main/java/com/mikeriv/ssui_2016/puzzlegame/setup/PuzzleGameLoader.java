@@ -0,0 +1,193 @@
+package com.mikeriv.ssui_2016.puzzlegame.setup;
+
+import com.mikeriv.ssui_2016.puzzlegame.metrics.GameMetrics;
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameBoard;
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameTile;
+import com.mikeriv.ssui_2016.puzzlegame.shuffle.PuzzleShuffler;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.Executor;
+
+/**
+ * Prepares new games off the UI thread. Each load creates the tiles, builds the board and
+ * shuffles it on the background executor, then hands the finished board to the listener on the
+ * callback executor. Starting a load cancels the one before it: a cancelled load stops at the
+ * next stage and its result is never delivered.
+ */
+public class PuzzleGameLoader {
+
+    /**
+     * Receives the outcome of a load on the callback executor
+     */
+    public interface OnPuzzleGameLoadedListener {
+        /**
+         * @param board - the shuffled board, with its tiles set
+         * @param shuffleSeed - the seed the board was shuffled with
+         */
+        void onPuzzleGameLoaded(PuzzleGameBoard board, long shuffleSeed);
+
+        /**
+         * @param error - why the game could not be prepared
+         */
+        void onPuzzleGameLoadFailed(RuntimeException error);
+    }
+
+    private final Executor mBackgroundExecutor;
+    private final Executor mCallbackExecutor;
+
+    // The load whose result will be delivered, if it is not cancelled
+    private LoadTask mCurrentTask;
+
+    /**
+     * @param backgroundExecutor - runs the stages of each load
+     * @param callbackExecutor - delivers results, usually the UI thread
+     */
+    public PuzzleGameLoader(Executor backgroundExecutor, Executor callbackExecutor) {
+        mBackgroundExecutor = backgroundExecutor;
+        mCallbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * Starts preparing a new game, cancelling any load still in progress.
+     * @param tileSource - creates the tiles of the board
+     * @param rows - the rows of the board
+     * @param columns - the cols of the board
+     * @param shuffler - scrambles the board
+     * @param shuffleSeed - the seed to shuffle with
+     * @param listener - receives the result on the callback executor
+     */
+    public synchronized void load(
+            PuzzleTileSource tileSource,
+            int rows,
+            int columns,
+            PuzzleShuffler shuffler,
+            long shuffleSeed,
+            OnPuzzleGameLoadedListener listener) {
+        cancel();
+        mCurrentTask = new LoadTask(tileSource, rows, columns, shuffler, shuffleSeed, listener);
+        mBackgroundExecutor.execute(mCurrentTask);
+    }
+
+    /**
+     * Cancels the load in progress, if any; its listener will not be called
+     */
+    public synchronized void cancel() {
+        if (mCurrentTask != null) {
+            mCurrentTask.mIsCancelled = true;
+            mCurrentTask = null;
+        }
+    }
+
+    /**
+     * @return true if a load has been started and has neither been delivered nor cancelled
+     */
+    public synchronized boolean isLoading() {
+        return mCurrentTask != null;
+    }
+
+    /**
+     * Builds a board in the solved state from its tiles
+     * @param rows - the rows of the board
+     * @param columns - the cols of the board
+     * @param tiles - the tiles in row-major solved order
+     * @return the board
+     * @throws IllegalArgumentException if there are not rows * columns tiles
+     */
+    public static PuzzleGameBoard buildBoard(int rows, int columns, PuzzleGameTile[] tiles)
+            throws IllegalArgumentException {
+        if (tiles.length != rows * columns) {
+            throw new IllegalArgumentException(
+                    "Expected " + rows * columns + " tiles, got " + tiles.length);
+        }
+        PuzzleGameBoard board = new PuzzleGameBoard(rows, columns);
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                board.setTile(tiles[r * columns + c], r, c);
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Hands a result to the listener unless the load was cancelled in the meantime. Runs on the
+     * callback executor.
+     */
+    private synchronized boolean finish(LoadTask task) {
+        if (task.mIsCancelled || task != mCurrentTask) {
+            return false;
+        }
+        mCurrentTask = null;
+        return true;
+    }
+
+    private class LoadTask implements Runnable {
+        private final PuzzleTileSource mTileSource;
+        private final int mRows;
+        private final int mColumns;
+        private final PuzzleShuffler mShuffler;
+        private final long mShuffleSeed;
+        private final OnPuzzleGameLoadedListener mListener;
+
+        volatile boolean mIsCancelled;
+
+        LoadTask(
+                PuzzleTileSource tileSource,
+                int rows,
+                int columns,
+                PuzzleShuffler shuffler,
+                long shuffleSeed,
+                OnPuzzleGameLoadedListener listener) {
+            mTileSource = tileSource;
+            mRows = rows;
+            mColumns = columns;
+            mShuffler = shuffler;
+            mShuffleSeed = shuffleSeed;
+            mListener = listener;
+        }
+
+        @Override
+        public void run() {
+            final PuzzleGameBoard board;
+            try {
+                if (mIsCancelled) {
+                    return;
+                }
+                PuzzleGameTile[] tiles = mTileSource.createTiles(mRows, mColumns);
+                if (mIsCancelled) {
+                    return;
+                }
+                board = buildBoard(mRows, mColumns, tiles);
+                if (mIsCancelled) {
+                    return;
+                }
+                long shuffleStart = GameMetrics.SHUFFLE.start();
+                try {
+                    mShuffler.shuffle(board, new SplittableRandom(mShuffleSeed));
+                } finally {
+                    GameMetrics.SHUFFLE.stop(shuffleStart);
+                }
+                if (mIsCancelled) {
+                    return;
+                }
+            } catch (final RuntimeException e) {
+                mCallbackExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (finish(LoadTask.this)) {
+                            mListener.onPuzzleGameLoadFailed(e);
+                        }
+                    }
+                });
+                return;
+            }
+            mCallbackExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (finish(LoadTask.this)) {
+                        mListener.onPuzzleGameLoaded(board, mShuffleSeed);
+                    }
+                }
+            });
+        }
+    }
+}
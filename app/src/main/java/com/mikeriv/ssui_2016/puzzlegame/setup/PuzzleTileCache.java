@@ -0,0 +1,150 @@
+package com.mikeriv.ssui_2016.puzzlegame.setup;
+
+import android.graphics.Bitmap;
+
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameTile;
+import com.mikeriv.ssui_2016.puzzlegame.util.ByteBoundedLruCache;
+
+/**
+ * Keeps recently decoded puzzle images and the tile sets sliced from them, so restarting a
+ * puzzle with the same image and grid costs nothing beyond the shuffle. Images are keyed by
+ * drawable id and the board size they were decoded for, tile sets by drawable id, grid size and
+ * tile size in pixels.
+ * Every entry is charged the full size of its bitmap, so an image shared by a tile set is
+ * counted twice and the real footprint stays under the bound.
+ */
+public class PuzzleTileCache {
+
+    private final ByteBoundedLruCache<Key, Entry> mEntries;
+
+    /**
+     * @param maxSize - the most bytes of bitmaps to keep
+     */
+    public PuzzleTileCache(long maxSize) {
+        mEntries = new ByteBoundedLruCache<Key, Entry>(maxSize) {
+            @Override
+            protected long sizeOf(Key key, Entry entry) {
+                return entry.mBitmap.getAllocationByteCount();
+            }
+        };
+    }
+
+    /**
+     * @param imageId - the id of the image resource
+     * @param boardWidth - the board width the image was decoded for
+     * @param boardHeight - the board height the image was decoded for
+     * @return the decoded image, or null if it is not cached
+     */
+    public Bitmap getImage(int imageId, int boardWidth, int boardHeight) {
+        Entry entry = mEntries.get(new Key(imageId, 0, 0, boardWidth, boardHeight));
+        return entry != null ? entry.mBitmap : null;
+    }
+
+    public void putImage(int imageId, int boardWidth, int boardHeight, Bitmap bitmap) {
+        mEntries.put(new Key(imageId, 0, 0, boardWidth, boardHeight), new Entry(bitmap, null));
+    }
+
+    /**
+     * @param imageId - the id of the image resource the tiles were sliced from
+     * @param rows - the rows of the grid
+     * @param columns - the cols of the grid
+     * @param tileSize - the side of a tile on screen, in pixels
+     * @return a copy of the cached tile array, or null if it is not cached
+     */
+    public PuzzleGameTile[] getTiles(int imageId, int rows, int columns, int tileSize) {
+        Entry entry = mEntries.get(new Key(imageId, rows, columns, tileSize, tileSize));
+        return entry != null ? entry.mTiles.clone() : null;
+    }
+
+    /**
+     * @param bitmap - the image the tiles draw from
+     */
+    public void putTiles(
+            int imageId,
+            int rows,
+            int columns,
+            int tileSize,
+            PuzzleGameTile[] tiles,
+            Bitmap bitmap) {
+        mEntries.put(new Key(imageId, rows, columns, tileSize, tileSize),
+                new Entry(bitmap, tiles.clone()));
+    }
+
+    public void clear() {
+        mEntries.clear();
+    }
+
+    public long getSize() {
+        return mEntries.getSize();
+    }
+
+    public long getMaxSize() {
+        return mEntries.getMaxSize();
+    }
+
+    public long getHitCount() {
+        return mEntries.getHitCount();
+    }
+
+    public long getMissCount() {
+        return mEntries.getMissCount();
+    }
+
+    public long getEvictionCount() {
+        return mEntries.getEvictionCount();
+    }
+
+    @Override
+    public String toString() {
+        return mEntries.toString();
+    }
+
+    /**
+     * Images have 0 rows and cols, and their size is the board size they were decoded for; tile
+     * sets have the size of one tile
+     */
+    private static class Key {
+        final int mImageId;
+        final int mRows;
+        final int mColumns;
+        final int mWidth;
+        final int mHeight;
+
+        Key(int imageId, int rows, int columns, int width, int height) {
+            mImageId = imageId;
+            mRows = rows;
+            mColumns = columns;
+            mWidth = width;
+            mHeight = height;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return mImageId == other.mImageId
+                    && mRows == other.mRows
+                    && mColumns == other.mColumns
+                    && mWidth == other.mWidth
+                    && mHeight == other.mHeight;
+        }
+
+        @Override
+        public int hashCode() {
+            return (((mImageId * 31 + mRows) * 31 + mColumns) * 31 + mWidth) * 31 + mHeight;
+        }
+    }
+
+    private static class Entry {
+        final Bitmap mBitmap;
+        // Null for images
+        final PuzzleGameTile[] mTiles;
+
+        Entry(Bitmap bitmap, PuzzleGameTile[] tiles) {
+            mBitmap = bitmap;
+            mTiles = tiles;
+        }
+    }
+}
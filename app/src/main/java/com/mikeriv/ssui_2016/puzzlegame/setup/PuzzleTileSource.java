@@ -0,0 +1,18 @@
+package com.mikeriv.ssui_2016.puzzlegame.setup;
+
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameTile;
+
+/**
+ * Creates the tiles of a new puzzle, e.g. by decoding and slicing an image. Called on a
+ * background thread, so it must not touch views.
+ */
+public interface PuzzleTileSource {
+
+    /**
+     * @param rows - the rows of the board
+     * @param columns - the cols of the board
+     * @return rows * columns tiles in row-major solved order, with order indices 0 up and the last
+     * tile empty
+     */
+    PuzzleGameTile[] createTiles(int rows, int columns);
+}
@@ -0,0 +1,133 @@
+package com.mikeriv.ssui_2016.puzzlegame.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A thread-safe least recently used cache bounded by the total size of its values in bytes.
+ * Adding an entry evicts the least recently used entries until everything fits; a value larger
+ * than the whole cache is not kept at all. Hits, misses and evictions are counted.
+ * @param <K> - the key type
+ * @param <V> - the value type
+ */
+public abstract class ByteBoundedLruCache<K, V> {
+
+    // Iterates from the least to the most recently used entry
+    private final LinkedHashMap<K, V> mEntries = new LinkedHashMap<>(16, 0.75f, true);
+    private final long mMaxSize;
+
+    private long mSize;
+    private long mHitCount;
+    private long mMissCount;
+    private long mEvictionCount;
+
+    /**
+     * @param maxSize - the most bytes the cached values may take up
+     */
+    public ByteBoundedLruCache(long maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive, got " + maxSize);
+        }
+        mMaxSize = maxSize;
+    }
+
+    /**
+     * @param key - the key of the entry
+     * @param value - the value of the entry
+     * @return how many bytes the value takes up; must not change while it is cached
+     */
+    protected abstract long sizeOf(K key, V value);
+
+    /**
+     * @return the cached value, which becomes the most recently used, or null if there is none
+     */
+    public synchronized V get(K key) {
+        V value = mEntries.get(key);
+        if (value != null) {
+            mHitCount++;
+        } else {
+            mMissCount++;
+        }
+        return value;
+    }
+
+    /**
+     * Caches a value as the most recently used entry, replacing any value with the same key
+     * @return false if the value is too large to be cached
+     */
+    public synchronized boolean put(K key, V value) {
+        long size = sizeOf(key, value);
+        V previous = mEntries.remove(key);
+        if (previous != null) {
+            mSize -= sizeOf(key, previous);
+        }
+        if (size > mMaxSize) {
+            return false;
+        }
+        trimToSize(mMaxSize - size);
+        mEntries.put(key, value);
+        mSize += size;
+        return true;
+    }
+
+    /**
+     * @return the removed value, or null if there was none
+     */
+    public synchronized V remove(K key) {
+        V value = mEntries.remove(key);
+        if (value != null) {
+            mSize -= sizeOf(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Removes every entry; these do not count as evictions
+     */
+    public synchronized void clear() {
+        mEntries.clear();
+        mSize = 0;
+    }
+
+    public synchronized long getSize() {
+        return mSize;
+    }
+
+    public long getMaxSize() {
+        return mMaxSize;
+    }
+
+    public synchronized int getEntryCount() {
+        return mEntries.size();
+    }
+
+    public synchronized long getHitCount() {
+        return mHitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return mMissCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return mEvictionCount;
+    }
+
+    private void trimToSize(long maxSize) {
+        Iterator<Map.Entry<K, V>> iterator = mEntries.entrySet().iterator();
+        while (mSize > maxSize && iterator.hasNext()) {
+            Map.Entry<K, V> eldest = iterator.next();
+            mSize -= sizeOf(eldest.getKey(), eldest.getValue());
+            iterator.remove();
+            mEvictionCount++;
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return getClass().getSimpleName() + "[size=" + mSize + "/" + mMaxSize
+                + ", hits=" + mHitCount + ", misses=" + mMissCount
+                + ", evictions=" + mEvictionCount + "]";
+    }
+}
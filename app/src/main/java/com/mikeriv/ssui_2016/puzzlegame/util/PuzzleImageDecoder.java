@@ -0,0 +1,160 @@
+package com.mikeriv.ssui_2016.puzzlegame.util;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Rect;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Decodes puzzle images at about the size the board shows them. The bounds of the image are
+ * read first so that only the centered part of the image with the board's aspect ratio is
+ * decoded, subsampled by the largest power of two that keeps it at least as large as the board.
+ * The decoded bitmap is therefore under twice the board size on each side however large the
+ * source image is.
+ */
+public class PuzzleImageDecoder {
+
+    // Opaque images decoded larger than this many pixels use 2 bytes per pixel instead of 4
+    private static final int MAX_ARGB_PIXEL_COUNT = 1024 * 1024;
+
+    /**
+     * Decodes the centered part of an image resource that has the board's aspect ratio,
+     * subsampled to fit the board.
+     * @param resources - the resources to decode from
+     * @param resId - the id of the image resource
+     * @param boardWidth - the width of the board the image is shown on, in pixels
+     * @param boardHeight - the height of the board the image is shown on, in pixels
+     * @return the bitmap, at least as large as the board unless the image is smaller than that
+     * @throws IllegalArgumentException if the resource is not an image that can be decoded
+     */
+    public static Bitmap decodeResource(
+            Resources resources,
+            int resId,
+            int boardWidth,
+            int boardHeight) throws IllegalArgumentException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        // Resources in drawable/ would otherwise be scaled up by the screen density
+        options.inScaled = false;
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeResource(resources, resId, options);
+        int imageWidth = options.outWidth;
+        int imageHeight = options.outHeight;
+        if (imageWidth <= 0 || imageHeight <= 0) {
+            throw new IllegalArgumentException("Resource " + resId + " is not an image");
+        }
+        boardWidth = Math.max(boardWidth, 1);
+        boardHeight = Math.max(boardHeight, 1);
+
+        Rect cropBounds = new Rect();
+        getCenteredCropBounds(imageWidth, imageHeight, boardWidth, boardHeight, cropBounds);
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = Math.min(
+                calculateInSampleSize(cropBounds.width(), boardWidth),
+                calculateInSampleSize(cropBounds.height(), boardHeight));
+        long decodedPixelCount = (long) (cropBounds.width() / options.inSampleSize)
+                * (cropBounds.height() / options.inSampleSize);
+        options.inPreferredConfig = isOpaqueMimeType(options.outMimeType)
+                && decodedPixelCount > MAX_ARGB_PIXEL_COUNT
+                ? Bitmap.Config.RGB_565
+                : Bitmap.Config.ARGB_8888;
+
+        Bitmap bitmap = decodeRegion(resources, resId, cropBounds, options);
+        if (bitmap != null) {
+            return bitmap;
+        }
+        // Region decoding is not supported for every format, so decode the subsampled image and
+        // crop out of it instead
+        bitmap = BitmapFactory.decodeResource(resources, resId, options);
+        if (bitmap == null) {
+            throw new IllegalArgumentException("Resource " + resId + " could not be decoded");
+        }
+        getCenteredCropBounds(bitmap.getWidth(), bitmap.getHeight(), boardWidth, boardHeight,
+                cropBounds);
+        if (cropBounds.width() == bitmap.getWidth()
+                && cropBounds.height() == bitmap.getHeight()) {
+            return bitmap;
+        }
+        Bitmap cropped = Bitmap.createBitmap(
+                bitmap,
+                cropBounds.left,
+                cropBounds.top,
+                cropBounds.width(),
+                cropBounds.height());
+        bitmap.recycle();
+        return cropped;
+    }
+
+    /**
+     * Finds the largest centered part of an image with the aspect ratio of a target size
+     * @param outBounds - the rect to set to the part of the image
+     */
+    public static void getCenteredCropBounds(
+            int imageWidth,
+            int imageHeight,
+            int targetWidth,
+            int targetHeight,
+            Rect outBounds) {
+        int cropWidth = imageWidth;
+        int cropHeight = imageHeight;
+        if ((long) imageWidth * targetHeight > (long) imageHeight * targetWidth) {
+            cropWidth = Math.max(1, (int) ((long) imageHeight * targetWidth / targetHeight));
+        } else {
+            cropHeight = Math.max(1, (int) ((long) imageWidth * targetHeight / targetWidth));
+        }
+        int left = (imageWidth - cropWidth) / 2;
+        int top = (imageHeight - cropHeight) / 2;
+        outBounds.set(left, top, left + cropWidth, top + cropHeight);
+    }
+
+    /**
+     * @param imageSize - the width or height of the part of the image to decode, in source pixels
+     * @param targetSize - the width or height it is shown at, in pixels
+     * @return the largest power of two the image can be subsampled by and still be at least
+     * targetSize pixels along that side, 1 if it is already smaller
+     */
+    public static int calculateInSampleSize(int imageSize, int targetSize) {
+        int inSampleSize = 1;
+        if (targetSize <= 0) {
+            targetSize = 1;
+        }
+        while (imageSize / (inSampleSize * 2) >= targetSize) {
+            inSampleSize *= 2;
+        }
+        return inSampleSize;
+    }
+
+    private static boolean isOpaqueMimeType(String mimeType) {
+        return "image/jpeg".equals(mimeType);
+    }
+
+    /**
+     * @return the decoded region, or null if the resource cannot be decoded by region
+     */
+    private static Bitmap decodeRegion(
+            Resources resources,
+            int resId,
+            Rect bounds,
+            BitmapFactory.Options options) {
+        InputStream input = resources.openRawResource(resId);
+        try {
+            BitmapRegionDecoder decoder = BitmapRegionDecoder.newInstance(input, false);
+            try {
+                return decoder.decodeRegion(bounds, options);
+            } finally {
+                decoder.recycle();
+            }
+        } catch (IOException e) {
+            return null;
+        } finally {
+            try {
+                input.close();
+            } catch (IOException e) {
+                // Nothing was left to read
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.mikeriv.ssui_2016.puzzlegame.util;
 
 import android.graphics.Bitmap;
+import android.graphics.Rect;
 
 /**
  * Helper functions for dealing with Bitmaps in the Puzzle Game
@@ -30,33 +31,122 @@ public class PuzzleImageUtil {
             int subdivisionHeight,
             int subdivisionRowIndex,
             int subdivisionColumnIndex) throws IllegalArgumentException {
+        int yStart = subdivisionRowIndex * subdivisionHeight;
+        int xStart = subdivisionColumnIndex * subdivisionWidth;
+        Rect bounds = new Rect(
+                xStart,
+                yStart,
+                xStart + subdivisionWidth,
+                yStart + subdivisionHeight);
+        return getSubdivisionOfBitmap(
+                bitmap,
+                bounds,
+                new int[subdivisionWidth * subdivisionHeight],
+                null);
+    }
 
-        // The original bitmap dimensions
-        int bitmapWidth = bitmap.getWidth();
-        int bitmapHeight = bitmap.getHeight();
-
-        int[] pixels = new int[subdivisionHeight * subdivisionWidth];
-        int yStart = subdivisionRowIndex * (subdivisionHeight - 1);
-        int xStart = subdivisionColumnIndex * (subdivisionWidth - 1);
-
-        if (xStart + subdivisionWidth > bitmapWidth
-                || yStart + subdivisionHeight > bitmapHeight) {
+    /**
+     * Copies a subdivision of a bitmap through a caller owned pixel buffer, so that slicing a
+     * whole image only needs one buffer and, if the tiles are drawn one at a time, one bitmap.
+     * @param bitmap - the bitmap to get a subsection from
+     * @param bounds - the pixels of the subsection in the bitmap
+     * @param pixelBuffer - scratch space for at least bounds.width() * bounds.height() pixels
+     * @param reusableBitmap - a mutable bitmap the size of bounds to copy the pixels into, or null
+     *                       to have a new bitmap created
+     * @return the bitmap holding the pixels of the subsection
+     * @throws IllegalArgumentException if the desired subimage is out of bounds of the image, or
+     * the buffer or the reusable bitmap cannot hold it
+     */
+    public static final Bitmap getSubdivisionOfBitmap(
+            Bitmap bitmap,
+            Rect bounds,
+            int[] pixelBuffer,
+            Bitmap reusableBitmap) throws IllegalArgumentException {
+        int width = bounds.width();
+        int height = bounds.height();
+        if (bounds.left < 0 || bounds.top < 0
+                || bounds.right > bitmap.getWidth()
+                || bounds.bottom > bitmap.getHeight()) {
             throw new IllegalArgumentException(
                     "Cannot get subdivision outside bounds of the image width and height");
         }
+        if (pixelBuffer.length < width * height) {
+            throw new IllegalArgumentException(
+                    "Pixel buffer holds " + pixelBuffer.length + " pixels, need "
+                            + width * height);
+        }
         bitmap.getPixels(
-                pixels,
+                pixelBuffer,
                 0,                  // Offset in pixels array
-                subdivisionWidth,   // Stride
-                xStart,
-                yStart,
-                subdivisionWidth,
-                subdivisionHeight);
-        return Bitmap.createBitmap(
-                pixels,
-                subdivisionWidth,
-                subdivisionHeight,
-                Bitmap.Config.ARGB_8888);
+                width,              // Stride
+                bounds.left,
+                bounds.top,
+                width,
+                height);
+        if (reusableBitmap == null) {
+            return Bitmap.createBitmap(pixelBuffer, width, height, Bitmap.Config.ARGB_8888);
+        }
+        if (!reusableBitmap.isMutable()
+                || reusableBitmap.getWidth() != width
+                || reusableBitmap.getHeight() != height) {
+            throw new IllegalArgumentException(
+                    "Reusable bitmap must be mutable and " + width + "x" + height);
+        }
+        reusableBitmap.setPixels(pixelBuffer, 0, width, 0, 0, width, height);
+        return reusableBitmap;
+    }
+
+    /**
+     * Gets the pixels of a subdivision of an image split into a grid. Subdivision edges are
+     * rounded down from the exact fractions of the image, so neighbouring subdivisions share an
+     * edge, cover the whole image and differ in size by at most one pixel.
+     * @param imageWidth - the width of the image
+     * @param imageHeight - the height of the image
+     * @param rowsCount - the rows of the grid
+     * @param columnsCount - the cols of the grid
+     * @param subdivisionRowIndex - the row of the subdivision in the grid
+     * @param subdivisionColumnIndex - the col of the subdivision in the grid
+     * @param outBounds - the rect to set to the bounds of the subdivision
+     * @return outBounds
+     */
+    public static final Rect getSubdivisionBounds(
+            int imageWidth,
+            int imageHeight,
+            int rowsCount,
+            int columnsCount,
+            int subdivisionRowIndex,
+            int subdivisionColumnIndex,
+            Rect outBounds) {
+        outBounds.set(
+                getSubdivisionStart(imageWidth, columnsCount, subdivisionColumnIndex),
+                getSubdivisionStart(imageHeight, rowsCount, subdivisionRowIndex),
+                getSubdivisionStart(imageWidth, columnsCount, subdivisionColumnIndex + 1),
+                getSubdivisionStart(imageHeight, rowsCount, subdivisionRowIndex + 1));
+        return outBounds;
+    }
+
+    /**
+     * @param length - the length of the image side being split
+     * @param subdivisionCount - how many subdivisions the side is split into
+     * @param subdivisionIndex - the subdivision to find, subdivisionCount for the end of the side
+     * @return the first pixel of the subdivision along that side
+     */
+    public static final int getSubdivisionStart(
+            int length,
+            int subdivisionCount,
+            int subdivisionIndex) {
+        return (int) ((long) length * subdivisionIndex / subdivisionCount);
+    }
+
+    /**
+     * The inverse of getSubdivisionStart()
+     * @param length - the length of the side being split
+     * @param subdivisionCount - how many subdivisions the side is split into
+     * @param position - a pixel along that side, from 0 to length - 1
+     * @return the subdivision the pixel is in
+     */
+    public static final int getSubdivisionIndex(int length, int subdivisionCount, int position) {
+        return (int) ((((long) position + 1) * subdivisionCount - 1) / length);
     }
 
 }
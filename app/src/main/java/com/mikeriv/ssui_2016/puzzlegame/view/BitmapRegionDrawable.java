@@ -0,0 +1,75 @@
+package com.mikeriv.ssui_2016.puzzlegame.view;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+
+/**
+ * Draws one region of a bitmap that may be shared with other drawables, stretched to the
+ * drawable bounds. Lets every tile of a puzzle draw straight from the full image instead of
+ * holding a copy of its pixels.
+ */
+public class BitmapRegionDrawable extends Drawable {
+
+    private final Bitmap mBitmap;
+    private final Rect mSourceBounds;
+    private final Paint mPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    /**
+     * @param bitmap - the bitmap to draw from, which must outlive this drawable
+     * @param sourceBounds - the region of the bitmap to draw, which is copied
+     */
+    public BitmapRegionDrawable(Bitmap bitmap, Rect sourceBounds) {
+        mBitmap = bitmap;
+        mSourceBounds = new Rect(sourceBounds);
+    }
+
+    public Bitmap getBitmap() {
+        return mBitmap;
+    }
+
+    public Rect getSourceBounds() {
+        return mSourceBounds;
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        canvas.drawBitmap(mBitmap, mSourceBounds, getBounds(), mPaint);
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        if (alpha != mPaint.getAlpha()) {
+            mPaint.setAlpha(alpha);
+            invalidateSelf();
+        }
+    }
+
+    @Override
+    public void setColorFilter(ColorFilter colorFilter) {
+        mPaint.setColorFilter(colorFilter);
+        invalidateSelf();
+    }
+
+    @Override
+    public int getOpacity() {
+        return mBitmap.hasAlpha() || mPaint.getAlpha() < 255
+                ? PixelFormat.TRANSLUCENT
+                : PixelFormat.OPAQUE;
+    }
+
+    // No intrinsic size, so an image view stretches the region over the whole tile
+    @Override
+    public int getIntrinsicWidth() {
+        return -1;
+    }
+
+    @Override
+    public int getIntrinsicHeight() {
+        return -1;
+    }
+}
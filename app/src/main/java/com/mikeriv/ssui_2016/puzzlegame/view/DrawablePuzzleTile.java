@@ -0,0 +1,30 @@
+package com.mikeriv.ssui_2016.puzzlegame.view;
+
+import android.graphics.drawable.Drawable;
+
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameTile;
+
+/**
+ * A tile that PuzzleBoardView draws with a Drawable, e.g. its part of the puzzle image
+ */
+public class DrawablePuzzleTile extends PuzzleGameTile {
+
+    private Drawable mDrawable = null;
+
+    public DrawablePuzzleTile(int tileOrderIndex, Drawable drawable) {
+        this(tileOrderIndex, drawable, false);
+    }
+
+    public DrawablePuzzleTile(int tileOrderIndex, Drawable drawable, boolean isEmpty) {
+        super(tileOrderIndex, isEmpty);
+        mDrawable = drawable;
+    }
+
+    public void setDrawable(Drawable drawable) {
+        mDrawable = drawable;
+    }
+
+    public Drawable getDrawable() {
+        return mDrawable;
+    }
+}
@@ -0,0 +1,489 @@
+package com.mikeriv.ssui_2016.puzzlegame.view;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.util.AttributeSet;
+import android.view.Choreographer;
+import android.view.MotionEvent;
+import android.view.View;
+
+import com.mikeriv.ssui_2016.puzzlegame.metrics.GameMetrics;
+import com.mikeriv.ssui_2016.puzzlegame.metrics.Metrics;
+import com.mikeriv.ssui_2016.puzzlegame.model.Direction;
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameBoard;
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameTile;
+import com.mikeriv.ssui_2016.puzzlegame.util.PuzzleImageUtil;
+
+import java.util.Arrays;
+
+/**
+ * Draws a whole PuzzleGameBoard of DrawablePuzzleTiles as one view. Tiles whose drawables are
+ * BitmapRegionDrawables are drawn straight from their shared bitmap with a source and a
+ * destination rect, other tiles through their drawable; the empty tile is left blank. Cells
+ * split the view the same seam-free way tiles split the image, and touches are mapped to cells
+ * arithmetically. The view listens to its board and redraws only the cells a move swapped; bulk
+ * changes redraw everything.
+ *
+ * Moves are animated: the board changes at once, and each tile that moved is drawn sliding from
+ * its old cell to its new one. One Choreographer frame callback drives every tile of a slide, and
+ * nothing is allocated per frame. Taps and queued moves that arrive while tiles are sliding wait
+ * until the slide has finished, and are then handed out one at a time.
+ *
+ * While metrics are enabled the view times its draws, and the time from each move until the
+ * board is next drawn.
+ */
+public class PuzzleBoardView extends View {
+
+    /**
+     * Receives taps on the cells of the board
+     */
+    public interface OnCellClickListener {
+        /**
+         * @param row - the row of the tapped cell
+         * @param col - the col of the tapped cell
+         */
+        void onCellClick(int row, int col);
+    }
+
+    // How long one slide takes by default
+    private static final long DEFAULT_SLIDE_DURATION_MILLIS = 120;
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    // Queued moves are stored as negative numbers, taps as cell indices
+    private static final int QUEUED_MOVE_BASE = -1;
+
+    private final Paint mTilePaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    // Reused for the destination of every tile drawn
+    private final Rect mCellBounds = new Rect();
+    private final Rect mSourceCellBounds = new Rect();
+
+    private final Choreographer.FrameCallback mFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            onAnimationFrame(frameTimeNanos);
+        }
+    };
+
+    private final PuzzleGameBoard.OnBoardChangeListener mBoardChangeListener =
+            new PuzzleGameBoard.OnBoardChangeListener() {
+        @Override
+        public void onCellsSwapped(int firstCellIndex, int secondCellIndex) {
+            if (mMoveNanos == 0 && Metrics.isEnabled()) {
+                mMoveNanos = System.nanoTime();
+            }
+            if (mSlideDurationNanos > 0 && isAttachedToWindow()) {
+                startSlide(firstCellIndex, secondCellIndex);
+            } else {
+                invalidateCell(firstCellIndex);
+                invalidateCell(secondCellIndex);
+            }
+        }
+
+        @Override
+        public void onBoardChanged() {
+            stopSlide();
+            invalidate();
+        }
+    };
+
+    private PuzzleGameBoard mBoard;
+    private OnCellClickListener mOnCellClickListener;
+
+    // The cell under the finger since the last ACTION_DOWN, or INVALID_CELL_INDEX
+    private int mPressedCellIndex = PuzzleGameBoard.INVALID_CELL_INDEX;
+
+    private long mSlideDurationNanos = DEFAULT_SLIDE_DURATION_MILLIS * NANOS_PER_MILLI;
+    // The cell each sliding tile came from, by the cell it is sliding into, or
+    // INVALID_CELL_INDEX for tiles that are not sliding
+    private int[] mSlideSourceCells = new int[0];
+    private boolean mIsSliding;
+    // The frame time the slide started at, or 0 until its first frame
+    private long mSlideStartNanos;
+    // How far the sliding tiles have got, from 0 to 1
+    private float mSlideProgress;
+    // The rows and cols the sliding tiles move through, which are redrawn every frame
+    private int mSlideMinRow;
+    private int mSlideMaxRow;
+    private int mSlideMinColumn;
+    private int mSlideMaxColumn;
+
+    // When the first move since the last draw was made, or 0
+    private long mMoveNanos;
+
+    // Taps and moves waiting for the slide to finish, as a ring buffer
+    private int[] mQueuedInput = new int[16];
+    private int mQueuedInputStart;
+    private int mQueuedInputCount;
+
+    public PuzzleBoardView(Context context) {
+        super(context);
+    }
+
+    public PuzzleBoardView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    /**
+     * Shows a board and redraws every cell. From then on the view redraws the cells the board
+     * reports as changed, until another board is set.
+     * @param board - the board to draw, or null to draw nothing
+     */
+    public void setBoard(PuzzleGameBoard board) {
+        boolean isResized = mBoard == null || board == null
+                || mBoard.getRowsCount() != board.getRowsCount()
+                || mBoard.getColumnsCount() != board.getColumnsCount();
+        if (mBoard != null) {
+            mBoard.setOnBoardChangeListener(null);
+        }
+        mBoard = board;
+        if (mBoard != null) {
+            mBoard.setOnBoardChangeListener(mBoardChangeListener);
+            mSlideSourceCells = new int[mBoard.getTotalTileCount()];
+            Arrays.fill(mSlideSourceCells, PuzzleGameBoard.INVALID_CELL_INDEX);
+        }
+        stopSlide();
+        mQueuedInputCount = 0;
+        mPressedCellIndex = PuzzleGameBoard.INVALID_CELL_INDEX;
+        if (isResized) {
+            requestLayout();
+        }
+        invalidate();
+    }
+
+    public PuzzleGameBoard getBoard() {
+        return mBoard;
+    }
+
+    public void setOnCellClickListener(OnCellClickListener listener) {
+        mOnCellClickListener = listener;
+    }
+
+    /**
+     * @param millis - how long a slide takes; 0 moves tiles without animating them
+     */
+    public void setSlideDuration(long millis) {
+        mSlideDurationNanos = millis * NANOS_PER_MILLI;
+    }
+
+    /**
+     * @return true while tiles are sliding or queued input is waiting to be handed out
+     */
+    public boolean isAnimating() {
+        return mIsSliding || mQueuedInputCount > 0;
+    }
+
+    /**
+     * Queues moves to be played back one slide at a time, e.g. the moves of a solution. When
+     * its turn comes each move is handed to the OnCellClickListener as a tap on the tile that
+     * slides, so the moves go through the same path as the user's taps. Moves that cannot be
+     * made on the board by then are skipped.
+     * @param moves - the directions the tiles slide in, in order
+     */
+    public void queueMoves(Direction[] moves) {
+        for (Direction move : moves) {
+            queueInput(QUEUED_MOVE_BASE - move.ordinal());
+        }
+        if (!mIsSliding) {
+            dispatchQueuedInput();
+        }
+    }
+
+    /**
+     * Drops every queued tap and move that has not been handed out yet
+     */
+    public void clearQueuedInput() {
+        mQueuedInputCount = 0;
+    }
+
+    /**
+     * Takes up as much of the given space as square cells in the board's rows and cols allow
+     */
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        int height = MeasureSpec.getSize(heightMeasureSpec);
+        if (mBoard != null) {
+            int rows = mBoard.getRowsCount();
+            int cols = mBoard.getColumnsCount();
+            int cellSize = Math.min(width / cols, height / rows);
+            if (cellSize > 0) {
+                width = cellSize * cols;
+                height = cellSize * rows;
+            }
+        }
+        setMeasuredDimension(width, height);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        stopSlide();
+    }
+
+    private void invalidateCell(int cellIndex) {
+        getCellBounds(cellIndex, mCellBounds);
+        invalidate(mCellBounds.left, mCellBounds.top, mCellBounds.right, mCellBounds.bottom);
+    }
+
+    private void getCellBounds(int cellIndex, Rect outBounds) {
+        int width = getWidth();
+        int height = getHeight();
+        int rows = mBoard.getRowsCount();
+        int cols = mBoard.getColumnsCount();
+        int row = cellIndex / cols;
+        int col = cellIndex % cols;
+        outBounds.set(
+                PuzzleImageUtil.getSubdivisionStart(width, cols, col),
+                PuzzleImageUtil.getSubdivisionStart(height, rows, row),
+                PuzzleImageUtil.getSubdivisionStart(width, cols, col + 1),
+                PuzzleImageUtil.getSubdivisionStart(height, rows, row + 1));
+    }
+
+    /**
+     * Adds a swap to the current slide, or starts a new slide. Each of the two tiles slides in
+     * from the cell it was in when the slide started; the tiles of a multi-tile slide are all
+     * swapped before the next frame, so they slide together.
+     */
+    private void startSlide(int firstCellIndex, int secondCellIndex) {
+        int cols = mBoard.getColumnsCount();
+        if (!mIsSliding) {
+            mIsSliding = true;
+            mSlideStartNanos = 0;
+            mSlideProgress = 0f;
+            mSlideMinRow = mSlideMaxRow = firstCellIndex / cols;
+            mSlideMinColumn = mSlideMaxColumn = firstCellIndex % cols;
+            Choreographer.getInstance().postFrameCallback(mFrameCallback);
+        }
+        int firstSource = getSlideSource(secondCellIndex);
+        int secondSource = getSlideSource(firstCellIndex);
+        setSlideSource(firstCellIndex, firstSource);
+        setSlideSource(secondCellIndex, secondSource);
+        includeInSlide(firstCellIndex, cols);
+        includeInSlide(secondCellIndex, cols);
+        invalidateSlide();
+    }
+
+    /**
+     * @return the cell the tile in cellIndex was in when the slide started
+     */
+    private int getSlideSource(int cellIndex) {
+        int sourceCell = mSlideSourceCells[cellIndex];
+        return sourceCell != PuzzleGameBoard.INVALID_CELL_INDEX ? sourceCell : cellIndex;
+    }
+
+    private void setSlideSource(int cellIndex, int sourceCell) {
+        mSlideSourceCells[cellIndex] =
+                sourceCell != cellIndex ? sourceCell : PuzzleGameBoard.INVALID_CELL_INDEX;
+    }
+
+    private void includeInSlide(int cellIndex, int cols) {
+        int row = cellIndex / cols;
+        int col = cellIndex % cols;
+        mSlideMinRow = Math.min(mSlideMinRow, row);
+        mSlideMaxRow = Math.max(mSlideMaxRow, row);
+        mSlideMinColumn = Math.min(mSlideMinColumn, col);
+        mSlideMaxColumn = Math.max(mSlideMaxColumn, col);
+    }
+
+    private void invalidateSlide() {
+        int width = getWidth();
+        int height = getHeight();
+        int rows = mBoard.getRowsCount();
+        int cols = mBoard.getColumnsCount();
+        invalidate(
+                PuzzleImageUtil.getSubdivisionStart(width, cols, mSlideMinColumn),
+                PuzzleImageUtil.getSubdivisionStart(height, rows, mSlideMinRow),
+                PuzzleImageUtil.getSubdivisionStart(width, cols, mSlideMaxColumn + 1),
+                PuzzleImageUtil.getSubdivisionStart(height, rows, mSlideMaxRow + 1));
+    }
+
+    private void onAnimationFrame(long frameTimeNanos) {
+        if (!mIsSliding) {
+            return;
+        }
+        if (mSlideStartNanos == 0) {
+            mSlideStartNanos = frameTimeNanos;
+        }
+        float t = Math.min(1f, (float) (frameTimeNanos - mSlideStartNanos) / mSlideDurationNanos);
+        // Decelerate into the new cell
+        mSlideProgress = 1f - (1f - t) * (1f - t);
+        invalidateSlide();
+        if (t < 1f) {
+            Choreographer.getInstance().postFrameCallback(mFrameCallback);
+            return;
+        }
+        stopSlide();
+        dispatchQueuedInput();
+    }
+
+    private void stopSlide() {
+        if (!mIsSliding) {
+            return;
+        }
+        mIsSliding = false;
+        Choreographer.getInstance().removeFrameCallback(mFrameCallback);
+        Arrays.fill(mSlideSourceCells, PuzzleGameBoard.INVALID_CELL_INDEX);
+        invalidateSlide();
+    }
+
+    private void queueInput(int input) {
+        if (mQueuedInputCount == mQueuedInput.length) {
+            int[] queue = new int[mQueuedInput.length * 2];
+            for (int i = 0; i < mQueuedInputCount; i++) {
+                queue[i] = mQueuedInput[(mQueuedInputStart + i) % mQueuedInput.length];
+            }
+            mQueuedInput = queue;
+            mQueuedInputStart = 0;
+        }
+        mQueuedInput[(mQueuedInputStart + mQueuedInputCount) % mQueuedInput.length] = input;
+        mQueuedInputCount++;
+    }
+
+    /**
+     * Hands queued input to the listener until one of them starts a slide or the queue is empty
+     */
+    private void dispatchQueuedInput() {
+        while (mQueuedInputCount > 0 && !mIsSliding && mBoard != null) {
+            int input = mQueuedInput[mQueuedInputStart];
+            mQueuedInputStart = (mQueuedInputStart + 1) % mQueuedInput.length;
+            mQueuedInputCount--;
+            int cellIndex = input >= 0 ? input : getQueuedMoveCell(QUEUED_MOVE_BASE - input);
+            if (cellIndex != PuzzleGameBoard.INVALID_CELL_INDEX && mOnCellClickListener != null) {
+                int cols = mBoard.getColumnsCount();
+                mOnCellClickListener.onCellClick(cellIndex / cols, cellIndex % cols);
+            }
+        }
+    }
+
+    /**
+     * @return the cell of the tile that would slide in the direction, or INVALID_CELL_INDEX if
+     * no tile can
+     */
+    private int getQueuedMoveCell(int directionOrdinal) {
+        Direction direction = Direction.values()[directionOrdinal];
+        if (!mBoard.canMove(direction)) {
+            return PuzzleGameBoard.INVALID_CELL_INDEX;
+        }
+        return mBoard.getEmptyCellIndex()
+                - direction.getRowDelta() * mBoard.getColumnsCount()
+                - direction.getColumnDelta();
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if (mBoard == null) {
+            return;
+        }
+        if (mMoveNanos != 0) {
+            GameMetrics.MOVE_TO_FRAME.record(System.nanoTime() - mMoveNanos);
+            mMoveNanos = 0;
+        }
+        long drawStart = GameMetrics.BOARD_DRAW.start();
+        drawBoard(canvas);
+        GameMetrics.BOARD_DRAW.stop(drawStart);
+    }
+
+    private void drawBoard(Canvas canvas) {
+        int width = getWidth();
+        int height = getHeight();
+        int rows = mBoard.getRowsCount();
+        int cols = mBoard.getColumnsCount();
+        for (int r = 0; r < rows; r++) {
+            int top = PuzzleImageUtil.getSubdivisionStart(height, rows, r);
+            int bottom = PuzzleImageUtil.getSubdivisionStart(height, rows, r + 1);
+            for (int c = 0; c < cols; c++) {
+                PuzzleGameTile tile = mBoard.getTile(r, c);
+                // Only tiles with a drawable can be shown
+                if (!(tile instanceof DrawablePuzzleTile) || tile.isEmpty()) {
+                    continue;
+                }
+                mCellBounds.set(
+                        PuzzleImageUtil.getSubdivisionStart(width, cols, c),
+                        top,
+                        PuzzleImageUtil.getSubdivisionStart(width, cols, c + 1),
+                        bottom);
+                int sourceCell = mIsSliding
+                        ? mSlideSourceCells[r * cols + c]
+                        : PuzzleGameBoard.INVALID_CELL_INDEX;
+                if (sourceCell != PuzzleGameBoard.INVALID_CELL_INDEX) {
+                    // Sliding tiles keep their size and move from their old cell to this one
+                    getCellBounds(sourceCell, mSourceCellBounds);
+                    float remaining = 1f - mSlideProgress;
+                    mCellBounds.offset(
+                            (int) ((mSourceCellBounds.left - mCellBounds.left) * remaining),
+                            (int) ((mSourceCellBounds.top - mCellBounds.top) * remaining));
+                }
+                drawTile(canvas, ((DrawablePuzzleTile) tile).getDrawable(), mCellBounds);
+            }
+        }
+    }
+
+    private void drawTile(Canvas canvas, Drawable drawable, Rect cellBounds) {
+        if (drawable instanceof BitmapRegionDrawable) {
+            BitmapRegionDrawable region = (BitmapRegionDrawable) drawable;
+            canvas.drawBitmap(region.getBitmap(), region.getSourceBounds(), cellBounds,
+                    mTilePaint);
+        } else if (drawable != null) {
+            drawable.setBounds(cellBounds.left, cellBounds.top, cellBounds.right,
+                    cellBounds.bottom);
+            drawable.draw(canvas);
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (mBoard == null) {
+            return false;
+        }
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                mPressedCellIndex = getCellIndexAt(event.getX(), event.getY());
+                return true;
+            case MotionEvent.ACTION_UP:
+                // A tap only counts if it is released over the cell it started on
+                int cellIndex = getCellIndexAt(event.getX(), event.getY());
+                if (cellIndex != PuzzleGameBoard.INVALID_CELL_INDEX
+                        && cellIndex == mPressedCellIndex) {
+                    performClick();
+                    // Taps made while tiles slide are handed out once they have stopped
+                    queueInput(cellIndex);
+                    if (!mIsSliding) {
+                        dispatchQueuedInput();
+                    }
+                }
+                mPressedCellIndex = PuzzleGameBoard.INVALID_CELL_INDEX;
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                mPressedCellIndex = PuzzleGameBoard.INVALID_CELL_INDEX;
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+
+    /**
+     * @return the index of the cell under a point of the view, or INVALID_CELL_INDEX if the
+     * point is outside of the view
+     */
+    private int getCellIndexAt(float x, float y) {
+        int width = getWidth();
+        int height = getHeight();
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return PuzzleGameBoard.INVALID_CELL_INDEX;
+        }
+        int rows = mBoard.getRowsCount();
+        int cols = mBoard.getColumnsCount();
+        int row = PuzzleImageUtil.getSubdivisionIndex(height, rows, (int) y);
+        int col = PuzzleImageUtil.getSubdivisionIndex(width, cols, (int) x);
+        return mBoard.getCellIndex(row, col);
+    }
+}
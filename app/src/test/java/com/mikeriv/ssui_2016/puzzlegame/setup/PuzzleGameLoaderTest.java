@@ -0,0 +1,158 @@
+package com.mikeriv.ssui_2016.puzzlegame.setup;
+
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameBoard;
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameTile;
+import com.mikeriv.ssui_2016.puzzlegame.shuffle.RandomWalkShuffler;
+import com.mikeriv.ssui_2016.puzzlegame.shuffle.UniformShuffler;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+public class PuzzleGameLoaderTest {
+
+    private static final PuzzleTileSource PLAIN_TILES = new PuzzleTileSource() {
+        @Override
+        public PuzzleGameTile[] createTiles(int rows, int columns) {
+            PuzzleGameTile[] tiles = new PuzzleGameTile[rows * columns];
+            for (int i = 0; i < tiles.length; i++) {
+                tiles[i] = new PuzzleGameTile(i, i == tiles.length - 1);
+            }
+            return tiles;
+        }
+    };
+
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    /**
+     * Runs commands only when asked, like a busy background thread
+     */
+    private static class QueueExecutor implements Executor {
+        final List<Runnable> mCommands = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            mCommands.add(command);
+        }
+
+        void runAll() {
+            while (!mCommands.isEmpty()) {
+                mCommands.remove(0).run();
+            }
+        }
+    }
+
+    private static class RecordingListener implements PuzzleGameLoader.OnPuzzleGameLoadedListener {
+        final List<PuzzleGameBoard> mBoards = new ArrayList<>();
+        final List<RuntimeException> mErrors = new ArrayList<>();
+        long mShuffleSeed;
+
+        @Override
+        public void onPuzzleGameLoaded(PuzzleGameBoard board, long shuffleSeed) {
+            mBoards.add(board);
+            mShuffleSeed = shuffleSeed;
+        }
+
+        @Override
+        public void onPuzzleGameLoadFailed(RuntimeException error) {
+            mErrors.add(error);
+        }
+    }
+
+    @Test
+    public void load_deliversTheBoardShuffledWithTheSeed() throws Exception {
+        PuzzleGameLoader loader = new PuzzleGameLoader(DIRECT, DIRECT);
+        RecordingListener listener = new RecordingListener();
+        loader.load(PLAIN_TILES, 3, 4, new RandomWalkShuffler(100), 77, listener);
+
+        assertFalse(loader.isLoading());
+        assertEquals(1, listener.mBoards.size());
+        assertEquals(77, listener.mShuffleSeed);
+        PuzzleGameBoard board = listener.mBoards.get(0);
+        PuzzleGameBoard expected = PuzzleGameLoader.buildBoard(3, 4,
+                PLAIN_TILES.createTiles(3, 4));
+        new RandomWalkShuffler(100).shuffle(expected, new SplittableRandom(77));
+        for (int i = 0; i < expected.getTotalTileCount(); i++) {
+            assertEquals(expected.getOrderIndexAt(i), board.getOrderIndexAt(i));
+            assertEquals(board.getOrderIndexAt(i),
+                    board.getTile(i / 4, i % 4).getOrderIndex());
+        }
+    }
+
+    @Test
+    public void load_cancelsTheLoadBeforeIt() throws Exception {
+        QueueExecutor background = new QueueExecutor();
+        QueueExecutor callbacks = new QueueExecutor();
+        PuzzleGameLoader loader = new PuzzleGameLoader(background, callbacks);
+        RecordingListener first = new RecordingListener();
+        RecordingListener second = new RecordingListener();
+
+        loader.load(PLAIN_TILES, 3, 3, new RandomWalkShuffler(10), 1, first);
+        background.runAll();
+        // The first game is ready but not yet attached when the second one is started
+        loader.load(PLAIN_TILES, 4, 4, new RandomWalkShuffler(10), 2, second);
+        assertTrue(loader.isLoading());
+        background.runAll();
+        callbacks.runAll();
+
+        assertTrue(first.mBoards.isEmpty());
+        assertEquals(1, second.mBoards.size());
+        assertEquals(4, second.mBoards.get(0).getRowsCount());
+        assertFalse(loader.isLoading());
+    }
+
+    @Test
+    public void cancel_dropsTheResult() throws Exception {
+        QueueExecutor background = new QueueExecutor();
+        PuzzleGameLoader loader = new PuzzleGameLoader(background, DIRECT);
+        RecordingListener listener = new RecordingListener();
+        loader.load(PLAIN_TILES, 3, 3, new RandomWalkShuffler(10), 1, listener);
+        loader.cancel();
+        background.runAll();
+        assertTrue(listener.mBoards.isEmpty());
+        assertTrue(listener.mErrors.isEmpty());
+    }
+
+    @Test
+    public void load_reportsTileSourceFailures() throws Exception {
+        PuzzleGameLoader loader = new PuzzleGameLoader(DIRECT, DIRECT);
+        RecordingListener listener = new RecordingListener();
+        loader.load(new PuzzleTileSource() {
+            @Override
+            public PuzzleGameTile[] createTiles(int rows, int columns) {
+                return new PuzzleGameTile[rows * columns - 1];
+            }
+        }, 3, 3, new RandomWalkShuffler(10), 1, listener);
+        assertTrue(listener.mBoards.isEmpty());
+        assertEquals(1, listener.mErrors.size());
+        assertTrue(listener.mErrors.get(0) instanceof IllegalArgumentException);
+    }
+
+    @Test
+    public void load_buildsLargeRectangularBoards() throws Exception {
+        PuzzleGameLoader loader = new PuzzleGameLoader(DIRECT, DIRECT);
+        RecordingListener listener = new RecordingListener();
+        loader.load(PLAIN_TILES, 32, 20, new UniformShuffler(), 5, listener);
+
+        PuzzleGameBoard board = listener.mBoards.get(0);
+        assertEquals(32, board.getRowsCount());
+        assertEquals(20, board.getColumnsCount());
+        assertTrue(board.isSolvable());
+        assertEquals(639, board.getEmptyOrderIndex());
+        for (int r = 0; r < 32; r++) {
+            for (int c = 0; c < 20; c++) {
+                assertEquals(board.getOrderIndex(r, c), board.getTile(r, c).getOrderIndex());
+            }
+        }
+    }
+}
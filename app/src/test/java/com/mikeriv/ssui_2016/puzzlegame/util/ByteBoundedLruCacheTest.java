@@ -0,0 +1,58 @@
+package com.mikeriv.ssui_2016.puzzlegame.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ByteBoundedLruCacheTest {
+
+    private static ByteBoundedLruCache<String, byte[]> newCache(long maxSize) {
+        return new ByteBoundedLruCache<String, byte[]>(maxSize) {
+            @Override
+            protected long sizeOf(String key, byte[] value) {
+                return value.length;
+            }
+        };
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedEntriesToStayUnderTheBound() throws Exception {
+        ByteBoundedLruCache<String, byte[]> cache = newCache(100);
+        cache.put("a", new byte[40]);
+        cache.put("b", new byte[40]);
+        // Using a makes b the eldest entry
+        assertNotNull(cache.get("a"));
+        cache.put("c", new byte[40]);
+
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("c"));
+        assertEquals(80, cache.getSize());
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(3, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void replacingAnEntryUpdatesTheSize() throws Exception {
+        ByteBoundedLruCache<String, byte[]> cache = newCache(100);
+        cache.put("a", new byte[40]);
+        cache.put("a", new byte[70]);
+        assertEquals(70, cache.getSize());
+        assertEquals(1, cache.getEntryCount());
+        assertEquals(0, cache.getEvictionCount());
+        assertEquals(70, cache.remove("a").length);
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void valuesLargerThanTheCacheAreNotKept() throws Exception {
+        ByteBoundedLruCache<String, byte[]> cache = newCache(100);
+        cache.put("a", new byte[50]);
+        assertFalse(cache.put("huge", new byte[101]));
+        assertNull(cache.get("huge"));
+        // Nothing is evicted to make room for a value that can never fit
+        assertNotNull(cache.get("a"));
+        assertEquals(50, cache.getSize());
+    }
+}
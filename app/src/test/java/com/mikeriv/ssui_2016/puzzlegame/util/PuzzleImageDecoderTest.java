@@ -0,0 +1,31 @@
+package com.mikeriv.ssui_2016.puzzlegame.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PuzzleImageDecoderTest {
+
+    @Test
+    public void sampleSizeKeepsTheImageAtLeastAsLargeAsTheBoard() {
+        for (int imageSize = 1; imageSize < 5000; imageSize += 37) {
+            for (int boardSize = 50; boardSize < 1500; boardSize += 50) {
+                int sampleSize = PuzzleImageDecoder.calculateInSampleSize(imageSize, boardSize);
+                assertEquals(0, sampleSize & (sampleSize - 1));
+                if (imageSize >= boardSize) {
+                    assertTrue(imageSize / sampleSize >= boardSize);
+                    assertTrue(imageSize / sampleSize < 2 * boardSize);
+                } else {
+                    assertEquals(1, sampleSize);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void hugeImagesAreSampledDownToTheBoard() {
+        assertEquals(8, PuzzleImageDecoder.calculateInSampleSize(8000, 1000));
+        assertEquals(4, PuzzleImageDecoder.calculateInSampleSize(7999, 1000));
+    }
+}
@@ -0,0 +1,58 @@
+package com.mikeriv.ssui_2016.puzzlegame.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PuzzleImageUtilTest {
+
+    @Test
+    public void subdivisionsCoverTheImageWithoutGapsOrOverlap() {
+        for (int length = 1; length < 300; length += 7) {
+            for (int count = 1; count <= 32 && count <= length; count++) {
+                assertEquals(0, PuzzleImageUtil.getSubdivisionStart(length, count, 0));
+                assertEquals(length, PuzzleImageUtil.getSubdivisionStart(length, count, count));
+                int smallest = Integer.MAX_VALUE;
+                int largest = 0;
+                for (int i = 0; i < count; i++) {
+                    int size = PuzzleImageUtil.getSubdivisionStart(length, count, i + 1)
+                            - PuzzleImageUtil.getSubdivisionStart(length, count, i);
+                    smallest = Math.min(smallest, size);
+                    largest = Math.max(largest, size);
+                }
+                assertTrue(smallest >= 1);
+                assertTrue(largest - smallest <= 1);
+            }
+        }
+    }
+
+    @Test
+    public void evenlyDivisibleImagesSplitIntoEqualSubdivisions() {
+        for (int i = 0; i <= 4; i++) {
+            assertEquals(i * 120, PuzzleImageUtil.getSubdivisionStart(480, 4, i));
+        }
+    }
+
+    @Test
+    public void largeImagesDoNotOverflow() {
+        assertEquals(Integer.MAX_VALUE - 1,
+                PuzzleImageUtil.getSubdivisionStart(Integer.MAX_VALUE - 1, 32, 32));
+    }
+
+    @Test
+    public void subdivisionIndexFindsThePixelsSubdivision() {
+        for (int length = 1; length < 200; length += 3) {
+            for (int count = 1; count <= 32 && count <= length; count++) {
+                for (int i = 0; i < count; i++) {
+                    int start = PuzzleImageUtil.getSubdivisionStart(length, count, i);
+                    int end = PuzzleImageUtil.getSubdivisionStart(length, count, i + 1);
+                    for (int position = start; position < end; position++) {
+                        assertEquals(i,
+                                PuzzleImageUtil.getSubdivisionIndex(length, count, position));
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.mikeriv.ssui_2016.puzzlegame.benchmark;
+
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameBoard;
+import com.mikeriv.ssui_2016.puzzlegame.shuffle.RandomWalkShuffler;
+import com.mikeriv.ssui_2016.puzzlegame.shuffle.UniformShuffler;
+
+import java.util.SplittableRandom;
+
+/**
+ * The inputs every benchmark runs on. Everything is generated from fixed seeds, so each run
+ * measures the same boards and permutations and results can be compared run to run; change
+ * CORPUS_SEED only together with the baseline results.
+ */
+public final class BenchmarkCorpus {
+
+    public static final long CORPUS_SEED = 0x5EED2016L;
+
+    private BenchmarkCorpus() {
+        // Only static helpers
+    }
+
+    /**
+     * @param salt - a value to tell apart corpora of the same seed, e.g. the board size
+     * @return a random number generator that starts the same way in every run
+     */
+    public static SplittableRandom newRandom(long salt) {
+        return new SplittableRandom(CORPUS_SEED * 31 + salt);
+    }
+
+    /**
+     * @param rows - the rows of the boards
+     * @param columns - the cols of the boards
+     * @param count - how many boards to make
+     * @return solvable boards with every arrangement equally likely
+     */
+    public static PuzzleGameBoard[] shuffledBoards(int rows, int columns, int count) {
+        SplittableRandom random = newRandom(rows * 1000 + columns);
+        UniformShuffler shuffler = new UniformShuffler();
+        PuzzleGameBoard[] boards = new PuzzleGameBoard[count];
+        for (int i = 0; i < count; i++) {
+            boards[i] = new PuzzleGameBoard(rows, columns);
+            boards[i].resetToSolved();
+            shuffler.shuffle(boards[i], random);
+        }
+        return boards;
+    }
+
+    /**
+     * @param rows - the rows of the boards
+     * @param columns - the cols of the boards
+     * @param count - how many boards to make
+     * @param moveCount - how many random moves to make from the solved board, which bounds how
+     *                  far the boards are from solved
+     * @return boards that an optimal solver solves in a bounded time
+     */
+    public static PuzzleGameBoard[] walkedBoards(
+            int rows,
+            int columns,
+            int count,
+            int moveCount) {
+        SplittableRandom random = newRandom(-(rows * 1000 + columns) - moveCount);
+        RandomWalkShuffler shuffler = new RandomWalkShuffler(moveCount);
+        PuzzleGameBoard[] boards = new PuzzleGameBoard[count];
+        for (int i = 0; i < count; i++) {
+            boards[i] = new PuzzleGameBoard(rows, columns);
+            boards[i].resetToSolved();
+            shuffler.shuffle(boards[i], random);
+        }
+        return boards;
+    }
+
+    /**
+     * @param elementCount - the values of the permutations, 0 to elementCount - 1
+     * @param count - how many permutations to make
+     * @return random permutations
+     */
+    public static int[][] permutations(int elementCount, int count) {
+        SplittableRandom random = newRandom(elementCount);
+        int[][] permutations = new int[count][elementCount];
+        for (int[] permutation : permutations) {
+            for (int i = 0; i < elementCount; i++) {
+                int j = random.nextInt(i + 1);
+                permutation[i] = permutation[j];
+                permutation[j] = i;
+            }
+        }
+        return permutations;
+    }
+}
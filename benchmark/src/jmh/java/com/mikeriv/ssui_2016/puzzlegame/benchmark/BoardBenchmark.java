@@ -0,0 +1,77 @@
+package com.mikeriv.ssui_2016.puzzlegame.benchmark;
+
+import com.mikeriv.ssui_2016.puzzlegame.model.Direction;
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameBoard;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The board operations every tap goes through: swapping tiles, sliding the empty tile and
+ * checking for a win, plus the whole-board inversion count used to validate a shuffle.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BoardBenchmark {
+
+    // A power of two, so the next input is found with a mask
+    private static final int INPUT_COUNT = 1024;
+
+    @Param({"3", "4", "8", "16", "32"})
+    public int size;
+
+    private PuzzleGameBoard mBoard;
+    // Pairs of cells to swap, as row, col, row, col
+    private int[] mSwaps;
+    private Direction[] mMoves;
+    private int mNextInput;
+
+    @Setup
+    public void setUp() {
+        mBoard = BenchmarkCorpus.shuffledBoards(size, size, 1)[0];
+        SplittableRandom random = BenchmarkCorpus.newRandom(size);
+        mSwaps = new int[INPUT_COUNT * 4];
+        for (int i = 0; i < mSwaps.length; i++) {
+            mSwaps[i] = random.nextInt(size);
+        }
+        Direction[] directions = Direction.values();
+        mMoves = new Direction[INPUT_COUNT];
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            mMoves[i] = directions[random.nextInt(directions.length)];
+        }
+    }
+
+    @Benchmark
+    public boolean swapTilesAndCheckWin() {
+        int i = (mNextInput++ & (INPUT_COUNT - 1)) * 4;
+        mBoard.swapTiles(mSwaps[i], mSwaps[i + 1], mSwaps[i + 2], mSwaps[i + 3]);
+        return mBoard.isSolved();
+    }
+
+    @Benchmark
+    public boolean moveAndCheckWin() {
+        // Moves into the edge fail, as taps on tiles that cannot slide do
+        mBoard.move(mMoves[mNextInput++ & (INPUT_COUNT - 1)]);
+        return mBoard.isSolved();
+    }
+
+    @Benchmark
+    public long countInversions() {
+        return mBoard.countInversions();
+    }
+
+    @Benchmark
+    public boolean isSolvable() {
+        return mBoard.isSolvable();
+    }
+}
@@ -0,0 +1,72 @@
+package com.mikeriv.ssui_2016.puzzlegame.benchmark;
+
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameBoard;
+import com.mikeriv.ssui_2016.puzzlegame.solver.ConstructiveSolver;
+import com.mikeriv.ssui_2016.puzzlegame.solver.PuzzleSolution;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The constructive solver on uniformly shuffled boards of every size the game offers. The
+ * score is the time per solve; the solutions and moves counters add up over each iteration,
+ * so moves / solutions is the average solution length.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConstructiveSolverBenchmark {
+
+    private static final int BOARD_COUNT = 16;
+
+    /**
+     * The solutions found, reported by JMH alongside the score
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long solutions;
+        public long moves;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            solutions = 0;
+            moves = 0;
+        }
+    }
+
+    // From game_board_min_size to game_board_max_size
+    @Param({"2", "3", "4", "5", "6", "7", "8", "9", "10", "11", "12", "13", "14", "15", "16",
+            "17", "18", "19", "20", "21", "22", "23", "24", "25", "26", "27", "28", "29", "30",
+            "31", "32"})
+    public int size;
+
+    private PuzzleGameBoard[] mBoards;
+    private ConstructiveSolver mSolver;
+    private int mNextBoard;
+
+    @Setup
+    public void setUp() {
+        mBoards = BenchmarkCorpus.shuffledBoards(size, size, BOARD_COUNT);
+        mSolver = new ConstructiveSolver(size, size);
+    }
+
+    @Benchmark
+    public PuzzleSolution solve(Counters counters) {
+        PuzzleSolution solution = mSolver.solve(mBoards[mNextBoard]);
+        mNextBoard = (mNextBoard + 1) % BOARD_COUNT;
+        counters.solutions++;
+        counters.moves += solution.getMoveCount();
+        return solution;
+    }
+}
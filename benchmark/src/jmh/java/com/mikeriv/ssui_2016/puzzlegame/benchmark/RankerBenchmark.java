@@ -0,0 +1,91 @@
+package com.mikeriv.ssui_2016.puzzlegame.benchmark;
+
+import com.mikeriv.ssui_2016.puzzlegame.rank.LexicographicRanker;
+import com.mikeriv.ssui_2016.puzzlegame.rank.MyrvoldRuskeyRanker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the two permutation rankers on the shapes the pattern databases use: whole 3x3 and
+ * 4x4 boards, and the placements of the first tiles of a 4x4 board. Times are per permutation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RankerBenchmark {
+
+    private static final int PERMUTATION_COUNT = 256;
+
+    // elementCount:rankedCount
+    @Param({"9:9", "16:16", "16:6", "16:8"})
+    public String shape;
+
+    private int[][] mPermutations;
+    private long[] mLexicographicRanks;
+    private long[] mMyrvoldRuskeyRanks;
+    private LexicographicRanker mLexicographicRanker;
+    private MyrvoldRuskeyRanker mMyrvoldRuskeyRanker;
+    private int[] mValues;
+
+    @Setup
+    public void setUp() {
+        String[] counts = shape.split(":");
+        int elementCount = Integer.parseInt(counts[0]);
+        int rankedCount = Integer.parseInt(counts[1]);
+        mLexicographicRanker = new LexicographicRanker(elementCount, rankedCount);
+        mMyrvoldRuskeyRanker = new MyrvoldRuskeyRanker(elementCount, rankedCount);
+        mPermutations = BenchmarkCorpus.permutations(elementCount, PERMUTATION_COUNT);
+        mLexicographicRanks = new long[PERMUTATION_COUNT];
+        mMyrvoldRuskeyRanks = new long[PERMUTATION_COUNT];
+        for (int i = 0; i < PERMUTATION_COUNT; i++) {
+            mLexicographicRanks[i] = mLexicographicRanker.rank(mPermutations[i]);
+            mMyrvoldRuskeyRanks[i] = mMyrvoldRuskeyRanker.rank(mPermutations[i]);
+        }
+        mValues = new int[elementCount];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PERMUTATION_COUNT)
+    public void lexicographicRank(Blackhole blackhole) {
+        for (int[] permutation : mPermutations) {
+            blackhole.consume(mLexicographicRanker.rank(permutation));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PERMUTATION_COUNT)
+    public void lexicographicUnrank(Blackhole blackhole) {
+        for (long rank : mLexicographicRanks) {
+            mLexicographicRanker.unrank(rank, mValues);
+            blackhole.consume(mValues);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PERMUTATION_COUNT)
+    public void myrvoldRuskeyRank(Blackhole blackhole) {
+        for (int[] permutation : mPermutations) {
+            blackhole.consume(mMyrvoldRuskeyRanker.rank(permutation));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PERMUTATION_COUNT)
+    public void myrvoldRuskeyUnrank(Blackhole blackhole) {
+        for (long rank : mMyrvoldRuskeyRanks) {
+            mMyrvoldRuskeyRanker.unrank(rank, mValues);
+            blackhole.consume(mValues);
+        }
+    }
+}
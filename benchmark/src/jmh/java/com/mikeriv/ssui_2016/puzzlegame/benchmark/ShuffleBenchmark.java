@@ -0,0 +1,56 @@
+package com.mikeriv.ssui_2016.puzzlegame.benchmark;
+
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameBoard;
+import com.mikeriv.ssui_2016.puzzlegame.shuffle.RandomWalkShuffler;
+import com.mikeriv.ssui_2016.puzzlegame.shuffle.UniformShuffler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shuffling a board for a new game, with both shufflers the game picks from
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ShuffleBenchmark {
+
+    @Param({"3", "4", "8", "16", "32"})
+    public int size;
+
+    private PuzzleGameBoard mBoard;
+    private UniformShuffler mUniformShuffler;
+    private RandomWalkShuffler mRandomWalkShuffler;
+    private SplittableRandom mRandom;
+
+    @Setup
+    public void setUp() {
+        mBoard = new PuzzleGameBoard(size, size);
+        mBoard.resetToSolved();
+        mUniformShuffler = new UniformShuffler();
+        mRandomWalkShuffler = RandomWalkShuffler.forTileCount(size * size);
+        // Seeded once per trial, so every run draws the same sequence of shuffles
+        mRandom = BenchmarkCorpus.newRandom(size);
+    }
+
+    @Benchmark
+    public PuzzleGameBoard uniformShuffle() {
+        mUniformShuffler.shuffle(mBoard, mRandom);
+        return mBoard;
+    }
+
+    @Benchmark
+    public PuzzleGameBoard randomWalkShuffle() {
+        mRandomWalkShuffler.shuffle(mBoard, mRandom);
+        return mBoard;
+    }
+}
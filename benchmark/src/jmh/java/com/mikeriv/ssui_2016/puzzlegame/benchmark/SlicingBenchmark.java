@@ -0,0 +1,81 @@
+package com.mikeriv.ssui_2016.puzzlegame.benchmark;
+
+import com.mikeriv.ssui_2016.puzzlegame.util.PuzzleImageUtil;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The pixel arithmetic that cuts an image into tiles and maps touches back to tiles. Bitmaps
+ * need the Android runtime, so only the integer math of PuzzleImageUtil is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SlicingBenchmark {
+
+    // A 12 megapixel camera photo
+    private static final int IMAGE_WIDTH = 4032;
+    private static final int IMAGE_HEIGHT = 3024;
+    private static final int TOUCH_COUNT = 1024;
+
+    @Param({"4", "16", "32"})
+    public int size;
+
+    private int[] mTouchX;
+    private int[] mTouchY;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = BenchmarkCorpus.newRandom(size);
+        mTouchX = new int[TOUCH_COUNT];
+        mTouchY = new int[TOUCH_COUNT];
+        for (int i = 0; i < TOUCH_COUNT; i++) {
+            mTouchX[i] = random.nextInt(IMAGE_WIDTH);
+            mTouchY[i] = random.nextInt(IMAGE_HEIGHT);
+        }
+    }
+
+    /**
+     * The tile edges of a whole board, as slicing a new image computes them
+     */
+    @Benchmark
+    public long sliceBounds() {
+        long sum = 0;
+        for (int row = 0; row < size; row++) {
+            int top = PuzzleImageUtil.getSubdivisionStart(IMAGE_HEIGHT, size, row);
+            int bottom = PuzzleImageUtil.getSubdivisionStart(IMAGE_HEIGHT, size, row + 1);
+            for (int col = 0; col < size; col++) {
+                int left = PuzzleImageUtil.getSubdivisionStart(IMAGE_WIDTH, size, col);
+                int right = PuzzleImageUtil.getSubdivisionStart(IMAGE_WIDTH, size, col + 1);
+                sum += (long) (right - left) * (bottom - top);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Maps touch positions to the cells they land in, per touch
+     */
+    @Benchmark
+    @OperationsPerInvocation(TOUCH_COUNT)
+    public int touchToCell() {
+        int sum = 0;
+        for (int i = 0; i < TOUCH_COUNT; i++) {
+            int row = PuzzleImageUtil.getSubdivisionIndex(IMAGE_HEIGHT, size, mTouchY[i]);
+            int col = PuzzleImageUtil.getSubdivisionIndex(IMAGE_WIDTH, size, mTouchX[i]);
+            sum += row * size + col;
+        }
+        return sum;
+    }
+}
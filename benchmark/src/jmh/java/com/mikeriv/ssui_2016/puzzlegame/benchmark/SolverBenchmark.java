@@ -0,0 +1,80 @@
+package com.mikeriv.ssui_2016.puzzlegame.benchmark;
+
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameBoard;
+import com.mikeriv.ssui_2016.puzzlegame.solver.AStarSolver;
+import com.mikeriv.ssui_2016.puzzlegame.solver.IdaStarSolver;
+import com.mikeriv.ssui_2016.puzzlegame.solver.PuzzleSolution;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The optimal solvers on a fixed corpus of 4x4 boards a bounded number of moves from solved.
+ * Each operation solves the next board of the corpus; the expandedNodes counter is reported
+ * per second, which gives the solvers' nodes/sec next to their solves/sec.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SolverBenchmark {
+
+    private static final int BOARD_COUNT = 16;
+    private static final int SIZE = 4;
+    // Random walks this long give boards around 30 moves from solved
+    private static final int WALK_LENGTH = 60;
+
+    /**
+     * The work the solvers did, reported by JMH alongside the score
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long expandedNodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            expandedNodes = 0;
+        }
+    }
+
+    private PuzzleGameBoard[] mBoards;
+    private IdaStarSolver mIdaStarSolver;
+    private AStarSolver mAStarSolver;
+    private int mNextBoard;
+
+    @Setup
+    public void setUp() {
+        mBoards = BenchmarkCorpus.walkedBoards(SIZE, SIZE, BOARD_COUNT, WALK_LENGTH);
+        mIdaStarSolver = new IdaStarSolver(SIZE, SIZE);
+        mAStarSolver = new AStarSolver(SIZE, SIZE);
+    }
+
+    @Benchmark
+    public PuzzleSolution idaStar(Counters counters) {
+        PuzzleSolution solution = mIdaStarSolver.solve(nextBoard());
+        counters.expandedNodes += solution.getExpandedNodes();
+        return solution;
+    }
+
+    @Benchmark
+    public PuzzleSolution aStar(Counters counters) {
+        PuzzleSolution solution = mAStarSolver.solve(nextBoard());
+        counters.expandedNodes += solution.getExpandedNodes();
+        return solution;
+    }
+
+    private PuzzleGameBoard nextBoard() {
+        PuzzleGameBoard board = mBoards[mNextBoard];
+        mNextBoard = (mNextBoard + 1) % BOARD_COUNT;
+        return board;
+    }
+}
@@ -0,0 +1,42 @@
+package com.mikeriv.ssui_2016.puzzlegame.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts events, e.g. moves or cache hits. Counting does nothing while metrics are disabled.
+ * Created with Metrics.counter().
+ */
+public class Counter {
+
+    private final String mName;
+    private final AtomicLong mCount = new AtomicLong();
+
+    Counter(String name) {
+        mName = name;
+    }
+
+    public String getName() {
+        return mName;
+    }
+
+    public void increment() {
+        add(1);
+    }
+
+    /**
+     * @param count - how many events to count
+     */
+    public void add(long count) {
+        if (Metrics.isEnabled()) {
+            mCount.addAndGet(count);
+        }
+    }
+
+    public long getCount() {
+        return mCount.get();
+    }
+
+    void reset() {
+        mCount.set(0);
+    }
+}
@@ -0,0 +1,173 @@
+package com.mikeriv.ssui_2016.puzzlegame.metrics;
+
+import com.mikeriv.ssui_2016.puzzlegame.stats.Histogram;
+
+import java.io.PrintStream;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Frame durations by board size and by the interaction each frame is attributed to. Every frame
+ * is recorded in a histogram, and frames that took longer than the display's frame interval are
+ * counted as janky along with the frames they dropped, so that board sizes can be compared by
+ * how often they miss their frame deadlines. Not thread-safe.
+ */
+public class FrameStats {
+
+    // Nanoseconds are kept to within 3%, up to ten seconds
+    private static final int PRECISION_BITS = 5;
+    private static final long MAX_FRAME_NANOS = 10L * 1000 * 1000 * 1000;
+
+    /**
+     * The frames of one board size and interaction
+     */
+    private static class Series {
+        final Histogram mFrameNanos = new Histogram(MAX_FRAME_NANOS, PRECISION_BITS);
+        long mJankyFrameCount;
+        long mDroppedFrameCount;
+    }
+
+    private final long mFrameIntervalNanos;
+    // By board size, e.g. "4x4", in the order the sizes were first played
+    private final Map<String, EnumMap<Interaction, Series>> mSeries = new LinkedHashMap<>();
+
+    /**
+     * @param frameIntervalNanos - the time between two frames of the display
+     */
+    public FrameStats(long frameIntervalNanos) {
+        if (frameIntervalNanos <= 0) {
+            throw new IllegalArgumentException(
+                    "frameIntervalNanos must be positive, got " + frameIntervalNanos);
+        }
+        mFrameIntervalNanos = frameIntervalNanos;
+    }
+
+    public long getFrameIntervalNanos() {
+        return mFrameIntervalNanos;
+    }
+
+    /**
+     * @param rows - the rows of the board shown
+     * @param columns - the cols of the board shown
+     * @param interaction - what the frame is attributed to
+     * @param frameNanos - the time since the frame before
+     */
+    public void recordFrame(int rows, int columns, Interaction interaction, long frameNanos) {
+        Series series = getSeries(rows, columns, interaction, true);
+        series.mFrameNanos.record(frameNanos);
+        int droppedFrameCount = getDroppedFrameCount(frameNanos);
+        if (droppedFrameCount > 0) {
+            series.mJankyFrameCount++;
+            series.mDroppedFrameCount += droppedFrameCount;
+        }
+    }
+
+    /**
+     * @param frameNanos - the time since the frame before
+     * @return how many frame deadlines passed without a frame, rounded to the nearest deadline
+     */
+    public int getDroppedFrameCount(long frameNanos) {
+        long intervals = (frameNanos + mFrameIntervalNanos / 2) / mFrameIntervalNanos;
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, intervals - 1));
+    }
+
+    /**
+     * @return the frames recorded for the board size and interaction
+     */
+    public long getFrameCount(int rows, int columns, Interaction interaction) {
+        Series series = getSeries(rows, columns, interaction, false);
+        return series == null ? 0 : series.mFrameNanos.getTotalCount();
+    }
+
+    /**
+     * @return the frames recorded for the board size and interaction that dropped frames
+     */
+    public long getJankyFrameCount(int rows, int columns, Interaction interaction) {
+        Series series = getSeries(rows, columns, interaction, false);
+        return series == null ? 0 : series.mJankyFrameCount;
+    }
+
+    /**
+     * @return the frames dropped for the board size and interaction
+     */
+    public long getDroppedFrameCount(int rows, int columns, Interaction interaction) {
+        Series series = getSeries(rows, columns, interaction, false);
+        return series == null ? 0 : series.mDroppedFrameCount;
+    }
+
+    /**
+     * @param percentile - 0 to 100
+     * @return the frame duration at that percentile for the board size and interaction, in
+     * nanoseconds, or 0 if no frames were recorded
+     */
+    public long getFrameNanosAtPercentile(int rows, int columns, Interaction interaction,
+            double percentile) {
+        Series series = getSeries(rows, columns, interaction, false);
+        return series == null ? 0 : series.mFrameNanos.getValueAtPercentile(percentile);
+    }
+
+    public void reset() {
+        mSeries.clear();
+    }
+
+    /**
+     * Writes the stats as CSV with the columns build, board, interaction, kind, name, low, high
+     * and value. Every row starts with the build, so the files of several builds can be
+     * concatenated and compared. Summary rows have the kind "summary" and only a value; bucket
+     * rows have the kind "bucket", the bucket's range of frame nanoseconds and its count. Empty
+     * buckets are left out.
+     * @param out - where to write
+     * @param build - names the build the stats were recorded with, without commas
+     */
+    public void writeCsv(PrintStream out, String build) {
+        out.println("build,board,interaction,kind,name,low,high,value");
+        for (Map.Entry<String, EnumMap<Interaction, Series>> board : mSeries.entrySet()) {
+            for (Map.Entry<Interaction, Series> entry : board.getValue().entrySet()) {
+                String prefix = build + "," + board.getKey() + ","
+                        + entry.getKey().name().toLowerCase(Locale.US) + ",";
+                Series series = entry.getValue();
+                Histogram frameNanos = series.mFrameNanos;
+                writeSummary(out, prefix, "frames", frameNanos.getTotalCount());
+                writeSummary(out, prefix, "janky_frames", series.mJankyFrameCount);
+                writeSummary(out, prefix, "dropped_frames", series.mDroppedFrameCount);
+                writeSummary(out, prefix, "frame_interval_nanos", mFrameIntervalNanos);
+                writeSummary(out, prefix, "frame_nanos_p50", frameNanos.getValueAtPercentile(50));
+                writeSummary(out, prefix, "frame_nanos_p90", frameNanos.getValueAtPercentile(90));
+                writeSummary(out, prefix, "frame_nanos_p99", frameNanos.getValueAtPercentile(99));
+                writeSummary(out, prefix, "frame_nanos_max", frameNanos.getMax());
+                for (int i = 0; i < frameNanos.getBucketCount(); i++) {
+                    long count = frameNanos.getCountAtBucket(i);
+                    if (count != 0) {
+                        out.println(prefix + "bucket,frame_nanos,"
+                                + frameNanos.getBucketLowValue(i) + ","
+                                + frameNanos.getBucketHighValue(i) + "," + count);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void writeSummary(PrintStream out, String prefix, String name, long value) {
+        out.println(prefix + "summary," + name + ",,," + value);
+    }
+
+    private Series getSeries(int rows, int columns, Interaction interaction, boolean create) {
+        String board = rows + "x" + columns;
+        EnumMap<Interaction, Series> boardSeries = mSeries.get(board);
+        if (boardSeries == null) {
+            if (!create) {
+                return null;
+            }
+            boardSeries = new EnumMap<>(Interaction.class);
+            mSeries.put(board, boardSeries);
+        }
+        Series series = boardSeries.get(interaction);
+        if (series == null && create) {
+            series = new Series();
+            boardSeries.put(interaction, series);
+        }
+        return series;
+    }
+}
@@ -0,0 +1,12 @@
+package com.mikeriv.ssui_2016.puzzlegame.metrics;
+
+/**
+ * What the user last did, which frames drawn shortly after are attributed to
+ */
+public enum Interaction {
+    // Nothing happened recently
+    IDLE,
+    TILE_TAP,
+    NEW_GAME,
+    WIN_DIALOG
+}
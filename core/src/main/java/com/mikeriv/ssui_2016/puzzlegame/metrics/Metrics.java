@@ -0,0 +1,110 @@
+package com.mikeriv.ssui_2016.puzzlegame.metrics;
+
+import com.mikeriv.ssui_2016.puzzlegame.stats.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Named counters and timers for the game's hot paths. Metrics start disabled, in which case
+ * counting and timing cost one volatile read. Counters and timers are created once, usually
+ * into static final fields, and looked up by name so that every user of a name shares one.
+ *
+ * dump() gives a text report of everything recorded, one metric per line, with the count of
+ * each timer and its p50, p99 and max in milliseconds.
+ */
+public final class Metrics {
+
+    private static volatile boolean sIsEnabled;
+    private static volatile TraceListener sTraceListener;
+    // Guarded by the class
+    private static final Map<String, Counter> sCounters = new LinkedHashMap<>();
+    private static final Map<String, Timer> sTimers = new LinkedHashMap<>();
+
+    private Metrics() {
+        // Only static helpers
+    }
+
+    public static boolean isEnabled() {
+        return sIsEnabled;
+    }
+
+    /**
+     * @param isEnabled - whether counters and timers should record anything
+     */
+    public static void setEnabled(boolean isEnabled) {
+        sIsEnabled = isEnabled;
+    }
+
+    public static TraceListener getTraceListener() {
+        return sTraceListener;
+    }
+
+    /**
+     * @param listener - receives every timed section while metrics are enabled, or null
+     */
+    public static void setTraceListener(TraceListener listener) {
+        sTraceListener = listener;
+    }
+
+    /**
+     * @param name - the name of the counter
+     * @return the counter with that name, created if needed
+     */
+    public static synchronized Counter counter(String name) {
+        Counter counter = sCounters.get(name);
+        if (counter == null) {
+            counter = new Counter(name);
+            sCounters.put(name, counter);
+        }
+        return counter;
+    }
+
+    /**
+     * @param name - the name of the timer, also the name of its trace sections
+     * @return the timer with that name, created if needed
+     */
+    public static synchronized Timer timer(String name) {
+        Timer timer = sTimers.get(name);
+        if (timer == null) {
+            timer = new Timer(name);
+            sTimers.put(name, timer);
+        }
+        return timer;
+    }
+
+    /**
+     * Forgets everything recorded so far
+     */
+    public static synchronized void reset() {
+        for (Counter counter : sCounters.values()) {
+            counter.reset();
+        }
+        for (Timer timer : sTimers.values()) {
+            timer.reset();
+        }
+    }
+
+    /**
+     * @return a report of every counter and timer
+     */
+    public static synchronized String dump() {
+        StringBuilder builder = new StringBuilder();
+        for (Counter counter : sCounters.values()) {
+            builder.append(counter.getName()).append(": ").append(counter.getCount())
+                    .append('\n');
+        }
+        for (Timer timer : sTimers.values()) {
+            Histogram histogram = timer.copyHistogram();
+            builder.append(String.format(Locale.US,
+                    "%s: count=%d p50=%.3fms p99=%.3fms max=%.3fms%n",
+                    timer.getName(),
+                    histogram.getTotalCount(),
+                    histogram.getValueAtPercentile(50) / 1e6,
+                    histogram.getValueAtPercentile(99) / 1e6,
+                    histogram.getMax() / 1e6));
+        }
+        return builder.toString();
+    }
+}
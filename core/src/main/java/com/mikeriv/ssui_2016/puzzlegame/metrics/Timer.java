@@ -0,0 +1,113 @@
+package com.mikeriv.ssui_2016.puzzlegame.metrics;
+
+import com.mikeriv.ssui_2016.puzzlegame.stats.Histogram;
+
+/**
+ * Records how long a stage takes in a latency histogram. A section is timed with
+ *
+ *     long start = TIMER.start();
+ *     try {
+ *         ...
+ *     } finally {
+ *         TIMER.stop(start);
+ *     }
+ *
+ * which also reports the section to the trace listener. Latencies measured some other way, e.g.
+ * across threads or frames, are added with record(). While metrics are disabled start() returns
+ * 0 without reading the clock and stop(0) returns at once. Created with Metrics.timer().
+ */
+public class Timer {
+
+    // Nanoseconds are kept to within 3%, up to a minute
+    private static final int PRECISION_BITS = 5;
+    private static final long MAX_NANOS = 60L * 1000 * 1000 * 1000;
+
+    private final String mName;
+    // Guarded by itself
+    private final Histogram mHistogram = new Histogram(MAX_NANOS, PRECISION_BITS);
+
+    Timer(String name) {
+        mName = name;
+    }
+
+    public String getName() {
+        return mName;
+    }
+
+    /**
+     * Starts timing a section on the current thread
+     * @return the start time to pass to stop(), or 0 if metrics are disabled
+     */
+    public long start() {
+        if (!Metrics.isEnabled()) {
+            return 0;
+        }
+        TraceListener listener = Metrics.getTraceListener();
+        if (listener != null) {
+            listener.beginSection(mName);
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Ends a section started on the current thread and records its duration
+     * @param startNanos - what start() returned
+     */
+    public void stop(long startNanos) {
+        if (startNanos == 0) {
+            return;
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        TraceListener listener = Metrics.getTraceListener();
+        if (listener != null) {
+            listener.endSection();
+        }
+        record(elapsedNanos);
+    }
+
+    /**
+     * Records a duration measured by the caller
+     * @param elapsedNanos - the duration, in nanoseconds
+     */
+    public void record(long elapsedNanos) {
+        if (!Metrics.isEnabled()) {
+            return;
+        }
+        synchronized (mHistogram) {
+            mHistogram.record(elapsedNanos);
+        }
+    }
+
+    public long getCount() {
+        synchronized (mHistogram) {
+            return mHistogram.getTotalCount();
+        }
+    }
+
+    /**
+     * @param percentile - 0 to 100
+     * @return the duration at that percentile, in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getNanosAtPercentile(double percentile) {
+        synchronized (mHistogram) {
+            return mHistogram.getValueAtPercentile(percentile);
+        }
+    }
+
+    /**
+     * @return a copy of the durations recorded so far
+     */
+    public Histogram copyHistogram() {
+        Histogram copy = new Histogram(MAX_NANOS, PRECISION_BITS);
+        synchronized (mHistogram) {
+            copy.add(mHistogram);
+        }
+        return copy;
+    }
+
+    void reset() {
+        synchronized (mHistogram) {
+            mHistogram.reset();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.mikeriv.ssui_2016.puzzlegame.metrics;
+
+/**
+ * Receives the start and end of every timed section, e.g. to show them in system traces. Sections
+ * are properly nested and begin and end on the same thread.
+ */
+public interface TraceListener {
+    /**
+     * @param name - the name of the timer
+     */
+    void beginSection(String name);
+
+    void endSection();
+}
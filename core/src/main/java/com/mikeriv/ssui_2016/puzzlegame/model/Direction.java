@@ -0,0 +1,50 @@
+package com.mikeriv.ssui_2016.puzzlegame.model;
+
+/**
+ * The direction in which a tile slides into the empty cell of a PuzzleGameBoard. Sliding a tile
+ * UP moves the empty cell one row down, and so on.
+ */
+public enum Direction {
+    UP(-1, 0),
+    DOWN(1, 0),
+    LEFT(0, -1),
+    RIGHT(0, 1);
+
+    private final int mRowDelta;
+    private final int mColumnDelta;
+
+    Direction(int rowDelta, int columnDelta) {
+        mRowDelta = rowDelta;
+        mColumnDelta = columnDelta;
+    }
+
+    /**
+     * @return the change in row of the sliding tile
+     */
+    public int getRowDelta() {
+        return mRowDelta;
+    }
+
+    /**
+     * @return the change in column of the sliding tile
+     */
+    public int getColumnDelta() {
+        return mColumnDelta;
+    }
+
+    /**
+     * @return the direction that undoes a slide in this direction
+     */
+    public Direction opposite() {
+        switch (this) {
+            case UP:
+                return DOWN;
+            case DOWN:
+                return UP;
+            case LEFT:
+                return RIGHT;
+            default:
+                return LEFT;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.mikeriv.ssui_2016.puzzlegame.model;
+
+import java.util.Arrays;
+
+/**
+ * Counts inversions of a board permutation in O(N log N) using a Fenwick (binary indexed) tree.
+ * Used to validate whole boards; per-move solvability is tracked incrementally by
+ * PuzzleGameBoard.
+ */
+public class InversionCounter {
+
+    private int[] mTree;
+
+    public InversionCounter() {
+        this(0);
+    }
+
+    /**
+     * @param capacity the number of distinct values the counter should be able to handle
+     *                 without growing its scratch space
+     */
+    public InversionCounter(int capacity) {
+        mTree = new int[capacity + 1];
+    }
+
+    /**
+     * Counts the pairs i < j with values[i] > values[j], ignoring any entry equal to
+     * ignoredValue (e.g. the empty tile). Values must lie in 0..length-1.
+     * @param values - the values to count inversions in
+     * @param length - how many entries of values to consider
+     * @param ignoredValue - a value to skip, or a negative number to count every entry
+     * @return the number of inversions
+     */
+    public long countInversions(short[] values, int length, int ignoredValue) {
+        if (mTree.length < length + 1) {
+            mTree = new int[length + 1];
+        } else {
+            Arrays.fill(mTree, 0, length + 1, 0);
+        }
+        long inversions = 0;
+        int seen = 0;
+        for (int i = 0; i < length; i++) {
+            int value = values[i];
+            if (value == ignoredValue) {
+                continue;
+            }
+            // Everything seen so far that is greater than value forms an inversion with it
+            inversions += seen - prefixCount(value);
+            add(value);
+            seen++;
+        }
+        return inversions;
+    }
+
+    /**
+     * Convenience wrapper around countInversions for one-off checks
+     * @param values - the values to count inversions in
+     * @param ignoredValue - a value to skip, or a negative number to count every entry
+     * @return the number of inversions
+     */
+    public static long count(short[] values, int ignoredValue) {
+        return new InversionCounter(values.length).countInversions(values, values.length,
+                ignoredValue);
+    }
+
+    /**
+     * @return how many added values are less than or equal to value
+     */
+    private int prefixCount(int value) {
+        int count = 0;
+        for (int i = value + 1; i > 0; i -= i & -i) {
+            count += mTree[i];
+        }
+        return count;
+    }
+
+    private void add(int value) {
+        for (int i = value + 1; i < mTree.length; i += i & -i) {
+            mTree[i]++;
+        }
+    }
+}
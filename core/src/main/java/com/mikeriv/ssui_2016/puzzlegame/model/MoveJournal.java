@@ -0,0 +1,214 @@
+package com.mikeriv.ssui_2016.puzzlegame.model;
+
+import java.util.Arrays;
+
+/**
+ * An append-only record of the moves made on a board, two bits per move. The journal has a
+ * position: moves before it have been applied, moves after it have been undone and can be
+ * redone. Recording a move after undoing some drops the undone moves.
+ *
+ * Moves are packed 32 to a long, least significant bits first, so byte i of the packed form
+ * holds moves 4i to 4i + 3. Writers that save the journal incrementally ask for the first move
+ * that changed since they last synced and only write from there.
+ */
+public class MoveJournal {
+
+    private static final int BITS_PER_MOVE = 2;
+    private static final int MOVES_PER_WORD = Long.SIZE / BITS_PER_MOVE;
+    private static final int MOVES_PER_BYTE = Byte.SIZE / BITS_PER_MOVE;
+    private static final long MOVE_MASK = 0x3L;
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private long[] mWords;
+    // How many moves are recorded
+    private int mSize;
+    // How many of the recorded moves are applied
+    private int mPosition;
+    // The first move that changed since markSynced() was last called
+    private int mFirstUnsyncedIndex;
+
+    public MoveJournal() {
+        mWords = new long[4];
+    }
+
+    /**
+     * Restores a journal from its packed form
+     * @param packedMoves - the moves as returned by toPackedMoves()
+     * @param size - how many moves are recorded
+     * @param position - how many of them are applied
+     * @throws IllegalArgumentException if the sizes do not fit the packed moves
+     */
+    public MoveJournal(byte[] packedMoves, int size, int position) {
+        if (size < 0 || position < 0 || position > size
+                || (long) packedMoves.length * MOVES_PER_BYTE < size) {
+            throw new IllegalArgumentException("Journal of " + packedMoves.length
+                    + " bytes cannot hold " + size + " moves at position " + position);
+        }
+        mWords = new long[Math.max(4, (size + MOVES_PER_WORD - 1) / MOVES_PER_WORD)];
+        int byteCount = getPackedByteCount(size);
+        for (int i = 0; i < byteCount; i++) {
+            mWords[i >>> 3] |= (packedMoves[i] & 0xFFL) << ((i & 7) * Byte.SIZE);
+        }
+        // Bits past the last move are ignored when reading the packed form
+        int tailBits = (size % MOVES_PER_WORD) * BITS_PER_MOVE;
+        if (tailBits != 0) {
+            mWords[size / MOVES_PER_WORD] &= (1L << tailBits) - 1;
+        }
+        mSize = size;
+        mPosition = position;
+        mFirstUnsyncedIndex = size;
+    }
+
+    /**
+     * Records a move that has just been applied, dropping any moves that were undone
+     * @param direction - the direction the tile slid in
+     */
+    public void record(Direction direction) {
+        if (mPosition < mFirstUnsyncedIndex) {
+            mFirstUnsyncedIndex = mPosition;
+        }
+        int wordIndex = mPosition / MOVES_PER_WORD;
+        if (wordIndex == mWords.length) {
+            mWords = Arrays.copyOf(mWords, mWords.length * 2);
+        }
+        int shift = (mPosition % MOVES_PER_WORD) * BITS_PER_MOVE;
+        mWords[wordIndex] = (mWords[wordIndex] & ~(MOVE_MASK << shift))
+                | ((long) direction.ordinal() << shift);
+        mPosition++;
+        mSize = mPosition;
+    }
+
+    /**
+     * @param index - the index of a recorded move
+     * @return the direction of the move
+     */
+    public Direction getMove(int index) {
+        if (index < 0 || index >= mSize) {
+            throw new IndexOutOfBoundsException("No move " + index + " in " + mSize + " moves");
+        }
+        return DIRECTIONS[(int) (mWords[index / MOVES_PER_WORD]
+                >>> ((index % MOVES_PER_WORD) * BITS_PER_MOVE) & MOVE_MASK)];
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public int getPosition() {
+        return mPosition;
+    }
+
+    public boolean canUndo() {
+        return mPosition > 0;
+    }
+
+    public boolean canRedo() {
+        return mPosition < mSize;
+    }
+
+    /**
+     * Steps back over the last applied move. The caller undoes it by moving in the opposite
+     * direction
+     * @return the move that was stepped over
+     * @throws IllegalStateException if there is no move to undo
+     */
+    public Direction stepBack() {
+        if (!canUndo()) {
+            throw new IllegalStateException("No move to undo");
+        }
+        return getMove(--mPosition);
+    }
+
+    /**
+     * Steps forward over the next undone move. The caller redoes it by moving in its direction
+     * @return the move that was stepped over
+     * @throws IllegalStateException if there is no move to redo
+     */
+    public Direction stepForward() {
+        if (!canRedo()) {
+            throw new IllegalStateException("No move to redo");
+        }
+        return getMove(mPosition++);
+    }
+
+    /**
+     * Forgets every move
+     */
+    public void clear() {
+        mSize = 0;
+        mPosition = 0;
+        mFirstUnsyncedIndex = 0;
+    }
+
+    /**
+     * Applies the first moves of the journal to a board, e.g. one freshly shuffled from the
+     * same seed, to bring it to the state they led to. The board must not record into this
+     * journal.
+     * @param board - the board the moves were first made on, in the state before the first move
+     * @param count - how many moves to apply, usually getPosition()
+     * @throws IllegalStateException if a move cannot be made on the board
+     */
+    public void replay(PuzzleGameBoard board, int count) {
+        if (board.getMoveJournal() == this) {
+            throw new IllegalStateException("Cannot replay a journal into itself");
+        }
+        for (int i = 0; i < count; i++) {
+            if (!board.move(getMove(i))) {
+                throw new IllegalStateException("Move " + i + " cannot be made on the board");
+            }
+        }
+    }
+
+    /**
+     * @return the first move that was recorded or replaced since markSynced(), or size() if
+     * there is none
+     */
+    public int getFirstUnsyncedIndex() {
+        return Math.min(mFirstUnsyncedIndex, mSize);
+    }
+
+    /**
+     * Tells the journal that every recorded move has been saved
+     */
+    public void markSynced() {
+        mFirstUnsyncedIndex = mSize;
+    }
+
+    /**
+     * @param moveCount - a number of moves
+     * @return the bytes the packed form of that many moves takes
+     */
+    public static int getPackedByteCount(int moveCount) {
+        return (moveCount + MOVES_PER_BYTE - 1) / MOVES_PER_BYTE;
+    }
+
+    /**
+     * @param byteIndex - a byte of the packed form, less than getPackedByteCount(size())
+     * @return moves 4 * byteIndex to 4 * byteIndex + 3, the first in the lowest bits
+     */
+    public byte getPackedByte(int byteIndex) {
+        return (byte) (mWords[byteIndex >>> 3] >>> ((byteIndex & 7) * Byte.SIZE));
+    }
+
+    /**
+     * @return the recorded moves, four to a byte
+     */
+    public byte[] toPackedMoves() {
+        byte[] packed = new byte[getPackedByteCount(mSize)];
+        for (int i = 0; i < packed.length; i++) {
+            packed[i] = getPackedByte(i);
+        }
+        return packed;
+    }
+
+    /**
+     * @return the applied moves as a string of U, D, L and R, for looking at solve paths
+     */
+    public String toMoveString() {
+        StringBuilder builder = new StringBuilder(mPosition);
+        for (int i = 0; i < mPosition; i++) {
+            builder.append(getMove(i).name().charAt(0));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,688 @@
+package com.mikeriv.ssui_2016.puzzlegame.model;
+
+import java.util.Arrays;
+
+import static java.lang.Math.abs;
+
+/**
+ * Created by mlrivera on 9/4/16.
+ *
+ * The board is stored as a flat, row-major array of tile order indices. PuzzleGameTile objects
+ * are only kept in a lookup table indexed by order index so that the renderer can find a tile's
+ * drawable; moves, shuffles and win checks never touch them.
+ */
+public class PuzzleGameBoard {
+
+    // The largest number of tiles a board may hold (order indices are stored as shorts)
+    public static final int MAX_TILE_COUNT = Short.MAX_VALUE;
+
+    // The largest number of tiles that fit in a packed long state (one 4-bit nibble per cell)
+    public static final int MAX_PACKED_TILE_COUNT = 16;
+
+    // Returned for the empty cell when the board does not contain an empty tile
+    public static final int INVALID_CELL_INDEX = -1;
+
+    /**
+     * Told about every change to the cells, so that views can redraw only what changed
+     */
+    public interface OnBoardChangeListener {
+        /**
+         * Two cells have swapped tiles, e.g. because a tile moved
+         * @param firstCellIndex - the flat index of one cell
+         * @param secondCellIndex - the flat index of the other cell
+         */
+        void onCellsSwapped(int firstCellIndex, int secondCellIndex);
+
+        /**
+         * Any number of cells may have changed, e.g. because the board was reset or restored
+         */
+        void onBoardChanged();
+    }
+
+    private static final int BITS_PER_PACKED_CELL = 4;
+    private static final long PACKED_CELL_MASK = 0xFL;
+
+    // The order index of the tile in each cell, row-major; INVALID_TILE_INDEX if unset
+    private short[] mCells;
+    // The tiles of this board indexed by their order index, only needed for rendering
+    private PuzzleGameTile[] mTilesByOrderIndex;
+    // The order index of the empty tile
+    private int mEmptyOrderIndex = PuzzleGameTile.INVALID_TILE_INDEX;
+    // The flat index of the cell holding the empty tile, or INVALID_CELL_INDEX if unknown
+    private int mEmptyCellIndex = INVALID_CELL_INDEX;
+    // How many cells do not hold the tile whose order index matches the cell index
+    private int mMisplacedCount;
+    // Whether the cell permutation is odd; flips on every swap of two distinct cells
+    private boolean mIsOddPermutation = false;
+    // False when cells were set one by one and the parity has to be recomputed
+    private boolean mIsParityValid = false;
+    private int mRows;
+    private int mColumns;
+    private OnBoardChangeListener mOnBoardChangeListener;
+    // Records the moves made with move() and slide(), if set
+    private MoveJournal mMoveJournal;
+
+    public PuzzleGameBoard(int size) {
+       this(size, size);
+    }
+
+    public PuzzleGameBoard(int rows, int columns) {
+        if (rows <= 0 || columns <= 0) {
+            throw new IllegalArgumentException(
+                    "GameBoard must have width/height dimensions greater than 0");
+        }
+        if ((long) rows * columns > MAX_TILE_COUNT) {
+            throw new IllegalArgumentException(
+                    "GameBoard cannot hold more than " + MAX_TILE_COUNT + " tiles");
+        }
+        mRows = rows;
+        mColumns = columns;
+        mCells = new short[mRows * mColumns];
+        mTilesByOrderIndex = new PuzzleGameTile[mRows * mColumns];
+        Arrays.fill(mCells, (short) PuzzleGameTile.INVALID_TILE_INDEX);
+        mMisplacedCount = mCells.length;
+    }
+
+    public int getRowsCount() {
+        return mRows;
+    }
+
+    public int getColumnsCount() {
+        return mColumns;
+    }
+
+    public int getTotalTileCount() {
+        return mRows * mColumns;
+    }
+
+    /**
+     * @param listener the listener to tell about changes to the cells, or null for none
+     */
+    public void setOnBoardChangeListener(OnBoardChangeListener listener) {
+        mOnBoardChangeListener = listener;
+    }
+
+    /**
+     * Starts recording every move made with move() and slide() so that they can be undone and
+     * redone. Swaps, resets and restored cells are not recorded
+     * @param journal the journal to record into, or null to stop recording
+     */
+    public void setMoveJournal(MoveJournal journal) {
+        mMoveJournal = journal;
+    }
+
+    public MoveJournal getMoveJournal() {
+        return mMoveJournal;
+    }
+
+    /**
+     * Converts a row, col position into the index of that cell in the row-major cell array
+     * @param row the row of the cell
+     * @param col the col of the cell
+     * @return the flat index of the cell
+     */
+    public int getCellIndex(int row, int col) {
+        throwOutOfBoundsExceptionIfNecessary(row, col);
+        return row * mColumns + col;
+    }
+
+    /**
+     * Sets the tile at the row,col position in the game board
+     * @param tile the tile to set
+     * @param row the row to set the tile in
+     * @param col the col to set the tile in
+     * @throws IllegalArgumentException if the tile's order index does not fit this board
+     */
+    public void setTile(PuzzleGameTile tile, int row, int col) {
+        int cellIndex = getCellIndex(row, col);
+        mIsParityValid = false;
+        if (mCells[cellIndex] == cellIndex) {
+            mMisplacedCount++;
+        }
+        if (tile == null) {
+            mCells[cellIndex] = (short) PuzzleGameTile.INVALID_TILE_INDEX;
+            if (cellIndex == mEmptyCellIndex) {
+                mEmptyCellIndex = INVALID_CELL_INDEX;
+            }
+            notifyBoardChanged();
+            return;
+        }
+        int orderIndex = tile.getOrderIndex();
+        if (orderIndex < 0 || orderIndex >= mCells.length) {
+            throw new IllegalArgumentException("Tile order index is out of the board's range");
+        }
+        mTilesByOrderIndex[orderIndex] = tile;
+        mCells[cellIndex] = (short) orderIndex;
+        if (orderIndex == cellIndex) {
+            mMisplacedCount--;
+        }
+        if (tile.isEmpty()) {
+            mEmptyOrderIndex = orderIndex;
+            mEmptyCellIndex = cellIndex;
+        } else if (cellIndex == mEmptyCellIndex) {
+            mEmptyCellIndex = INVALID_CELL_INDEX;
+        }
+        notifyBoardChanged();
+    }
+
+    /**
+     * get the tile at the row,col position in the game board
+     * @param row the row to set the tile in
+     * @param col the col to set the tile in
+     * @return the tile, or null if no tile object is bound to that position
+     */
+    public PuzzleGameTile getTile(int row, int col) {
+        int orderIndex = mCells[getCellIndex(row, col)];
+        if (orderIndex == PuzzleGameTile.INVALID_TILE_INDEX) {
+            return null;
+        }
+        return mTilesByOrderIndex[orderIndex];
+    }
+
+    /**
+     * Gets the tile bound to an order index, used by the renderer to look up drawables
+     * @param orderIndex the order index of the tile
+     * @return the tile, or null if none was set for that order index
+     */
+    public PuzzleGameTile getTileByOrderIndex(int orderIndex) {
+        if (orderIndex < 0 || orderIndex >= mTilesByOrderIndex.length) {
+            return null;
+        }
+        return mTilesByOrderIndex[orderIndex];
+    }
+
+    /**
+     * Gets the order index of the tile at the row,col position in the game board
+     * @param row the row of the tile
+     * @param col the col of the tile
+     * @return the order index, or INVALID_TILE_INDEX if the position is unset
+     */
+    public int getOrderIndex(int row, int col) {
+        return mCells[getCellIndex(row, col)];
+    }
+
+    /**
+     * Gets the order index of the tile in a cell given by its flat, row-major index
+     * @param cellIndex the flat index of the cell
+     * @return the order index, or INVALID_TILE_INDEX if the cell is unset
+     */
+    public int getOrderIndexAt(int cellIndex) {
+        return mCells[cellIndex];
+    }
+
+    /**
+     * @return the order index of the empty tile, or INVALID_TILE_INDEX if there is none
+     */
+    public int getEmptyOrderIndex() {
+        return mEmptyOrderIndex;
+    }
+
+    /**
+     * @return the flat index of the cell holding the empty tile, or INVALID_CELL_INDEX if the
+     * board has no empty tile
+     */
+    public int getEmptyCellIndex() {
+        return mEmptyCellIndex;
+    }
+
+    /**
+     * @return the row of the empty tile, or INVALID_CELL_INDEX if the board has no empty tile
+     */
+    public int getEmptyRow() {
+        if (mEmptyCellIndex == INVALID_CELL_INDEX) {
+            return INVALID_CELL_INDEX;
+        }
+        return mEmptyCellIndex / mColumns;
+    }
+
+    /**
+     * @return the col of the empty tile, or INVALID_CELL_INDEX if the board has no empty tile
+     */
+    public int getEmptyColumn() {
+        if (mEmptyCellIndex == INVALID_CELL_INDEX) {
+            return INVALID_CELL_INDEX;
+        }
+        return mEmptyCellIndex % mColumns;
+    }
+
+
+    /**
+     * Checks if the tile at row, col is empty
+     * @param row the row of the tile to check
+     * @param col the col of the tile to checks
+     * @return true if the tile exists and is empty; false if the tile is not empty, or null
+     */
+    public boolean isEmptyTile(int row, int col) {
+        int orderIndex = mCells[getCellIndex(row, col)];
+        // Null counts as false
+        if (orderIndex == PuzzleGameTile.INVALID_TILE_INDEX) return false;
+        return orderIndex == mEmptyOrderIndex;
+    }
+
+    /**
+     * Clears all the tiles on the game board
+     */
+    public void reset() {
+        Arrays.fill(mCells, (short) PuzzleGameTile.INVALID_TILE_INDEX);
+        Arrays.fill(mTilesByOrderIndex, null);
+        mEmptyOrderIndex = PuzzleGameTile.INVALID_TILE_INDEX;
+        mEmptyCellIndex = INVALID_CELL_INDEX;
+        mMisplacedCount = mCells.length;
+        mIsParityValid = false;
+        notifyBoardChanged();
+    }
+
+    /**
+     * Puts every cell in its solved position without binding any tile objects. The last order
+     * index is the empty tile. Useful for boards that are never rendered (solvers, simulations)
+     */
+    public void resetToSolved() {
+        for (int i = 0; i < mCells.length; i++) {
+            mCells[i] = (short) i;
+        }
+        mEmptyOrderIndex = mCells.length - 1;
+        mEmptyCellIndex = mCells.length - 1;
+        mMisplacedCount = 0;
+        mIsOddPermutation = false;
+        mIsParityValid = true;
+        notifyBoardChanged();
+    }
+
+    /**
+     * Checks if two tiles neighbor each other on the game board along the vertical and horizontal
+     * axes:
+     *      // We want to check the neighbors along the horizontal and vertical axis
+     * The 1's below represent the neighbors of a tile called X. 0's are not neighbors)
+     * |0 | 1 | 0
+     * |1 | X | 1
+     * |0 | 1 | 0
+     * @param firstTileRow - the first tile's row index
+     * @param firstTileCol - the first tile's col index
+     * @param secondTileRow - the second tile's row index
+     * @param secondTileCol - the second tile's col index
+     * @return true if the tiles are neighbors
+     */
+    public boolean areTilesNeighbors(
+            int firstTileRow,
+            int firstTileCol,
+            int secondTileRow,
+            int secondTileCol) {
+        throwOutOfBoundsExceptionIfNecessary(firstTileRow, firstTileCol);
+        throwOutOfBoundsExceptionIfNecessary(secondTileRow, secondTileCol);
+        return abs(firstTileRow-secondTileRow) + abs(firstTileCol-secondTileCol) == 1;
+    }
+
+    /**
+     * checks if the given row, col position is within the bounds of the game board
+     * @param row
+     * @param col
+     * @return true if the row, col is within the game board
+     */
+    public boolean isWithinBounds(int row, int col) {
+        if (row < 0 || row >= mRows || col < 0 || col >= mColumns) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Swaps the tile in the game board at (firstTileRow, firstTileCol) with the tile at
+     * (secondTileRow, secondTileCol) if they are within the bounds of the game board
+     * @param firstTileRow - row index of first tile
+     * @param firstTileCol - col index of first tile
+     * @param secondTileRow - row index of second tile
+     * @param secondTileCol - col index of second tile
+     */
+    public final void swapTiles(
+            int firstTileRow,
+            int firstTileCol,
+            int secondTileRow,
+            int secondTileCol) {
+        swapCells(
+                getCellIndex(firstTileRow, firstTileCol),
+                getCellIndex(secondTileRow, secondTileCol));
+    }
+
+    /**
+     * Swaps the tiles in two cells given by their flat, row-major indices, and tells the
+     * OnBoardChangeListener which cells changed
+     * @param firstCellIndex - index of the first cell
+     * @param secondCellIndex - index of the second cell
+     */
+    public final void swapCells(int firstCellIndex, int secondCellIndex) {
+        if (firstCellIndex == secondCellIndex) {
+            return;
+        }
+        // Remove the two cells from the misplaced count, then add them back after the swap
+        if (mCells[firstCellIndex] == firstCellIndex) mMisplacedCount++;
+        if (mCells[secondCellIndex] == secondCellIndex) mMisplacedCount++;
+        short t = mCells[firstCellIndex];
+        mCells[firstCellIndex] = mCells[secondCellIndex];
+        mCells[secondCellIndex] = t;
+        if (mCells[firstCellIndex] == firstCellIndex) mMisplacedCount--;
+        if (mCells[secondCellIndex] == secondCellIndex) mMisplacedCount--;
+        // Any transposition flips the parity of a permutation
+        mIsOddPermutation = !mIsOddPermutation;
+        if (firstCellIndex == mEmptyCellIndex) {
+            mEmptyCellIndex = secondCellIndex;
+        } else if (secondCellIndex == mEmptyCellIndex) {
+            mEmptyCellIndex = firstCellIndex;
+        }
+        if (mOnBoardChangeListener != null) {
+            mOnBoardChangeListener.onCellsSwapped(firstCellIndex, secondCellIndex);
+        }
+    }
+
+    /**
+     * Checks if a tile can slide into the empty cell in the given direction
+     * @param direction the direction the tile would slide in
+     * @return true if there is a tile on the opposite side of the empty cell to slide
+     */
+    public boolean canMove(Direction direction) {
+        if (mEmptyCellIndex == INVALID_CELL_INDEX) {
+            return false;
+        }
+        int sourceRow = mEmptyCellIndex / mColumns - direction.getRowDelta();
+        int sourceCol = mEmptyCellIndex % mColumns - direction.getColumnDelta();
+        return isWithinBounds(sourceRow, sourceCol);
+    }
+
+    /**
+     * Slides the tile neighboring the empty cell in the given direction into the empty cell.
+     * Runs in constant time.
+     * @param direction the direction the tile slides in
+     * @return true if a tile was moved; false if no tile can slide in that direction
+     */
+    public boolean move(Direction direction) {
+        if (!applyMove(direction)) {
+            return false;
+        }
+        if (mMoveJournal != null) {
+            mMoveJournal.record(direction);
+        }
+        return true;
+    }
+
+    /**
+     * Takes back the last move recorded in the move journal
+     * @return true if a move was undone; false if there is no journal or nothing to undo
+     */
+    public boolean undo() {
+        if (mMoveJournal == null || !mMoveJournal.canUndo()) {
+            return false;
+        }
+        Direction direction = mMoveJournal.stepBack();
+        if (!applyMove(direction.opposite())) {
+            // The cells were changed without going through move()
+            mMoveJournal.stepForward();
+            throw new IllegalStateException("Move journal does not match the board");
+        }
+        return true;
+    }
+
+    /**
+     * Makes the last move taken back with undo() again
+     * @return true if a move was redone; false if there is no journal or nothing to redo
+     */
+    public boolean redo() {
+        if (mMoveJournal == null || !mMoveJournal.canRedo()) {
+            return false;
+        }
+        Direction direction = mMoveJournal.stepForward();
+        if (!applyMove(direction)) {
+            mMoveJournal.stepBack();
+            throw new IllegalStateException("Move journal does not match the board");
+        }
+        return true;
+    }
+
+    private boolean applyMove(Direction direction) {
+        if (!canMove(direction)) {
+            return false;
+        }
+        int sourceCellIndex = mEmptyCellIndex
+                - direction.getRowDelta() * mColumns
+                - direction.getColumnDelta();
+        swapCells(mEmptyCellIndex, sourceCellIndex);
+        return true;
+    }
+
+    /**
+     * Slides the tile at row, col towards the empty cell, along with every tile between them,
+     * if the tile shares a row or col with the empty cell. Tapping a tile next to the empty cell
+     * moves just that tile. Runs in time proportional to the number of tiles moved.
+     * @param row the row of the tile to slide
+     * @param col the col of the tile to slide
+     * @return the number of tiles that moved; 0 if the tile is not in line with the empty cell
+     */
+    public int slide(int row, int col) {
+        throwOutOfBoundsExceptionIfNecessary(row, col);
+        if (mEmptyCellIndex == INVALID_CELL_INDEX) {
+            return 0;
+        }
+        int emptyRow = mEmptyCellIndex / mColumns;
+        int emptyCol = mEmptyCellIndex % mColumns;
+        Direction direction;
+        int distance;
+        if (row == emptyRow && col != emptyCol) {
+            direction = col < emptyCol ? Direction.RIGHT : Direction.LEFT;
+            distance = abs(col - emptyCol);
+        } else if (col == emptyCol && row != emptyRow) {
+            direction = row < emptyRow ? Direction.DOWN : Direction.UP;
+            distance = abs(row - emptyRow);
+        } else {
+            return 0;
+        }
+        for (int i = 0; i < distance; i++) {
+            move(direction);
+        }
+        return distance;
+    }
+
+    /**
+     * Checks if every tile is in its solved position, i.e. the tile in cell i has order index i.
+     * Runs in constant time.
+     * @return true if the board is solved
+     */
+    public boolean isSolved() {
+        return mMisplacedCount == 0;
+    }
+
+    /**
+     * @return how many cells do not hold their solved tile (unset cells count as misplaced)
+     */
+    public int getMisplacedCount() {
+        return mMisplacedCount;
+    }
+
+    /**
+     * Checks if the board can be solved by sliding tiles. A legal move swaps the empty tile with
+     * a neighbor, which flips both the permutation parity and the parity of the empty tile's
+     * distance from its solved cell, so the board is solvable exactly when those parities match.
+     * That only holds for boards of at least 2x2: on a single row or col the tiles can never
+     * pass each other, so such a board is solvable exactly when its tiles are in order. Runs in
+     * constant time unless the cells were set one by one since the last check, or in linear
+     * time for a single row or col.
+     * @return true if the board is solvable
+     * @throws IllegalStateException if the board has unset cells or no empty tile
+     */
+    public boolean isSolvable() {
+        if (mEmptyCellIndex == INVALID_CELL_INDEX) {
+            throw new IllegalStateException("Cannot check solvability without an empty tile");
+        }
+        if (mRows == 1 || mColumns == 1) {
+            return isInLineOrder();
+        }
+        if (!mIsParityValid) {
+            for (short orderIndex : mCells) {
+                if (orderIndex == PuzzleGameTile.INVALID_TILE_INDEX) {
+                    throw new IllegalStateException(
+                            "Cannot check solvability of a board with unset cells");
+                }
+            }
+            mIsOddPermutation = (InversionCounter.count(mCells, -1) & 1) == 1;
+            mIsParityValid = true;
+        }
+        int emptyDistance = abs(mEmptyCellIndex / mColumns - mEmptyOrderIndex / mColumns)
+                + abs(mEmptyCellIndex % mColumns - mEmptyOrderIndex % mColumns);
+        return mIsOddPermutation == ((emptyDistance & 1) == 1);
+    }
+
+    /**
+     * @return true if the non-empty tiles are in increasing order of order index, wherever the
+     * empty tile is
+     * @throws IllegalStateException if the board has unset cells
+     */
+    private boolean isInLineOrder() {
+        int previous = PuzzleGameTile.INVALID_TILE_INDEX;
+        boolean isInOrder = true;
+        for (short orderIndex : mCells) {
+            if (orderIndex == PuzzleGameTile.INVALID_TILE_INDEX) {
+                throw new IllegalStateException(
+                        "Cannot check solvability of a board with unset cells");
+            }
+            if (orderIndex == mEmptyOrderIndex) {
+                continue;
+            }
+            if (orderIndex < previous) {
+                isInOrder = false;
+            }
+            previous = orderIndex;
+        }
+        return isInOrder;
+    }
+
+    /**
+     * Counts the inversions among the non-empty tiles in O(N log N)
+     * @return the number of tile pairs that are in the wrong relative order
+     */
+    public long countInversions() {
+        return InversionCounter.count(mCells, mEmptyOrderIndex);
+    }
+
+    /**
+     * Copies the order indices of all cells, row-major, into the given array
+     * @param dest the array to copy into; must hold at least getTotalTileCount() elements
+     */
+    public void copyCellsTo(short[] dest) {
+        System.arraycopy(mCells, 0, dest, 0, mCells.length);
+    }
+
+    /**
+     * Replaces the order indices of all cells, row-major, with those in the given array. If no
+     * empty tile has been bound, the last order index becomes the empty tile, as in
+     * resetToSolved()
+     * @param src the order indices to use; must be a permutation of 0..getTotalTileCount()-1
+     * @throws IllegalArgumentException if src is not a permutation of this board's order indices
+     */
+    public void setCells(short[] src) {
+        if (src.length != mCells.length) {
+            throw new IllegalArgumentException("Cell array does not match the board's size");
+        }
+        boolean[] seen = new boolean[mCells.length];
+        for (short orderIndex : src) {
+            if (orderIndex < 0 || orderIndex >= mCells.length || seen[orderIndex]) {
+                throw new IllegalArgumentException("Cell array is not a permutation");
+            }
+            seen[orderIndex] = true;
+        }
+        System.arraycopy(src, 0, mCells, 0, mCells.length);
+        updateEmptyCellIndex();
+        updateMisplacedCount();
+        notifyBoardChanged();
+    }
+
+    /**
+     * Packs the board into a single long, one nibble per cell (cell 0 in the lowest nibble).
+     * Only available for boards of at most MAX_PACKED_TILE_COUNT tiles, e.g. 4x4
+     * @return the packed state
+     * @throws IllegalStateException if the board is too large to pack or has unset cells
+     */
+    public long packState() {
+        throwIllegalStateExceptionIfNotPackable();
+        long packed = 0L;
+        for (int i = mCells.length - 1; i >= 0; i--) {
+            if (mCells[i] == PuzzleGameTile.INVALID_TILE_INDEX) {
+                throw new IllegalStateException("Cannot pack a board with unset cells");
+            }
+            packed = (packed << BITS_PER_PACKED_CELL) | mCells[i];
+        }
+        return packed;
+    }
+
+    /**
+     * Restores the cells from a state created with packState(). If no empty tile has been
+     * bound, the last order index becomes the empty tile, as in resetToSolved()
+     * @param packed the packed state
+     * @throws IllegalStateException if the board is too large to pack
+     */
+    public void unpackState(long packed) {
+        throwIllegalStateExceptionIfNotPackable();
+        for (int i = 0; i < mCells.length; i++) {
+            mCells[i] = (short) (packed & PACKED_CELL_MASK);
+            packed >>>= BITS_PER_PACKED_CELL;
+        }
+        updateEmptyCellIndex();
+        updateMisplacedCount();
+        notifyBoardChanged();
+    }
+
+    /**
+     * Recounts the misplaced cells after the cells have been replaced in bulk
+     */
+    private void updateMisplacedCount() {
+        mMisplacedCount = 0;
+        for (int i = 0; i < mCells.length; i++) {
+            if (mCells[i] != i) {
+                mMisplacedCount++;
+            }
+        }
+        mIsParityValid = false;
+    }
+
+    /**
+     * Finds the empty tile after the cells have been replaced in bulk
+     */
+    private void updateEmptyCellIndex() {
+        if (mEmptyOrderIndex == PuzzleGameTile.INVALID_TILE_INDEX) {
+            mEmptyOrderIndex = mCells.length - 1;
+        }
+        mEmptyCellIndex = INVALID_CELL_INDEX;
+        for (int i = 0; i < mCells.length; i++) {
+            if (mCells[i] == mEmptyOrderIndex) {
+                mEmptyCellIndex = i;
+                return;
+            }
+        }
+    }
+
+    private void notifyBoardChanged() {
+        if (mOnBoardChangeListener != null) {
+            mOnBoardChangeListener.onBoardChanged();
+        }
+    }
+
+    private void throwIllegalStateExceptionIfNotPackable() throws IllegalStateException {
+        if (mCells.length > MAX_PACKED_TILE_COUNT) {
+            throw new IllegalStateException(
+                    "Only boards of up to " + MAX_PACKED_TILE_COUNT + " tiles can be packed");
+        }
+    }
+
+    /**
+     * Helper to check if a row, col is within bounds and throw an out of bounds exception if necessary
+     * @param row
+     * @param col
+     * @throws IndexOutOfBoundsException when the row, col combination is out of bounds of the game
+     * board
+     */
+    private final void throwOutOfBoundsExceptionIfNecessary(
+            int row,
+            int col)
+            throws IndexOutOfBoundsException {
+        if (!isWithinBounds(row, col)) {
+            throw new IndexOutOfBoundsException("row,col combination is out of board's dimensions");
+        }
+    }
+
+}
@@ -1,8 +1,8 @@
 package com.mikeriv.ssui_2016.puzzlegame.model;
 
-import android.graphics.drawable.Drawable;
-
 /**
+ * A tile of the puzzle: its place in the solved order and whether it is the empty tile. How a
+ * tile looks is up to the front end, which subclasses it, e.g. with the image it shows.
  * Created by mlrivera on 9/4/16.
  */
 public class PuzzleGameTile {
@@ -12,18 +12,17 @@ public class PuzzleGameTile {
     // A Unique Index that denotes the order of this tile in a puzzle
     private int mOrderIndex = INVALID_TILE_INDEX;
     private boolean mIsEmpty = false;
-    private Drawable mDrawable = null;
 
     public PuzzleGameTile() {
         // do nothing
     }
-    public PuzzleGameTile(int tileOrderIndex, Drawable drawable) {
-       this(tileOrderIndex, drawable, false)
-;    }
 
-    public PuzzleGameTile(int tileOrderIndex, Drawable drawable, boolean isEmpty) {
+    public PuzzleGameTile(int tileOrderIndex) {
+        this(tileOrderIndex, false);
+    }
+
+    public PuzzleGameTile(int tileOrderIndex, boolean isEmpty) {
         mOrderIndex = tileOrderIndex;
-        mDrawable = drawable;
         mIsEmpty = isEmpty;
     }
 
@@ -42,12 +41,4 @@ public class PuzzleGameTile {
     public boolean isEmpty() {
         return mIsEmpty;
     }
-
-    public void setDrawable(Drawable drawable) {
-        mDrawable = drawable;
-    }
-
-    public Drawable getDrawable() {
-        return mDrawable;
-    }
 }
@@ -0,0 +1,70 @@
+package com.mikeriv.ssui_2016.puzzlegame.rank;
+
+/**
+ * Ranks partial permutations of at most 64 values in lexicographic order. The used values are
+ * kept in the bits of a long, so the digit of each value, its index among the values not used
+ * yet, is one bit count, and unranking finds the digit-th unused value by clearing low bits.
+ *
+ * Lexicographic order keeps placements that share their first values together, e.g. every
+ * position of the last value is consecutive, which pattern database searches rely on. It keeps
+ * no scratch space, so one instance can be shared between threads.
+ */
+public class LexicographicRanker extends PermutationRanker {
+
+    // Values must fit in the bits of a long
+    public static final int MAX_ELEMENT_COUNT = Long.SIZE;
+
+    // The weight of each digit: the placements of the values after it
+    private final long[] mWeights;
+
+    /**
+     * @param elementCount - n, at most MAX_ELEMENT_COUNT
+     * @param rankedCount - k, such that n!/(n-k)! fits in a long
+     */
+    public LexicographicRanker(int elementCount, int rankedCount) {
+        super(elementCount, rankedCount);
+        if (elementCount > MAX_ELEMENT_COUNT) {
+            throw new IllegalArgumentException("Lexicographic ranks support up to "
+                    + MAX_ELEMENT_COUNT + " elements, got " + elementCount);
+        }
+        if (getRankCount() == NO_LONG_RANK_COUNT) {
+            throw new IllegalArgumentException("Lexicographic ranks of " + rankedCount + " of "
+                    + elementCount + " elements do not fit in a long");
+        }
+        mWeights = new long[rankedCount];
+        for (int i = 0; i < rankedCount; i++) {
+            mWeights[i] = countPlacements(elementCount - i - 1, rankedCount - i - 1);
+        }
+    }
+
+    @Override
+    public long rank(int[] values) {
+        long used = 0L;
+        long rank = 0L;
+        for (int i = 0; i < mRankedCount; i++) {
+            int value = values[i];
+            // The digit of a value is its index among the values not used by earlier ones
+            int digit = value - Long.bitCount(used & ((1L << value) - 1));
+            rank += digit * mWeights[i];
+            used |= 1L << value;
+        }
+        return rank;
+    }
+
+    @Override
+    public void unrank(long rank, int[] outValues) {
+        long unused = mElementCount == Long.SIZE ? -1L : (1L << mElementCount) - 1;
+        for (int i = 0; i < mRankedCount; i++) {
+            int digit = (int) (rank / mWeights[i]);
+            rank %= mWeights[i];
+            // Drop the digit lowest unused values; the next one is the value
+            long candidates = unused;
+            for (int d = 0; d < digit; d++) {
+                candidates &= candidates - 1;
+            }
+            int value = Long.numberOfTrailingZeros(candidates);
+            outValues[i] = value;
+            unused &= ~(1L << value);
+        }
+    }
+}
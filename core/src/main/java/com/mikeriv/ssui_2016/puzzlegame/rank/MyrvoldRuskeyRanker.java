@@ -0,0 +1,256 @@
+package com.mikeriv.ssui_2016.puzzlegame.rank;
+
+/**
+ * Ranks partial permutations of any number of values in linear time with the algorithm of
+ * Myrvold and Ruskey. The order of the ranks is not lexicographic, but every placement of the
+ * ranked values gets a distinct rank in 0..n!/(n-k)!-1.
+ *
+ * The values are placed at the end of a scratch permutation whose inverse is filled in for the
+ * unplaced values too. Each of the k steps reads the last unprocessed entry as a digit and swaps
+ * it into place, so a rank is a mixed radix number with digits of radix n, n-1, ..., n-k+1.
+ * Ranks that do not fit in a long, e.g. of whole boards larger than 4x5, are kept in a long[]
+ * of little-endian words; those take time proportional to the number of words per digit.
+ * Rankers keep their scratch permutations, so each thread needs its own.
+ */
+public class MyrvoldRuskeyRanker extends PermutationRanker {
+
+    private static final long WORD_HALF_MASK = 0xFFFFFFFFL;
+
+    // Scratch permutation and its inverse
+    private final int[] mPermutation;
+    private final int[] mInverse;
+    // The digits of the last rank, the first of radix n
+    private final int[] mDigits;
+    private final int mRankWordCount;
+
+    /**
+     * @param elementCount - n
+     * @param rankedCount - k, at most n
+     */
+    public MyrvoldRuskeyRanker(int elementCount, int rankedCount) {
+        super(elementCount, rankedCount);
+        mPermutation = new int[elementCount];
+        mInverse = new int[elementCount];
+        mDigits = new int[rankedCount];
+        // Bits of the largest rank, bounded by the bits of each radix
+        long bits = 0;
+        for (int i = 0; i < rankedCount; i++) {
+            bits += 32 - Integer.numberOfLeadingZeros(elementCount - i);
+        }
+        mRankWordCount = (int) Math.max(1, (bits + Long.SIZE - 1) / Long.SIZE);
+    }
+
+    /**
+     * @param elementCount - n
+     * @return a ranker for whole permutations of n values
+     */
+    public static MyrvoldRuskeyRanker forPermutations(int elementCount) {
+        return new MyrvoldRuskeyRanker(elementCount, elementCount);
+    }
+
+    /**
+     * @return the length of the long[] ranks used by rank(int[], long[])
+     */
+    public int getRankWordCount() {
+        return mRankWordCount;
+    }
+
+    @Override
+    public long rank(int[] values) {
+        throwIllegalStateExceptionIfNoLongRanks();
+        loadValues(values);
+        computeDigits();
+        long rank = 0L;
+        // Horner's rule from the digit of the smallest radix
+        for (int i = mRankedCount - 1; i >= 0; i--) {
+            rank = rank * (mElementCount - i) + mDigits[i];
+        }
+        return rank;
+    }
+
+    /**
+     * Ranks the values of a whole permutation stored as shorts, such as a board's cells
+     * @param values - a permutation of 0..n-1; only the first k entries are ranked
+     * @return the rank
+     * @throws IllegalStateException if the ranks do not fit in a long
+     */
+    public long rank(short[] values) {
+        throwIllegalStateExceptionIfNoLongRanks();
+        loadValues(values);
+        computeDigits();
+        long rank = 0L;
+        for (int i = mRankedCount - 1; i >= 0; i--) {
+            rank = rank * (mElementCount - i) + mDigits[i];
+        }
+        return rank;
+    }
+
+    /**
+     * Ranks values whose ranks may not fit in a long
+     * @param values - the first k entries are distinct values in 0..n-1
+     * @param outRank - receives the rank in its first getRankWordCount() words, least
+     *                significant first
+     */
+    public void rank(int[] values, long[] outRank) {
+        loadValues(values);
+        computeDigits();
+        packDigits(outRank);
+    }
+
+    /**
+     * Ranks a whole permutation stored as shorts whose ranks may not fit in a long
+     * @param values - a permutation of 0..n-1; only the first k entries are ranked
+     * @param outRank - receives the rank in its first getRankWordCount() words, least
+     *                significant first
+     */
+    public void rank(short[] values, long[] outRank) {
+        loadValues(values);
+        computeDigits();
+        packDigits(outRank);
+    }
+
+    @Override
+    public void unrank(long rank, int[] outValues) {
+        throwIllegalStateExceptionIfNoLongRanks();
+        for (int i = 0; i < mRankedCount; i++) {
+            int radix = mElementCount - i;
+            mDigits[i] = (int) (rank % radix);
+            rank /= radix;
+        }
+        applyDigits();
+        for (int i = 0; i < mRankedCount; i++) {
+            outValues[i] = mPermutation[mElementCount - 1 - i];
+        }
+    }
+
+    /**
+     * @param rank - a rank from rank(int[], long[]); it is left as zero
+     * @param outValues - receives the k values with that rank
+     */
+    public void unrank(long[] rank, int[] outValues) {
+        unpackDigits(rank);
+        applyDigits();
+        for (int i = 0; i < mRankedCount; i++) {
+            outValues[i] = mPermutation[mElementCount - 1 - i];
+        }
+    }
+
+    /**
+     * @param rank - a rank from rank(short[], long[]); it is left as zero
+     * @param outValues - receives the k values with that rank
+     */
+    public void unrank(long[] rank, short[] outValues) {
+        unpackDigits(rank);
+        applyDigits();
+        for (int i = 0; i < mRankedCount; i++) {
+            outValues[i] = (short) mPermutation[mElementCount - 1 - i];
+        }
+    }
+
+    /**
+     * Puts value i at the end of the scratch permutation, position n-1-i, and gives every
+     * value that is not placed one of the remaining positions in the inverse
+     */
+    private void loadValues(int[] values) {
+        int n = mElementCount;
+        for (int i = 0; i < n; i++) {
+            mInverse[i] = -1;
+        }
+        for (int i = 0; i < mRankedCount; i++) {
+            mPermutation[n - 1 - i] = values[i];
+            mInverse[values[i]] = n - 1 - i;
+        }
+        fillUnplacedValues();
+    }
+
+    private void loadValues(short[] values) {
+        int n = mElementCount;
+        for (int i = 0; i < n; i++) {
+            mInverse[i] = -1;
+        }
+        for (int i = 0; i < mRankedCount; i++) {
+            mPermutation[n - 1 - i] = values[i];
+            mInverse[values[i]] = n - 1 - i;
+        }
+        fillUnplacedValues();
+    }
+
+    private void fillUnplacedValues() {
+        int position = 0;
+        for (int value = 0; value < mElementCount; value++) {
+            if (mInverse[value] < 0) {
+                mPermutation[position] = value;
+                mInverse[value] = position++;
+            }
+        }
+    }
+
+    private void computeDigits() {
+        for (int i = 0; i < mRankedCount; i++) {
+            int last = mElementCount - 1 - i;
+            int digit = mPermutation[last];
+            mDigits[i] = digit;
+            // Swap the entry holding the value last into the last position
+            int from = mInverse[last];
+            mPermutation[from] = digit;
+            mPermutation[last] = last;
+            mInverse[digit] = from;
+            mInverse[last] = last;
+        }
+    }
+
+    private void applyDigits() {
+        for (int i = 0; i < mElementCount; i++) {
+            mPermutation[i] = i;
+        }
+        for (int i = 0; i < mRankedCount; i++) {
+            int last = mElementCount - 1 - i;
+            int digit = mDigits[i];
+            int swapped = mPermutation[last];
+            mPermutation[last] = mPermutation[digit];
+            mPermutation[digit] = swapped;
+        }
+    }
+
+    /**
+     * Multiplies out the digits into little-endian words, from the digit of the smallest radix
+     */
+    private void packDigits(long[] outRank) {
+        for (int w = 0; w < mRankWordCount; w++) {
+            outRank[w] = 0L;
+        }
+        for (int i = mRankedCount - 1; i >= 0; i--) {
+            long radix = mElementCount - i;
+            long carry = mDigits[i];
+            // Radixes and carries stay below 2^31, so each half word product fits in a long
+            for (int w = 0; w < mRankWordCount; w++) {
+                long word = outRank[w];
+                long low = (word & WORD_HALF_MASK) * radix + carry;
+                long high = (word >>> 32) * radix + (low >>> 32);
+                outRank[w] = (high << 32) | (low & WORD_HALF_MASK);
+                carry = high >>> 32;
+            }
+        }
+    }
+
+    /**
+     * Divides the digits back out of a rank, from the digit of the largest radix
+     */
+    private void unpackDigits(long[] rank) {
+        for (int i = 0; i < mRankedCount; i++) {
+            long radix = mElementCount - i;
+            long remainder = 0L;
+            for (int w = mRankWordCount - 1; w >= 0; w--) {
+                long word = rank[w];
+                long high = (remainder << 32) | (word >>> 32);
+                long highQuotient = high / radix;
+                remainder = high % radix;
+                long low = (remainder << 32) | (word & WORD_HALF_MASK);
+                long lowQuotient = low / radix;
+                remainder = low % radix;
+                rank[w] = (highQuotient << 32) | lowQuotient;
+            }
+            mDigits[i] = (int) remainder;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.mikeriv.ssui_2016.puzzlegame.rank;
+
+/**
+ * Maps partial permutations to dense ranks and back. A ranker for k of n elements ranks arrays
+ * of k distinct values in 0..n-1, e.g. the cells of k tiles on a board of n cells, onto
+ * 0..n!/(n-k)!-1; with k equal to n it ranks whole permutations such as a board's cells.
+ * Rankers that keep scratch space say so and must not be used by several threads at once.
+ */
+public abstract class PermutationRanker {
+
+    protected final int mElementCount;
+    protected final int mRankedCount;
+    // n!/(n-k)!, or NO_LONG_RANK_COUNT if that does not fit in a long
+    private final long mRankCount;
+
+    // Returned by getRankCount() when the ranks do not fit in a long
+    public static final long NO_LONG_RANK_COUNT = -1L;
+
+    /**
+     * @param elementCount - n, the number of values
+     * @param rankedCount - k, how many of them are placed, at most n
+     */
+    protected PermutationRanker(int elementCount, int rankedCount) {
+        if (elementCount <= 0 || rankedCount <= 0 || rankedCount > elementCount) {
+            throw new IllegalArgumentException(
+                    "Cannot rank " + rankedCount + " of " + elementCount + " elements");
+        }
+        mElementCount = elementCount;
+        mRankedCount = rankedCount;
+        mRankCount = countPlacements(elementCount, rankedCount);
+    }
+
+    public int getElementCount() {
+        return mElementCount;
+    }
+
+    public int getRankedCount() {
+        return mRankedCount;
+    }
+
+    /**
+     * @return the number of ranks, n!/(n-k)!, or NO_LONG_RANK_COUNT if it does not fit in a long
+     */
+    public long getRankCount() {
+        return mRankCount;
+    }
+
+    /**
+     * @param values - the first k entries are distinct values in 0..n-1
+     * @return the rank of the values, in 0..getRankCount()-1
+     * @throws IllegalStateException if the ranks do not fit in a long
+     */
+    public abstract long rank(int[] values);
+
+    /**
+     * @param rank - a rank in 0..getRankCount()-1
+     * @param outValues - receives the k values with that rank
+     * @throws IllegalStateException if the ranks do not fit in a long
+     */
+    public abstract void unrank(long rank, int[] outValues);
+
+    /**
+     * @return n!/(n-k)!, or NO_LONG_RANK_COUNT if that does not fit in a long
+     */
+    public static long countPlacements(int elementCount, int rankedCount) {
+        long count = 1L;
+        for (int i = 0; i < rankedCount; i++) {
+            int factor = elementCount - i;
+            if (count > Long.MAX_VALUE / factor) {
+                return NO_LONG_RANK_COUNT;
+            }
+            count *= factor;
+        }
+        return count;
+    }
+
+    protected void throwIllegalStateExceptionIfNoLongRanks() {
+        if (mRankCount == NO_LONG_RANK_COUNT) {
+            throw new IllegalStateException("Ranks of " + mRankedCount + " of "
+                    + mElementCount + " elements do not fit in a long");
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.mikeriv.ssui_2016.puzzlegame.save;
+
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameBoard;
+
+/**
+ * Everything needed to put a game back the way it was: the board size and the order index in
+ * every cell, plus the score, image and shuffle seed. The empty tile is the one with the last
+ * order index, so its position is part of the cells. The moves made since are kept in a
+ * MoveJournal.
+ *
+ * The binary form is a format byte, the rows, cols and score as varints, the image id and the
+ * seed as fixed size ints, then the cells bit-packed with just enough bits per cell for the
+ * largest order index. A 4x4 game takes 24 to 28 bytes. The first format also stored a move
+ * count after the score, which is skipped when reading it.
+ */
+public class GameSnapshot {
+
+    private static final int FORMAT_VERSION = 2;
+    private static final int FORMAT_VERSION_WITH_MOVE_COUNT = 1;
+
+    private final int mRows;
+    private final int mColumns;
+    private final short[] mCells;
+    private final int mScore;
+    private final int mImageId;
+    private final long mShuffleSeed;
+
+    /**
+     * Takes a snapshot of a game
+     * @param board - the board, which must have every cell set
+     * @param score - the player's score
+     * @param imageId - the id of the image the tiles are cut from
+     * @param shuffleSeed - the seed the board was shuffled with
+     */
+    public GameSnapshot(
+            PuzzleGameBoard board,
+            int score,
+            int imageId,
+            long shuffleSeed) {
+        this(board.getRowsCount(), board.getColumnsCount(), copyCells(board), score, imageId,
+                shuffleSeed);
+    }
+
+    private GameSnapshot(
+            int rows,
+            int columns,
+            short[] cells,
+            int score,
+            int imageId,
+            long shuffleSeed) {
+        mRows = rows;
+        mColumns = columns;
+        mCells = cells;
+        mScore = score;
+        mImageId = imageId;
+        mShuffleSeed = shuffleSeed;
+    }
+
+    public int getRowsCount() {
+        return mRows;
+    }
+
+    public int getColumnsCount() {
+        return mColumns;
+    }
+
+    public int getScore() {
+        return mScore;
+    }
+
+    public int getImageId() {
+        return mImageId;
+    }
+
+    public long getShuffleSeed() {
+        return mShuffleSeed;
+    }
+
+    /**
+     * @return the cell that holds the empty tile
+     */
+    public int getEmptyCellIndex() {
+        int emptyOrderIndex = mCells.length - 1;
+        for (int i = 0; i < mCells.length; i++) {
+            if (mCells[i] == emptyOrderIndex) {
+                return i;
+            }
+        }
+        // The constructors only accept permutations
+        throw new IllegalStateException("Snapshot has no empty tile");
+    }
+
+    /**
+     * Puts the tiles of a board back where they were in the snapshot
+     * @param board - a board of the same size with the empty tile at the last order index
+     * @throws IllegalArgumentException if the board has a different size
+     */
+    public void applyTo(PuzzleGameBoard board) throws IllegalArgumentException {
+        if (board.getRowsCount() != mRows || board.getColumnsCount() != mColumns) {
+            throw new IllegalArgumentException("Snapshot is " + mRows + "x" + mColumns
+                    + ", board is " + board.getRowsCount() + "x" + board.getColumnsCount());
+        }
+        board.setCells(mCells);
+    }
+
+    /**
+     * @return the binary form of the snapshot
+     */
+    public byte[] toByteArray() {
+        int bitsPerCell = bitsPerCell(mCells.length);
+        int size = 1
+                + varIntSize(mRows)
+                + varIntSize(mColumns)
+                + varIntSize(mScore)
+                + 4
+                + 8
+                + (int) (((long) mCells.length * bitsPerCell + 7) / 8);
+        byte[] bytes = new byte[size];
+        int position = 0;
+        bytes[position++] = FORMAT_VERSION;
+        position = writeVarInt(bytes, position, mRows);
+        position = writeVarInt(bytes, position, mColumns);
+        position = writeVarInt(bytes, position, mScore);
+        position = writeFixed(bytes, position, mImageId, 4);
+        position = writeFixed(bytes, position, mShuffleSeed, 8);
+
+        // Cells are packed least significant bit first
+        long bitBuffer = 0;
+        int bitCount = 0;
+        for (short orderIndex : mCells) {
+            bitBuffer |= (long) orderIndex << bitCount;
+            bitCount += bitsPerCell;
+            while (bitCount >= 8) {
+                bytes[position++] = (byte) bitBuffer;
+                bitBuffer >>>= 8;
+                bitCount -= 8;
+            }
+        }
+        if (bitCount > 0) {
+            bytes[position] = (byte) bitBuffer;
+        }
+        return bytes;
+    }
+
+    /**
+     * @param bytes - the binary form created by toByteArray()
+     * @return the snapshot
+     * @throws IllegalArgumentException if the bytes are not a valid snapshot
+     */
+    public static GameSnapshot fromByteArray(byte[] bytes) throws IllegalArgumentException {
+        try {
+            int[] position = {0};
+            int version = bytes[position[0]++];
+            if (version != FORMAT_VERSION && version != FORMAT_VERSION_WITH_MOVE_COUNT) {
+                throw new IllegalArgumentException("Unknown snapshot format " + version);
+            }
+            int rows = readVarInt(bytes, position);
+            int columns = readVarInt(bytes, position);
+            int score = readVarInt(bytes, position);
+            if (version == FORMAT_VERSION_WITH_MOVE_COUNT) {
+                readVarInt(bytes, position);
+            }
+            int imageId = (int) readFixed(bytes, position, 4);
+            long shuffleSeed = readFixed(bytes, position, 8);
+            if (rows <= 0 || columns <= 0
+                    || (long) rows * columns > PuzzleGameBoard.MAX_TILE_COUNT) {
+                throw new IllegalArgumentException("Invalid snapshot size " + rows + "x" + columns);
+            }
+
+            int cellCount = rows * columns;
+            int bitsPerCell = bitsPerCell(cellCount);
+            long cellMask = (1L << bitsPerCell) - 1;
+            short[] cells = new short[cellCount];
+            boolean[] seen = new boolean[cellCount];
+            long bitBuffer = 0;
+            int bitCount = 0;
+            for (int i = 0; i < cellCount; i++) {
+                while (bitCount < bitsPerCell) {
+                    bitBuffer |= (bytes[position[0]++] & 0xFFL) << bitCount;
+                    bitCount += 8;
+                }
+                int orderIndex = (int) (bitBuffer & cellMask);
+                bitBuffer >>>= bitsPerCell;
+                bitCount -= bitsPerCell;
+                if (orderIndex >= cellCount || seen[orderIndex]) {
+                    throw new IllegalArgumentException("Snapshot cells are not a permutation");
+                }
+                seen[orderIndex] = true;
+                cells[i] = (short) orderIndex;
+            }
+            return new GameSnapshot(rows, columns, cells, score, imageId, shuffleSeed);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Snapshot is truncated", e);
+        }
+    }
+
+    private static short[] copyCells(PuzzleGameBoard board) {
+        short[] cells = new short[board.getTotalTileCount()];
+        board.copyCellsTo(cells);
+        for (short orderIndex : cells) {
+            if (orderIndex < 0) {
+                throw new IllegalArgumentException("Cannot take a snapshot of unset cells");
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * @return the bits needed for the order indices 0 to cellCount - 1, at least 1
+     */
+    static int bitsPerCell(int cellCount) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(cellCount - 1));
+    }
+
+    private static int varIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static int writeVarInt(byte[] bytes, int position, int value) {
+        while ((value & ~0x7F) != 0) {
+            bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[position++] = (byte) value;
+        return position;
+    }
+
+    private static int readVarInt(byte[] bytes, int[] position) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = bytes[position[0]++];
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in snapshot");
+    }
+
+    private static int writeFixed(byte[] bytes, int position, long value, int byteCount) {
+        for (int i = 0; i < byteCount; i++) {
+            bytes[position++] = (byte) (value >>> (8 * i));
+        }
+        return position;
+    }
+
+    private static long readFixed(byte[] bytes, int[] position, int byteCount) {
+        long value = 0;
+        for (int i = 0; i < byteCount; i++) {
+            value |= (bytes[position[0]++] & 0xFFL) << (8 * i);
+        }
+        return value;
+    }
+}
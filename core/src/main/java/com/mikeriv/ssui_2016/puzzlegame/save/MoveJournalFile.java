@@ -0,0 +1,188 @@
+package com.mikeriv.ssui_2016.puzzlegame.save;
+
+import com.mikeriv.ssui_2016.puzzlegame.model.MoveJournal;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Keeps a game on disk as the snapshot it started from followed by the moves made since, so
+ * that it can be recovered after a crash by replaying the moves and exported to look at how it
+ * was solved. Syncing writes only the moves recorded since the last sync and a few counters, at
+ * their place in the file, instead of the whole game.
+ *
+ * The file is a format byte, the length and bytes of the start snapshot, the move count, the
+ * journal position and the score as ints, then the moves four to a byte. The counters are
+ * written after the moves, so a crash in between loses the newest moves rather than recovering
+ * moves that were never written.
+ */
+public class MoveJournalFile implements Closeable {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final int COUNTERS_SIZE = 3 * 4;
+
+    /**
+     * A game read back from a move journal file
+     */
+    public static class Contents {
+        private final GameSnapshot mStartSnapshot;
+        private final MoveJournal mMoveJournal;
+        private final int mScore;
+
+        /**
+         * @param startSnapshot - the game before the first move
+         * @param moveJournal - the moves made since
+         * @param score - the player's score after the moves
+         */
+        public Contents(GameSnapshot startSnapshot, MoveJournal moveJournal, int score) {
+            mStartSnapshot = startSnapshot;
+            mMoveJournal = moveJournal;
+            mScore = score;
+        }
+
+        public GameSnapshot getStartSnapshot() {
+            return mStartSnapshot;
+        }
+
+        public MoveJournal getMoveJournal() {
+            return mMoveJournal;
+        }
+
+        public int getScore() {
+            return mScore;
+        }
+    }
+
+    private final FileChannel mChannel;
+    private final long mCountersOffset;
+    private final long mMovesOffset;
+    private final ByteBuffer mCounters =
+            ByteBuffer.allocate(COUNTERS_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    // Reused for the moves written by each sync, grown as needed
+    private ByteBuffer mMoveBuffer = ByteBuffer.allocate(64);
+    // How many moves the file holds
+    private int mSyncedMoveCount;
+
+    private MoveJournalFile(FileChannel channel, long countersOffset) {
+        mChannel = channel;
+        mCountersOffset = countersOffset;
+        mMovesOffset = countersOffset + COUNTERS_SIZE;
+    }
+
+    /**
+     * Creates a file for a game, replacing any file that was there
+     * @param file - the file to write
+     * @param startSnapshot - the game before the first move
+     * @return the open file, holding no moves
+     * @throws IOException if the file cannot be written
+     */
+    public static MoveJournalFile create(File file, GameSnapshot startSnapshot)
+            throws IOException {
+        byte[] snapshot = startSnapshot.toByteArray();
+        FileChannel channel = new RandomAccessFile(file, "rw").getChannel();
+        try {
+            channel.truncate(0);
+            ByteBuffer header = ByteBuffer.allocate(1 + 4 + snapshot.length + COUNTERS_SIZE)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            header.put((byte) FORMAT_VERSION).putInt(snapshot.length).put(snapshot);
+            header.putInt(0).putInt(0).putInt(0).flip();
+            writeFully(channel, header, 0);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new MoveJournalFile(channel, 1 + 4 + snapshot.length);
+    }
+
+    /**
+     * Writes the moves recorded in the journal since the last sync, along with its position and
+     * the score. The data is handed to the OS but not forced to the disk; see force()
+     * @param journal - the journal of the game the file was created for
+     * @param score - the player's score
+     * @throws IOException if the file cannot be written
+     */
+    public void sync(MoveJournal journal, int score) throws IOException {
+        int firstMove = Math.min(journal.getFirstUnsyncedIndex(), mSyncedMoveCount);
+        int moveCount = journal.size();
+        if (firstMove < moveCount) {
+            int firstByte = firstMove / 4;
+            int byteCount = MoveJournal.getPackedByteCount(moveCount) - firstByte;
+            if (mMoveBuffer.capacity() < byteCount) {
+                mMoveBuffer = ByteBuffer.allocate(Math.max(byteCount, mMoveBuffer.capacity() * 2));
+            }
+            mMoveBuffer.clear();
+            for (int i = 0; i < byteCount; i++) {
+                mMoveBuffer.put(journal.getPackedByte(firstByte + i));
+            }
+            mMoveBuffer.flip();
+            writeFully(mChannel, mMoveBuffer, mMovesOffset + firstByte);
+        }
+        mCounters.clear();
+        mCounters.putInt(moveCount).putInt(journal.getPosition()).putInt(score).flip();
+        writeFully(mChannel, mCounters, mCountersOffset);
+        journal.markSynced();
+        mSyncedMoveCount = moveCount;
+    }
+
+    /**
+     * Waits for everything synced so far to reach the disk
+     * @throws IOException if the file cannot be written
+     */
+    public void force() throws IOException {
+        mChannel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        mChannel.close();
+    }
+
+    /**
+     * Reads back a game written with sync()
+     * @param file - the file to read
+     * @return the game
+     * @throws IOException if the file cannot be read or does not hold a valid game
+     */
+    public static Contents read(File file) throws IOException {
+        RandomAccessFile input = new RandomAccessFile(file, "r");
+        try {
+            if (input.readUnsignedByte() != FORMAT_VERSION) {
+                throw new IOException(file + " has an unknown format");
+            }
+            int snapshotLength = Integer.reverseBytes(input.readInt());
+            if (snapshotLength <= 0 || snapshotLength > input.length()) {
+                throw new IOException(file + " is not a valid move journal");
+            }
+            byte[] snapshot = new byte[snapshotLength];
+            input.readFully(snapshot);
+            int moveCount = Integer.reverseBytes(input.readInt());
+            int position = Integer.reverseBytes(input.readInt());
+            int score = Integer.reverseBytes(input.readInt());
+            if (moveCount < 0
+                    || MoveJournal.getPackedByteCount(moveCount)
+                            > input.length() - input.getFilePointer()) {
+                throw new IOException(file + " is truncated");
+            }
+            byte[] moves = new byte[MoveJournal.getPackedByteCount(moveCount)];
+            input.readFully(moves);
+            return new Contents(GameSnapshot.fromByteArray(snapshot),
+                    new MoveJournal(moves, moveCount, position), score);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(file + " is not a valid move journal", e);
+        } finally {
+            input.close();
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.mikeriv.ssui_2016.puzzlegame.shuffle;
+
+import com.mikeriv.ssui_2016.puzzlegame.model.Direction;
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameBoard;
+import com.mikeriv.ssui_2016.puzzlegame.solver.IdaStarSolver;
+
+import java.util.SplittableRandom;
+
+/**
+ * Produces boards whose optimal solution is exactly a given number of moves. It walks away from
+ * the solved board one move at a time, only keeping moves that the solver confirms increase the
+ * optimal distance by one, so the difficulty is exact rather than an upper bound.
+ */
+public class ExactDistanceShuffler implements PuzzleShuffler {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    // How many times to restart the walk when it reaches a board with no farther neighbor
+    private static final int MAX_ATTEMPTS = 100;
+
+    private final IdaStarSolver mSolver;
+    private final int mDistance;
+    private final Direction[] mCandidates = new Direction[DIRECTIONS.length];
+
+    /**
+     * @param solver - a solver for the boards to shuffle
+     * @param distance - the number of moves the optimal solution of every board should take
+     */
+    public ExactDistanceShuffler(IdaStarSolver solver, int distance) {
+        if (distance < 0) {
+            throw new IllegalArgumentException("Distance must not be negative");
+        }
+        mSolver = solver;
+        mDistance = distance;
+    }
+
+    /**
+     * @throws IllegalStateException if no board that far away was found, e.g. because the
+     * distance exceeds the board's diameter
+     */
+    @Override
+    public void shuffle(PuzzleGameBoard board, SplittableRandom random) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            board.resetToSolved();
+            if (walk(board, random)) {
+                return;
+            }
+        }
+        throw new IllegalStateException("Could not find a board " + mDistance + " moves away");
+    }
+
+    /**
+     * @return true if the walk reached the target distance
+     */
+    private boolean walk(PuzzleGameBoard board, SplittableRandom random) {
+        for (int distance = 1; distance <= mDistance; distance++) {
+            // Try the moves in a random order
+            System.arraycopy(DIRECTIONS, 0, mCandidates, 0, DIRECTIONS.length);
+            for (int i = mCandidates.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                Direction swap = mCandidates[i];
+                mCandidates[i] = mCandidates[j];
+                mCandidates[j] = swap;
+            }
+            boolean advanced = false;
+            for (Direction direction : mCandidates) {
+                if (!board.move(direction)) {
+                    continue;
+                }
+                if (mSolver.solve(board).getMoveCount() == distance) {
+                    advanced = true;
+                    break;
+                }
+                board.move(direction.opposite());
+            }
+            if (!advanced) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
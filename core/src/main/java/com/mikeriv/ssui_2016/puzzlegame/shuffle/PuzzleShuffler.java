@@ -0,0 +1,21 @@
+package com.mikeriv.ssui_2016.puzzlegame.shuffle;
+
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameBoard;
+
+import java.util.SplittableRandom;
+
+/**
+ * A strategy for scrambling a PuzzleGameBoard into a solvable state. Every shuffler starts from
+ * the solved board, so the result depends only on the board size and the random sequence; the
+ * same seed always gives the same board.
+ */
+public interface PuzzleShuffler {
+
+    /**
+     * Resets the board to solved and scrambles it in place. Tile objects bound to the board are
+     * kept and move with their order indices.
+     * @param board - the board to shuffle; its empty tile must have the last order index
+     * @param random - the source of randomness
+     */
+    void shuffle(PuzzleGameBoard board, SplittableRandom random);
+}
@@ -0,0 +1,61 @@
+package com.mikeriv.ssui_2016.puzzlegame.shuffle;
+
+import com.mikeriv.ssui_2016.puzzlegame.model.Direction;
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameBoard;
+
+import java.util.SplittableRandom;
+
+/**
+ * Shuffles by making a fixed number of random legal moves, never undoing the previous move. This
+ * is how a person would scramble a physical puzzle, and longer walks give harder boards.
+ */
+public class RandomWalkShuffler implements PuzzleShuffler {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final int mMoveCount;
+
+    /**
+     * @param moveCount - the number of moves to make
+     */
+    public RandomWalkShuffler(int moveCount) {
+        if (moveCount < 0) {
+            throw new IllegalArgumentException("Move count must not be negative");
+        }
+        mMoveCount = moveCount;
+    }
+
+    /**
+     * Creates a walk long enough to mix a board of the given size well
+     * @param tileCount - the number of tiles on the board
+     * @return a shuffler making ten moves per tile
+     */
+    public static RandomWalkShuffler forTileCount(int tileCount) {
+        return new RandomWalkShuffler(tileCount * 10);
+    }
+
+    @Override
+    public void shuffle(PuzzleGameBoard board, SplittableRandom random) {
+        board.resetToSolved();
+        if (board.getTotalTileCount() < 2) {
+            return;
+        }
+        Direction previous = null;
+        int moves = 0;
+        while (moves < mMoveCount) {
+            Direction direction = DIRECTIONS[random.nextInt(DIRECTIONS.length)];
+            if (direction.opposite() == previous) {
+                continue;
+            }
+            // A 1xN board has only one non-backtracking move at its ends
+            if (!board.move(direction)) {
+                if (board.getRowsCount() == 1 || board.getColumnsCount() == 1) {
+                    previous = null;
+                }
+                continue;
+            }
+            previous = direction;
+            moves++;
+        }
+    }
+}
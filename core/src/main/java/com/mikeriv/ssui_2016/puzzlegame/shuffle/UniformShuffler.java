@@ -0,0 +1,40 @@
+package com.mikeriv.ssui_2016.puzzlegame.shuffle;
+
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameBoard;
+
+import java.util.SplittableRandom;
+
+/**
+ * Picks uniformly among all solvable boards. A Fisher-Yates shuffle picks uniformly among all
+ * boards; if the result is unsolvable, swapping two non-empty tiles makes it solvable. That swap
+ * pairs every unsolvable board with exactly one solvable board, so the result stays uniform.
+ * On a single row or col the tiles can never pass each other, so the only solvable boards have
+ * the tiles in order, and only the empty tile's cell is picked.
+ */
+public class UniformShuffler implements PuzzleShuffler {
+
+    @Override
+    public void shuffle(PuzzleGameBoard board, SplittableRandom random) {
+        board.resetToSolved();
+        int tileCount = board.getTotalTileCount();
+        if (tileCount < 3) {
+            return;
+        }
+        if (board.getRowsCount() == 1 || board.getColumnsCount() == 1) {
+            // Slides the empty tile from the last cell to a random one
+            int emptyCell = random.nextInt(tileCount);
+            for (int i = tileCount - 1; i > emptyCell; i--) {
+                board.swapCells(i, i - 1);
+            }
+            return;
+        }
+        for (int i = tileCount - 1; i > 0; i--) {
+            board.swapCells(i, random.nextInt(i + 1));
+        }
+        if (!board.isSolvable()) {
+            int first = board.getEmptyCellIndex() == 0 ? 1 : 0;
+            int second = board.getEmptyCellIndex() == tileCount - 1 ? tileCount - 2 : tileCount - 1;
+            board.swapCells(first, second);
+        }
+    }
+}
@@ -0,0 +1,394 @@
+package com.mikeriv.ssui_2016.puzzlegame.solver;
+
+import com.mikeriv.ssui_2016.puzzlegame.model.Direction;
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameBoard;
+
+/**
+ * Finds solutions with best-first search, which never expands a board twice at the same cost
+ * the way IDA* re-expands every shallower board on each iteration. Nodes are kept in StateTables
+ * of packed cells and ordered by f = g + h in BucketQueues, so nothing is boxed. Bidirectional
+ * mode also searches backwards from the solved board, guided by the Manhattan distance to the
+ * board being solved, and stops once no pair of open nodes can beat the best meeting found.
+ *
+ * A weight above 1 multiplies h, which finds a solution at most weight times longer than the
+ * shortest much faster, e.g. on 5x5 boards. The tables are bounded by a memory budget; a search
+ * that would exceed it drops them and solves the board with IdaStarSolver instead, which is
+ * optimal but may take much longer. An instance may be reused for many boards of the same size,
+ * but only by one thread at a time.
+ */
+public class AStarSolver {
+
+    /**
+     * Which searches to run
+     */
+    public enum Mode {
+        // Forward from the board being solved only
+        A_STAR,
+        // Forward from the board being solved and backward from the solved board
+        BIDIRECTIONAL
+    }
+
+    // Enough for several million 5x5 nodes
+    public static final long DEFAULT_MEMORY_BUDGET = 128L * 1024 * 1024;
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final int NO_DIRECTION = -1;
+    private static final int NO_COST = Integer.MAX_VALUE;
+
+    // Results of expanding one node
+    private static final int CONTINUE = 0;
+    private static final int FOUND = 1;
+    private static final int OUT_OF_MEMORY = 2;
+
+    /**
+     * The tables, queue and heuristic of one search direction
+     */
+    private static class Frontier {
+        final StateTable mTable;
+        final BucketQueue mQueue;
+        final Heuristic mHeuristic;
+
+        Frontier(int cellCount, MemoryBudget budget, Heuristic heuristic) {
+            mTable = new StateTable(cellCount, budget);
+            mQueue = new BucketQueue(budget);
+            mHeuristic = heuristic;
+        }
+
+        void release() {
+            mTable.release();
+            mQueue.release();
+        }
+    }
+
+    private final int mRows;
+    private final int mColumns;
+    private final Heuristic mHeuristic;
+    private final Mode mMode;
+    private final double mWeight;
+    private final long mMemoryBudget;
+    // For each cell and direction ordinal, the cell whose tile slides into that cell when it is
+    // empty, or -1 if there is none
+    private final int[] mSourceCells;
+    private final short mEmptyOrderIndex;
+    // Scratch space for the node being expanded and the key of its children
+    private final short[] mCells;
+    private long[] mKey;
+
+    private long mExpandedNodes;
+    private boolean mUsedFallback;
+    // The node that reached the goal in A_STAR mode
+    private int mGoalNode;
+    // The cheapest meeting of the two searches in BIDIRECTIONAL mode
+    private int mBestCost;
+    private int mMeetingForwardNode;
+    private int mMeetingBackwardNode;
+
+    /**
+     * Creates an optimal A* solver using the Manhattan distance plus linear conflict heuristic
+     * and the default memory budget
+     * @param rows - the rows of the boards to solve
+     * @param columns - the cols of the boards to solve
+     */
+    public AStarSolver(int rows, int columns) {
+        this(rows, columns, new ManhattanLinearConflictHeuristic(rows, columns), Mode.A_STAR,
+                1.0, DEFAULT_MEMORY_BUDGET);
+    }
+
+    /**
+     * @param rows - the rows of the boards to solve
+     * @param columns - the cols of the boards to solve
+     * @param heuristic - an admissible heuristic for boards of this size that is 0 only for the
+     *                  solved board; also used by the IDA* fallback
+     * @param mode - which searches to run
+     * @param weight - the factor h is multiplied by, at least 1; 1 finds optimal solutions
+     * @param memoryBudget - the most bytes the search tables may take up
+     */
+    public AStarSolver(
+            int rows,
+            int columns,
+            Heuristic heuristic,
+            Mode mode,
+            double weight,
+            long memoryBudget) {
+        if (weight < 1.0) {
+            throw new IllegalArgumentException("Weight must be at least 1, got " + weight);
+        }
+        mRows = rows;
+        mColumns = columns;
+        mHeuristic = heuristic;
+        mMode = mode;
+        mWeight = weight;
+        mMemoryBudget = memoryBudget;
+        mCells = new short[rows * columns];
+        mEmptyOrderIndex = (short) (rows * columns - 1);
+        mSourceCells = new int[mCells.length * DIRECTIONS.length];
+        for (int cell = 0; cell < mCells.length; cell++) {
+            for (Direction direction : DIRECTIONS) {
+                int row = cell / columns - direction.getRowDelta();
+                int col = cell % columns - direction.getColumnDelta();
+                boolean inBounds = row >= 0 && row < rows && col >= 0 && col < columns;
+                mSourceCells[cell * DIRECTIONS.length + direction.ordinal()] =
+                        inBounds ? row * columns + col : -1;
+            }
+        }
+    }
+
+    /**
+     * Finds a sequence of moves that solves the board. The board is not modified.
+     * @param board the board to solve; its empty tile must have the last order index
+     * @return the solution, optimal if the weight is 1 or the search fell back to IDA*
+     * @throws IllegalArgumentException if the board does not match this solver or is unsolvable
+     */
+    public PuzzleSolution solve(PuzzleGameBoard board) {
+        long startNanos = System.nanoTime();
+        if (board.getRowsCount() != mRows || board.getColumnsCount() != mColumns) {
+            throw new IllegalArgumentException("Board size does not match the solver");
+        }
+        if (board.getEmptyOrderIndex() != mEmptyOrderIndex) {
+            throw new IllegalArgumentException("The empty tile must have the last order index");
+        }
+        if (!board.isSolvable()) {
+            throw new IllegalArgumentException("Board is not solvable");
+        }
+        mExpandedNodes = 0;
+        mUsedFallback = false;
+
+        MemoryBudget budget = new MemoryBudget(mMemoryBudget);
+        Frontier forward = new Frontier(mCells.length, budget, mHeuristic);
+        mKey = new long[forward.mTable.getWordsPerKey()];
+        Frontier backward = null;
+        Direction[] moves = null;
+        try {
+            board.copyCellsTo(mCells);
+            if (mMode == Mode.A_STAR) {
+                if (searchForward(forward)) {
+                    moves = getPath(forward.mTable, mGoalNode, null, StateTable.NO_NODE);
+                }
+            } else {
+                backward = new Frontier(mCells.length, budget,
+                        new TargetManhattanHeuristic(mColumns, mCells.clone()));
+                if (searchBidirectional(forward, backward)) {
+                    moves = getPath(forward.mTable, mMeetingForwardNode,
+                            backward.mTable, mMeetingBackwardNode);
+                }
+            }
+        } finally {
+            forward.release();
+            if (backward != null) {
+                backward.release();
+            }
+        }
+
+        if (moves == null) {
+            // Out of budget: IDA* needs no tables
+            mUsedFallback = true;
+            PuzzleSolution fallback = new IdaStarSolver(mRows, mColumns, mHeuristic).solve(board);
+            return new PuzzleSolution(
+                    fallback.getMoves(),
+                    mExpandedNodes + fallback.getExpandedNodes(),
+                    System.nanoTime() - startNanos,
+                    true);
+        }
+        return new PuzzleSolution(
+                moves,
+                mExpandedNodes,
+                System.nanoTime() - startNanos,
+                mWeight == 1.0);
+    }
+
+    /**
+     * @return true if the last solve() ran out of memory budget and used IDA* instead
+     */
+    public boolean usedFallback() {
+        return mUsedFallback;
+    }
+
+    /**
+     * Runs A* from the cells in mCells until the goal node is expanded
+     * @return false if the search ran out of budget
+     */
+    private boolean searchForward(Frontier forward) {
+        if (!addRoot(forward, mCells)) {
+            return false;
+        }
+        while (!forward.mQueue.isEmpty()) {
+            int result = expand(forward, null, true);
+            if (result == FOUND) {
+                return true;
+            }
+            if (result == OUT_OF_MEMORY) {
+                return false;
+            }
+        }
+        throw new IllegalStateException("Search space exhausted on a solvable board");
+    }
+
+    /**
+     * Runs both searches, expanding the one with fewer open nodes, until no open node can
+     * complete a path cheaper than the best meeting
+     * @return false if the search ran out of budget
+     */
+    private boolean searchBidirectional(Frontier forward, Frontier backward) {
+        short[] start = mCells.clone();
+        short[] solved = new short[mCells.length];
+        for (int i = 0; i < solved.length; i++) {
+            solved[i] = (short) i;
+        }
+        mBestCost = NO_COST;
+        if (!addRoot(forward, start) || !addRoot(backward, solved)) {
+            return false;
+        }
+        // The board may already be solved
+        forward.mTable.pack(solved, mKey);
+        if (forward.mTable.find(mKey) != StateTable.NO_NODE) {
+            mBestCost = 0;
+            mMeetingForwardNode = 0;
+            mMeetingBackwardNode = 0;
+        }
+        while (!forward.mQueue.isEmpty() && !backward.mQueue.isEmpty()) {
+            int bound = Math.max(forward.mQueue.getMinPriority(),
+                    backward.mQueue.getMinPriority());
+            if (mBestCost != NO_COST && mBestCost <= bound) {
+                return true;
+            }
+            boolean isForward = forward.mQueue.size() <= backward.mQueue.size();
+            int result = isForward
+                    ? expand(forward, backward, true)
+                    : expand(backward, forward, false);
+            if (result == OUT_OF_MEMORY) {
+                return false;
+            }
+        }
+        if (mBestCost == NO_COST) {
+            throw new IllegalStateException("Search space exhausted on a solvable board");
+        }
+        return true;
+    }
+
+    /**
+     * @return false if the search ran out of budget
+     */
+    private boolean addRoot(Frontier frontier, short[] cells) {
+        frontier.mTable.pack(cells, mKey);
+        int root = frontier.mTable.add(mKey, 0, StateTable.NO_NODE, NO_DIRECTION);
+        return root != StateTable.NO_NODE
+                && frontier.mQueue.add(root, priority(0, frontier.mHeuristic.estimate(cells)));
+    }
+
+    /**
+     * Expands the best open node of a frontier
+     * @param frontier - the search to advance
+     * @param other - the search in the other direction, or null for plain A*
+     * @param isForward - whether frontier searches from the board being solved
+     * @return FOUND if plain A* expanded the goal, OUT_OF_MEMORY, or CONTINUE
+     */
+    private int expand(Frontier frontier, Frontier other, boolean isForward) {
+        StateTable table = frontier.mTable;
+        Heuristic heuristic = frontier.mHeuristic;
+        int node = frontier.mQueue.remove();
+        if (table.isClosed(node)) {
+            // A stale entry of a node that was reached again more cheaply
+            return CONTINUE;
+        }
+        table.close(node);
+        int emptyCell = table.unpack(node, mCells);
+        int estimate = heuristic.estimate(mCells);
+        if (other == null && estimate == 0) {
+            mGoalNode = node;
+            return FOUND;
+        }
+        mExpandedNodes++;
+        int childCost = table.getCost(node) + 1;
+        int skippedDirection = table.getParent(node) == StateTable.NO_NODE
+                ? NO_DIRECTION : DIRECTIONS[table.getMove(node)].opposite().ordinal();
+        for (int direction = 0; direction < DIRECTIONS.length; direction++) {
+            if (direction == skippedDirection) {
+                continue;
+            }
+            int sourceCell = mSourceCells[emptyCell * DIRECTIONS.length + direction];
+            if (sourceCell < 0) {
+                continue;
+            }
+            short tile = mCells[sourceCell];
+            mCells[emptyCell] = tile;
+            mCells[sourceCell] = mEmptyOrderIndex;
+            int childEstimate = heuristic.update(mCells, estimate, tile, sourceCell, emptyCell);
+            table.pack(mCells, mKey);
+            mCells[sourceCell] = tile;
+            mCells[emptyCell] = mEmptyOrderIndex;
+            heuristic.update(mCells, childEstimate, tile, emptyCell, sourceCell);
+
+            int child = table.find(mKey);
+            if (child == StateTable.NO_NODE) {
+                child = table.add(mKey, childCost, node, direction);
+                if (child == StateTable.NO_NODE) {
+                    return OUT_OF_MEMORY;
+                }
+            } else if (childCost < table.getCost(child)) {
+                table.reparent(child, childCost, node, direction);
+            } else {
+                continue;
+            }
+            if (!frontier.mQueue.add(child, priority(childCost, childEstimate))) {
+                return OUT_OF_MEMORY;
+            }
+            if (other != null) {
+                int meeting = other.mTable.find(mKey);
+                if (meeting != StateTable.NO_NODE
+                        && childCost + other.mTable.getCost(meeting) < mBestCost) {
+                    mBestCost = childCost + other.mTable.getCost(meeting);
+                    mMeetingForwardNode = isForward ? child : meeting;
+                    mMeetingBackwardNode = isForward ? meeting : child;
+                }
+            }
+        }
+        return CONTINUE;
+    }
+
+    private int priority(int cost, int estimate) {
+        return cost + (mWeight == 1.0 ? estimate : (int) Math.ceil(mWeight * estimate));
+    }
+
+    /**
+     * @param forwardTable - the forward search
+     * @param forwardNode - where the path leaves the forward search
+     * @param backwardTable - the backward search, or null
+     * @param backwardNode - the same board in the backward search
+     * @return the moves from the forward root to forwardNode, then on to the backward root
+     */
+    private static Direction[] getPath(
+            StateTable forwardTable,
+            int forwardNode,
+            StateTable backwardTable,
+            int backwardNode) {
+        // A node reached again more cheaply keeps the costs of its children, so the paths are
+        // measured along the parent links
+        int forwardLength = getDepth(forwardTable, forwardNode);
+        int backwardLength = backwardTable == null ? 0 : getDepth(backwardTable, backwardNode);
+        Direction[] moves = new Direction[forwardLength + backwardLength];
+        int index = forwardLength;
+        for (int node = forwardNode;
+                forwardTable.getParent(node) != StateTable.NO_NODE;
+                node = forwardTable.getParent(node)) {
+            moves[--index] = DIRECTIONS[forwardTable.getMove(node)];
+        }
+        index = forwardLength;
+        if (backwardTable != null) {
+            // Each backward move led away from the solved board, so undo them in turn
+            for (int node = backwardNode;
+                    backwardTable.getParent(node) != StateTable.NO_NODE;
+                    node = backwardTable.getParent(node)) {
+                moves[index++] = DIRECTIONS[backwardTable.getMove(node)].opposite();
+            }
+        }
+        return moves;
+    }
+
+    private static int getDepth(StateTable table, int node) {
+        int depth = 0;
+        for (; table.getParent(node) != StateTable.NO_NODE; node = table.getParent(node)) {
+            depth++;
+        }
+        return depth;
+    }
+}
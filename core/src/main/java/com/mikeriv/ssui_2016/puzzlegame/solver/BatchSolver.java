@@ -0,0 +1,156 @@
+package com.mikeriv.ssui_2016.puzzlegame.solver;
+
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameBoard;
+
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Solves many boards at once, one board per task on a ForkJoinPool. Each worker thread reuses its
+ * own IdaStarSolver. Results are handed back on the calling thread in the order they finish, and
+ * only a bounded number of boards are in flight, so arbitrarily long inputs can be streamed.
+ */
+public class BatchSolver {
+
+    // How many boards per worker thread may be queued or running at a time
+    private static final int IN_FLIGHT_PER_THREAD = 4;
+
+    /**
+     * Receives the result of each board on the thread that called solveAll()
+     */
+    public interface OnBoardSolvedListener {
+        /**
+         * @param boardIndex - the position of the board in the input
+         * @param solution - the solution, with its expanded node count and wall time
+         */
+        void onBoardSolved(int boardIndex, PuzzleSolution solution);
+
+        /**
+         * @param boardIndex - the position of the board in the input
+         * @param error - why the board could not be solved, e.g. it was unsolvable
+         */
+        void onBoardFailed(int boardIndex, RuntimeException error);
+    }
+
+    private final ForkJoinPool mPool;
+    private final ThreadLocal<IdaStarSolver> mWorkerSolvers;
+
+    /**
+     * @param rows - the rows of the boards to solve
+     * @param columns - the cols of the boards to solve
+     * @param pool - the pool to solve boards on
+     * @param heuristicFactory - creates one heuristic per worker thread
+     */
+    public BatchSolver(
+            final int rows,
+            final int columns,
+            ForkJoinPool pool,
+            final HeuristicFactory heuristicFactory) {
+        mPool = pool;
+        mWorkerSolvers = new ThreadLocal<IdaStarSolver>() {
+            @Override
+            protected IdaStarSolver initialValue() {
+                return new IdaStarSolver(rows, columns,
+                        heuristicFactory.createHeuristic(rows, columns));
+            }
+        };
+    }
+
+    /**
+     * Solves every board and reports each result as soon as it is ready. Boards are copied when
+     * they are taken from the iterator, so the caller may reuse a board object between items.
+     * Blocks until every board has been reported.
+     * @param boards - the boards to solve
+     * @param listener - receives the results, on the calling thread
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public void solveAll(Iterator<PuzzleGameBoard> boards, OnBoardSolvedListener listener)
+            throws InterruptedException {
+        CompletionService<BoardResult> completionService =
+                new ExecutorCompletionService<>(mPool);
+        int maxInFlight = mPool.getParallelism() * IN_FLIGHT_PER_THREAD;
+        int inFlight = 0;
+        int boardIndex = 0;
+        while (boards.hasNext() || inFlight > 0) {
+            if (boards.hasNext() && inFlight < maxInFlight) {
+                int index = boardIndex++;
+                PuzzleGameBoard board;
+                try {
+                    board = snapshot(boards.next());
+                } catch (IllegalArgumentException e) {
+                    listener.onBoardFailed(index, e);
+                    continue;
+                }
+                completionService.submit(new SolveTask(index, board));
+                inFlight++;
+                continue;
+            }
+            deliver(completionService.take(), listener);
+            inFlight--;
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the board has unset cells
+     */
+    private static PuzzleGameBoard snapshot(PuzzleGameBoard board) {
+        PuzzleGameBoard copy = new PuzzleGameBoard(board.getRowsCount(), board.getColumnsCount());
+        short[] cells = new short[board.getTotalTileCount()];
+        board.copyCellsTo(cells);
+        copy.resetToSolved();
+        copy.setCells(cells);
+        return copy;
+    }
+
+    private static void deliver(Future<BoardResult> future, OnBoardSolvedListener listener)
+            throws InterruptedException {
+        BoardResult result;
+        try {
+            result = future.get();
+        } catch (ExecutionException e) {
+            // SolveTask catches the exceptions solving can throw, so this is a programming error
+            throw new IllegalStateException(e.getCause());
+        }
+        if (result.mError != null) {
+            listener.onBoardFailed(result.mBoardIndex, result.mError);
+        } else {
+            listener.onBoardSolved(result.mBoardIndex, result.mSolution);
+        }
+    }
+
+    private static class BoardResult {
+        final int mBoardIndex;
+        final PuzzleSolution mSolution;
+        final RuntimeException mError;
+
+        BoardResult(int boardIndex, PuzzleSolution solution, RuntimeException error) {
+            mBoardIndex = boardIndex;
+            mSolution = solution;
+            mError = error;
+        }
+    }
+
+    private class SolveTask implements Callable<BoardResult> {
+        private final int mBoardIndex;
+        private final PuzzleGameBoard mBoard;
+
+        SolveTask(int boardIndex, PuzzleGameBoard board) {
+            mBoardIndex = boardIndex;
+            mBoard = board;
+        }
+
+        @Override
+        public BoardResult call() {
+            try {
+                return new BoardResult(mBoardIndex, mWorkerSolvers.get().solve(mBoard), null);
+            } catch (RuntimeException e) {
+                return new BoardResult(mBoardIndex, null, e);
+            }
+        }
+    }
+}
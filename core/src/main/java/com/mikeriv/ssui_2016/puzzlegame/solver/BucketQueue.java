@@ -0,0 +1,95 @@
+package com.mikeriv.ssui_2016.puzzlegame.solver;
+
+import java.util.Arrays;
+
+/**
+ * A priority queue of node numbers for searches whose priorities are small non-negative ints,
+ * such as f = g + h on a puzzle board. There is one stack per priority, so adding and removing
+ * take constant time; nodes of equal priority come out last in, first out, which favours the
+ * deeper nodes a search has just generated. Growing the stacks is charged to a MemoryBudget.
+ */
+class BucketQueue {
+
+    private static final int INITIAL_BUCKET_CAPACITY = 64;
+
+    private final MemoryBudget mBudget;
+    private int[][] mBuckets = new int[0][];
+    private int[] mBucketSizes = new int[0];
+    // No bucket below this priority holds a node
+    private int mMinPriority;
+    private int mSize;
+    private long mAllocatedBytes;
+
+    BucketQueue(MemoryBudget budget) {
+        mBudget = budget;
+    }
+
+    boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    int size() {
+        return mSize;
+    }
+
+    /**
+     * @return false if the queue cannot grow within the budget
+     */
+    boolean add(int node, int priority) {
+        if (priority >= mBuckets.length) {
+            int length = Math.max(priority + 1, mBuckets.length * 2);
+            mBuckets = Arrays.copyOf(mBuckets, length);
+            mBucketSizes = Arrays.copyOf(mBucketSizes, length);
+        }
+        int[] bucket = mBuckets[priority];
+        int size = mBucketSizes[priority];
+        if (bucket == null || size == bucket.length) {
+            int capacity = bucket == null ? INITIAL_BUCKET_CAPACITY : bucket.length * 2;
+            long bytes = (capacity - (bucket == null ? 0 : bucket.length)) * 4L;
+            if (!mBudget.tryAllocate(bytes)) {
+                return false;
+            }
+            mAllocatedBytes += bytes;
+            bucket = bucket == null ? new int[capacity] : Arrays.copyOf(bucket, capacity);
+            mBuckets[priority] = bucket;
+        }
+        bucket[size] = node;
+        mBucketSizes[priority] = size + 1;
+        if (mSize == 0 || priority < mMinPriority) {
+            mMinPriority = priority;
+        }
+        mSize++;
+        return true;
+    }
+
+    /**
+     * @return the lowest priority of any node; only valid if the queue is not empty
+     */
+    int getMinPriority() {
+        while (mBucketSizes[mMinPriority] == 0) {
+            mMinPriority++;
+        }
+        return mMinPriority;
+    }
+
+    /**
+     * Removes a node of the lowest priority; the queue must not be empty
+     */
+    int remove() {
+        int priority = getMinPriority();
+        mSize--;
+        return mBuckets[priority][--mBucketSizes[priority]];
+    }
+
+    /**
+     * Empties the queue and gives back everything it took from the budget
+     */
+    void release() {
+        mBudget.release(mAllocatedBytes);
+        mAllocatedBytes = 0;
+        mBuckets = new int[0][];
+        mBucketSizes = new int[0];
+        mMinPriority = 0;
+        mSize = 0;
+    }
+}
@@ -0,0 +1,369 @@
+package com.mikeriv.ssui_2016.puzzlegame.solver;
+
+import com.mikeriv.ssui_2016.puzzlegame.model.Direction;
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameBoard;
+
+import java.util.Arrays;
+
+/**
+ * Solves boards of at least 2x2 quickly, but not optimally, the way people do: it solves the top
+ * row or the left col of the unsolved part of the board, whichever is shorter, and repeats on
+ * the rest until a 2x2 block is left, which is solved by turning its tiles around.
+ *
+ * Each tile is walked to its cell along a shortest path that avoids the solved cells, by moving
+ * the empty cell in front of it along another shortest path that also avoids the tile. The last
+ * two tiles of a row (or col) cannot be put in place one after the other, so the last one is
+ * parked below the corner with the other one in the corner, then both are rotated in; a fixed
+ * sequence of moves gets the last one out when it is walled in. Every tile takes a number of
+ * moves proportional to the board's side, so a solution is O(n^1.5) moves for n cells. Moves
+ * that undo the move before them are dropped as they are made.
+ *
+ * The search works on primitive arrays kept between calls, so an instance may be reused for
+ * many boards of the same size, but only by one thread at a time.
+ */
+public class ConstructiveSolver {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final int INITIAL_MOVES_CAPACITY = 256;
+    // Moves of the empty cell, from below the first of the last two tiles of a line when the
+    // second is in its cell and the first is parked, that leave the first parked, the second
+    // next to it and the empty cell in the first's cell. U and D step across the line, L and R
+    // along it.
+    private static final String PAIR_SWAP_MACRO = "URDDLURULDDRULU";
+
+    private final int mRows;
+    private final int mColumns;
+    private final short mEmptyOrderIndex;
+    private final short[] mCells;
+    // The cell of each tile
+    private final int[] mCellOf;
+    // Cells that hold a solved tile and must not be moved through
+    private final boolean[] mLocked;
+    // Breadth-first search scratch space; a cell is visited if its stamp is the current stamp
+    private final int[] mQueue;
+    private final int[] mPrevious;
+    private final int[] mVisitedStamps;
+    private final int[] mPath;
+    private final int[] mTilePath;
+    private int mStamp;
+    private int mEmptyCell;
+    // Direction ordinals of the moves made so far
+    private byte[] mMoves = new byte[INITIAL_MOVES_CAPACITY];
+    private int mMoveCount;
+
+    /**
+     * @param rows - the rows of the boards to solve, at least 2
+     * @param columns - the cols of the boards to solve, at least 2
+     * @throws IllegalArgumentException if the board is a single row or col, whose tiles can only
+     * go round in a line
+     */
+    public ConstructiveSolver(int rows, int columns) {
+        if (rows < 2 || columns < 2) {
+            throw new IllegalArgumentException(
+                    "Boards must be at least 2x2, got " + rows + "x" + columns);
+        }
+        mRows = rows;
+        mColumns = columns;
+        int cellCount = rows * columns;
+        mEmptyOrderIndex = (short) (cellCount - 1);
+        mCells = new short[cellCount];
+        mCellOf = new int[cellCount];
+        mLocked = new boolean[cellCount];
+        mQueue = new int[cellCount];
+        mPrevious = new int[cellCount];
+        mVisitedStamps = new int[cellCount];
+        mPath = new int[cellCount];
+        mTilePath = new int[cellCount];
+    }
+
+    /**
+     * Finds a sequence of moves that solves the board. The board is not modified.
+     * @param board - the board to solve; its empty tile must have the last order index
+     * @return the solution, which is usually far from optimal
+     * @throws IllegalArgumentException if the board does not match this solver or is unsolvable
+     */
+    public PuzzleSolution solve(PuzzleGameBoard board) {
+        long startNanos = System.nanoTime();
+        if (board.getRowsCount() != mRows || board.getColumnsCount() != mColumns) {
+            throw new IllegalArgumentException("Board size does not match the solver");
+        }
+        if (board.getEmptyOrderIndex() != mEmptyOrderIndex) {
+            throw new IllegalArgumentException("The empty tile must have the last order index");
+        }
+        if (!board.isSolvable()) {
+            throw new IllegalArgumentException("Board is not solvable");
+        }
+        board.copyCellsTo(mCells);
+        for (int cell = 0; cell < mCells.length; cell++) {
+            mCellOf[mCells[cell]] = cell;
+        }
+        mEmptyCell = mCellOf[mEmptyOrderIndex];
+        Arrays.fill(mLocked, false);
+        mMoveCount = 0;
+
+        int top = 0;
+        int left = 0;
+        while (mRows - top > 2 || mColumns - left > 2) {
+            int height = mRows - top;
+            int width = mColumns - left;
+            if (height > 2 && (height <= width || width <= 2)) {
+                solveRow(top, left);
+                top++;
+            } else if (width > 2) {
+                solveColumn(top, left);
+                left++;
+            } else {
+                // Not reached, since boards are at least 2x2
+                break;
+            }
+        }
+        moveEmptyTo(mCells.length - 1, -1);
+        if (mRows - top == 2 && mColumns - left == 2) {
+            solveCorner();
+        }
+        for (int cell = 0; cell < mCells.length; cell++) {
+            if (mCells[cell] != cell) {
+                throw new IllegalStateException("Board could not be solved");
+            }
+        }
+        return new PuzzleSolution(
+                getMoves(),
+                0,
+                System.nanoTime() - startNanos,
+                mMoveCount == 0);
+    }
+
+    /**
+     * Puts the tiles of a row in place from left to right and locks them
+     */
+    private void solveRow(int row, int left) {
+        int lastColumn = mColumns - 1;
+        for (int col = left; col < lastColumn - 1; col++) {
+            placeTile(row * mColumns + col, row * mColumns + col);
+        }
+        int first = row * mColumns + lastColumn - 1;
+        int second = row * mColumns + lastColumn;
+        placePair(first, second, mColumns);
+    }
+
+    /**
+     * Puts the tiles of a col in place from top to bottom and locks them
+     */
+    private void solveColumn(int top, int col) {
+        int lastRow = mRows - 1;
+        for (int row = top; row < lastRow - 1; row++) {
+            placeTile(row * mColumns + col, row * mColumns + col);
+        }
+        int first = (lastRow - 1) * mColumns + col;
+        int second = lastRow * mColumns + col;
+        placePair(first, second, 1);
+    }
+
+    /**
+     * Puts the last two tiles of a row or col in place. The first tile is parked in the
+     * second's cell and the second next to it, outside the line; then the empty cell is moved
+     * into the first's cell and rotates both tiles into place.
+     * @param first - the cell, and order index, of the first tile
+     * @param second - the cell, and order index, of the second tile, next to the first
+     * @param across - the step from a cell of the line to the next cell outside it
+     */
+    private void placePair(int first, int second, int across) {
+        if (mCells[first] == first && mCells[second] == second) {
+            mLocked[first] = true;
+            mLocked[second] = true;
+            return;
+        }
+        int firstParking = second;
+        int secondParking = second + across;
+        placeTile(first, firstParking);
+        if (mEmptyCell == first) {
+            // The first tile's cell is a dead end now; the empty cell must leave it to get
+            // around the second tile
+            moveEmpty(first + across);
+        }
+        if (mCellOf[second] == first) {
+            // The second tile is walled in the first's cell; take both out and turn them around
+            // into their parking cells
+            mLocked[first] = true;
+            moveEmptyTo(first + across, -1);
+            mLocked[first] = false;
+            mLocked[firstParking] = false;
+            int along = second - first;
+            for (int i = 0; i < PAIR_SWAP_MACRO.length(); i++) {
+                switch (PAIR_SWAP_MACRO.charAt(i)) {
+                    case 'U':
+                        moveEmpty(mEmptyCell - across);
+                        break;
+                    case 'D':
+                        moveEmpty(mEmptyCell + across);
+                        break;
+                    case 'L':
+                        moveEmpty(mEmptyCell - along);
+                        break;
+                    default:
+                        moveEmpty(mEmptyCell + along);
+                        break;
+                }
+            }
+        } else {
+            placeTile(second, secondParking);
+            moveEmptyTo(first, -1);
+        }
+        mLocked[firstParking] = false;
+        mLocked[secondParking] = false;
+        moveEmpty(firstParking);
+        moveEmpty(secondParking);
+        mLocked[first] = true;
+        mLocked[second] = true;
+    }
+
+    /**
+     * Walks a tile to a cell and locks it there
+     */
+    private void placeTile(int tile, int target) {
+        // Only locked cells are in the way, and they stay put while the tile walks
+        int pathLength = findPath(mCellOf[tile], target, -1, mTilePath);
+        if (pathLength < 0) {
+            throw new IllegalStateException("Tile " + tile + " cannot reach its cell");
+        }
+        for (int i = 0; i < pathLength; i++) {
+            int tileCell = mCellOf[tile];
+            moveEmptyTo(mTilePath[i], tileCell);
+            moveEmpty(tileCell);
+        }
+        mLocked[target] = true;
+    }
+
+    /**
+     * Moves the empty cell to a cell along a shortest path around the locked cells
+     * @param avoidedCell - another cell to go around, or -1
+     */
+    private void moveEmptyTo(int target, int avoidedCell) {
+        int pathLength = findPath(mEmptyCell, target, avoidedCell, mPath);
+        if (pathLength < 0) {
+            throw new IllegalStateException("Empty cell cannot reach cell " + target);
+        }
+        for (int i = 0; i < pathLength; i++) {
+            moveEmpty(mPath[i]);
+        }
+    }
+
+    /**
+     * Solves the last 2x2 block, in the bottom right corner, by turning its tiles around
+     */
+    private void solveCorner() {
+        int bottomRight = mCells.length - 1;
+        int[] cycle = {
+                bottomRight - mColumns,
+                bottomRight - mColumns - 1,
+                bottomRight - 1,
+                bottomRight};
+        // Three tiles in a cycle of four cells return to where they started after 12 moves
+        for (int i = 0; i < 12 && !isCornerSolved(); i++) {
+            moveEmpty(cycle[i % cycle.length]);
+        }
+    }
+
+    private boolean isCornerSolved() {
+        int bottomRight = mCells.length - 1;
+        return mCells[bottomRight] == bottomRight
+                && mCells[bottomRight - 1] == bottomRight - 1
+                && mCells[bottomRight - mColumns] == bottomRight - mColumns
+                && mCells[bottomRight - mColumns - 1] == bottomRight - mColumns - 1;
+    }
+
+    /**
+     * Slides the tile in a cell next to the empty cell into it
+     */
+    private void moveEmpty(int cell) {
+        int emptyCell = mEmptyCell;
+        short tile = mCells[cell];
+        mCells[emptyCell] = tile;
+        mCellOf[tile] = emptyCell;
+        mCells[cell] = mEmptyOrderIndex;
+        mCellOf[mEmptyOrderIndex] = cell;
+        mEmptyCell = cell;
+
+        int direction;
+        if (cell == emptyCell + mColumns) {
+            direction = Direction.UP.ordinal();
+        } else if (cell == emptyCell - mColumns) {
+            direction = Direction.DOWN.ordinal();
+        } else if (cell == emptyCell + 1) {
+            direction = Direction.LEFT.ordinal();
+        } else {
+            direction = Direction.RIGHT.ordinal();
+        }
+        if (mMoveCount > 0
+                && mMoves[mMoveCount - 1] == DIRECTIONS[direction].opposite().ordinal()) {
+            // The move undoes the one before it
+            mMoveCount--;
+            return;
+        }
+        if (mMoveCount == mMoves.length) {
+            mMoves = Arrays.copyOf(mMoves, mMoves.length * 2);
+        }
+        mMoves[mMoveCount++] = (byte) direction;
+    }
+
+    /**
+     * Finds a shortest path between two cells around the locked cells
+     * @param avoidedCell - another cell to go around, or -1
+     * @param path - receives the cells of the path, excluding the start
+     * @return the number of steps, or -1 if there is no path
+     */
+    private int findPath(int start, int target, int avoidedCell, int[] path) {
+        if (start == target) {
+            return 0;
+        }
+        mStamp++;
+        int head = 0;
+        int tail = 0;
+        mQueue[tail++] = start;
+        mVisitedStamps[start] = mStamp;
+        while (head < tail) {
+            int cell = mQueue[head++];
+            int row = cell / mColumns;
+            int col = cell % mColumns;
+            for (int neighbor = 0; neighbor < 4; neighbor++) {
+                int next;
+                if (neighbor == 0) {
+                    next = row > 0 ? cell - mColumns : -1;
+                } else if (neighbor == 1) {
+                    next = row < mRows - 1 ? cell + mColumns : -1;
+                } else if (neighbor == 2) {
+                    next = col > 0 ? cell - 1 : -1;
+                } else {
+                    next = col < mColumns - 1 ? cell + 1 : -1;
+                }
+                if (next < 0 || mLocked[next] || next == avoidedCell
+                        || mVisitedStamps[next] == mStamp) {
+                    continue;
+                }
+                mVisitedStamps[next] = mStamp;
+                mPrevious[next] = cell;
+                if (next == target) {
+                    int length = 0;
+                    for (int step = next; step != start; step = mPrevious[step]) {
+                        length++;
+                    }
+                    int index = length;
+                    for (int step = next; step != start; step = mPrevious[step]) {
+                        path[--index] = step;
+                    }
+                    return length;
+                }
+                mQueue[tail++] = next;
+            }
+        }
+        return -1;
+    }
+
+    private Direction[] getMoves() {
+        Direction[] moves = new Direction[mMoveCount];
+        for (int i = 0; i < mMoveCount; i++) {
+            moves[i] = DIRECTIONS[mMoves[i]];
+        }
+        return moves;
+    }
+}
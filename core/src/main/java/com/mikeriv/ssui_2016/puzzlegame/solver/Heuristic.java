@@ -0,0 +1,29 @@
+package com.mikeriv.ssui_2016.puzzlegame.solver;
+
+/**
+ * An admissible estimate of the number of moves left to solve a board, expressed over the flat,
+ * row-major array of tile order indices used by PuzzleGameBoard. Implementations may cache
+ * per-board data between calls, so an instance must only be used by one search at a time.
+ */
+public interface Heuristic {
+
+    /**
+     * Computes the estimate for a whole board from scratch, resetting any cached data
+     * @param cells - the order index of the tile in each cell
+     * @return a lower bound on the number of moves needed to solve the board
+     */
+    int estimate(short[] cells);
+
+    /**
+     * Updates the estimate after a single tile slid into the empty cell. The cells array has
+     * already been updated when this is called. Searches call this for undo moves as well, so
+     * any cached data stays in sync with the cells.
+     * @param cells - the order index of the tile in each cell, after the move
+     * @param estimate - the estimate before the move
+     * @param tile - the order index of the tile that moved
+     * @param fromCell - the cell the tile moved out of
+     * @param toCell - the cell the tile moved into
+     * @return the estimate after the move
+     */
+    int update(short[] cells, int estimate, int tile, int fromCell, int toCell);
+}
@@ -0,0 +1,25 @@
+package com.mikeriv.ssui_2016.puzzlegame.solver;
+
+/**
+ * Creates heuristics for solvers that run on several threads. Heuristics cache per-search data,
+ * so every worker needs its own instance; instances may share read-only tables.
+ */
+public interface HeuristicFactory {
+
+    /**
+     * @param rows - the rows of the boards to estimate
+     * @param columns - the cols of the boards to estimate
+     * @return a new heuristic for boards of that size
+     */
+    Heuristic createHeuristic(int rows, int columns);
+
+    /**
+     * Creates ManhattanLinearConflictHeuristics
+     */
+    HeuristicFactory MANHATTAN_LINEAR_CONFLICT = new HeuristicFactory() {
+        @Override
+        public Heuristic createHeuristic(int rows, int columns) {
+            return new ManhattanLinearConflictHeuristic(rows, columns);
+        }
+    };
+}
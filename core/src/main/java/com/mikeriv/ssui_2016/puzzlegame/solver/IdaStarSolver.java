@@ -0,0 +1,294 @@
+package com.mikeriv.ssui_2016.puzzlegame.solver;
+
+import com.mikeriv.ssui_2016.puzzlegame.model.Direction;
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameBoard;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Finds optimal solutions with iterative deepening A*. The search works on its own copy of the
+ * board's cells, applying and undoing moves in place, and updates the heuristic incrementally,
+ * so nothing is allocated while searching. An instance may be reused for many boards of the same
+ * size, but only by one thread at a time.
+ */
+public class IdaStarSolver {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    static final int NO_DIRECTION = -1;
+    // Returned by search when the goal was reached
+    static final int FOUND = -1;
+    // Returned by search when it was stopped through the cancellation flag
+    static final int CANCELLED = -2;
+    // Returned by search when no node exceeded the bound, i.e. the subtree is exhausted
+    static final int NOT_FOUND = Integer.MAX_VALUE;
+    private static final int INITIAL_PATH_CAPACITY = 128;
+    // The cancellation flag is polled once every this many + 1 expanded nodes
+    private static final int CANCELLATION_CHECK_MASK = 0x3FF;
+
+    /**
+     * Receives the nodes at the split depth of a search started by collectFrontier()
+     */
+    interface FrontierListener {
+        /**
+         * @param cells - the cells of the node; only valid during the call
+         * @param emptyCell - the cell of the empty tile
+         * @param path - the direction ordinals leading to the node; only valid during the call
+         * @param depth - the number of moves leading to the node
+         * @param previousDirection - the ordinal of the last move
+         */
+        void onFrontierNode(
+                short[] cells,
+                int emptyCell,
+                byte[] path,
+                int depth,
+                int previousDirection);
+    }
+
+    private final int mRows;
+    private final int mColumns;
+    private final Heuristic mHeuristic;
+    private final short[] mCells;
+    // For each cell and direction ordinal, the cell whose tile slides into that cell when it is
+    // empty, or -1 if there is none
+    private final int[] mSourceCells;
+    // The opposite of each direction ordinal, used to skip moves that undo the previous one
+    private final int[] mOppositeDirections;
+    private final short mEmptyOrderIndex;
+    private byte[] mPath = new byte[INITIAL_PATH_CAPACITY];
+    private int mEmptyCell;
+    private long mExpandedNodes;
+    private int mSolutionLength;
+    // Set by a parallel search to stop every worker once one of them is done; may be null
+    private AtomicBoolean mCancellation;
+    // The depth at which collectFrontier() hands nodes to mFrontierListener instead of expanding
+    private int mFrontierDepth = -1;
+    private FrontierListener mFrontierListener;
+
+    /**
+     * Creates a solver using the Manhattan distance plus linear conflict heuristic
+     * @param rows - the rows of the boards to solve
+     * @param columns - the cols of the boards to solve
+     */
+    public IdaStarSolver(int rows, int columns) {
+        this(rows, columns, new ManhattanLinearConflictHeuristic(rows, columns));
+    }
+
+    /**
+     * @param rows - the rows of the boards to solve
+     * @param columns - the cols of the boards to solve
+     * @param heuristic - an admissible heuristic for boards of this size that is 0 only for the
+     *                  solved board
+     */
+    public IdaStarSolver(int rows, int columns, Heuristic heuristic) {
+        mRows = rows;
+        mColumns = columns;
+        mHeuristic = heuristic;
+        mCells = new short[rows * columns];
+        mEmptyOrderIndex = (short) (rows * columns - 1);
+        mSourceCells = new int[mCells.length * DIRECTIONS.length];
+        for (int cell = 0; cell < mCells.length; cell++) {
+            for (Direction direction : DIRECTIONS) {
+                int row = cell / columns - direction.getRowDelta();
+                int col = cell % columns - direction.getColumnDelta();
+                boolean inBounds = row >= 0 && row < rows && col >= 0 && col < columns;
+                mSourceCells[cell * DIRECTIONS.length + direction.ordinal()] =
+                        inBounds ? row * columns + col : -1;
+            }
+        }
+        mOppositeDirections = new int[DIRECTIONS.length];
+        for (Direction direction : DIRECTIONS) {
+            mOppositeDirections[direction.ordinal()] = direction.opposite().ordinal();
+        }
+    }
+
+    /**
+     * Finds a shortest sequence of moves that solves the board. The board is not modified.
+     * @param board the board to solve; its empty tile must have the last order index
+     * @return the optimal solution
+     * @throws IllegalArgumentException if the board does not match this solver or is unsolvable
+     */
+    public PuzzleSolution solve(PuzzleGameBoard board) {
+        long startNanos = System.nanoTime();
+        int bound = prepare(board);
+        while (true) {
+            ensurePathCapacity(bound);
+            int result = search(0, mHeuristic.estimate(mCells), bound, NO_DIRECTION);
+            if (result == FOUND) {
+                break;
+            }
+            bound = result;
+        }
+        return new PuzzleSolution(
+                getSolutionMoves(),
+                mExpandedNodes,
+                System.nanoTime() - startNanos,
+                true);
+    }
+
+    /**
+     * Copies the board into the search state and validates it
+     * @return the heuristic estimate of the board, which is the first IDA* bound
+     */
+    int prepare(PuzzleGameBoard board) {
+        if (board.getRowsCount() != mRows || board.getColumnsCount() != mColumns) {
+            throw new IllegalArgumentException("Board size does not match the solver");
+        }
+        if (board.getEmptyOrderIndex() != mEmptyOrderIndex) {
+            throw new IllegalArgumentException("The empty tile must have the last order index");
+        }
+        if (!board.isSolvable()) {
+            throw new IllegalArgumentException("Board is not solvable");
+        }
+        board.copyCellsTo(mCells);
+        mEmptyCell = board.getEmptyCellIndex();
+        mExpandedNodes = 0;
+        return mHeuristic.estimate(mCells);
+    }
+
+    /**
+     * Runs one bounded iteration from the prepared board, stopping at frontierDepth and handing
+     * the nodes there to the listener rather than searching below them
+     * @param bound - the largest f to expand in this iteration
+     * @param frontierDepth - the depth at which to stop
+     * @param listener - receives the nodes at frontierDepth whose f is within the bound
+     * @return FOUND if solved above frontierDepth, otherwise the smallest f that exceeded the
+     * bound above frontierDepth (NOT_FOUND if none did)
+     */
+    int collectFrontier(int bound, int frontierDepth, FrontierListener listener) {
+        ensurePathCapacity(Math.max(bound, frontierDepth));
+        mFrontierDepth = frontierDepth;
+        mFrontierListener = listener;
+        try {
+            return search(0, mHeuristic.estimate(mCells), bound, NO_DIRECTION);
+        } finally {
+            mFrontierDepth = -1;
+            mFrontierListener = null;
+        }
+    }
+
+    /**
+     * Runs one bounded iteration below a node collected by collectFrontier()
+     * @param cells - the cells of the node
+     * @param emptyCell - the cell of the empty tile
+     * @param path - the direction ordinals leading to the node
+     * @param depth - the number of moves leading to the node
+     * @param previousDirection - the ordinal of the last move
+     * @param bound - the largest f to expand in this iteration
+     * @return FOUND, CANCELLED, or the smallest f that exceeded the bound
+     */
+    int searchSubtree(
+            short[] cells,
+            int emptyCell,
+            byte[] path,
+            int depth,
+            int previousDirection,
+            int bound) {
+        System.arraycopy(cells, 0, mCells, 0, mCells.length);
+        mEmptyCell = emptyCell;
+        ensurePathCapacity(bound);
+        System.arraycopy(path, 0, mPath, 0, depth);
+        return search(depth, mHeuristic.estimate(mCells), bound, previousDirection);
+    }
+
+    /**
+     * @param cancellation - polled while searching; the search returns CANCELLED once it is set
+     */
+    void setCancellation(AtomicBoolean cancellation) {
+        mCancellation = cancellation;
+    }
+
+    /**
+     * @return how many nodes were expanded since the counter was last reset
+     */
+    long getExpandedNodes() {
+        return mExpandedNodes;
+    }
+
+    void resetExpandedNodes() {
+        mExpandedNodes = 0;
+    }
+
+    /**
+     * @return the moves found by the last search that returned FOUND
+     */
+    Direction[] getSolutionMoves() {
+        return copyPath(mSolutionLength);
+    }
+
+    /**
+     * Depth-first search bounded by f = g + h
+     * @param depth - the number of moves made so far (g)
+     * @param estimate - the heuristic estimate of the current cells (h)
+     * @param bound - the largest f to expand in this iteration
+     * @param previousDirection - the ordinal of the last move, or NO_DIRECTION
+     * @return FOUND if solved, CANCELLED if stopped, otherwise the smallest f that exceeded the
+     * bound
+     */
+    private int search(int depth, int estimate, int bound, int previousDirection) {
+        int f = depth + estimate;
+        if (f > bound) {
+            return f;
+        }
+        if (estimate == 0) {
+            mSolutionLength = depth;
+            return FOUND;
+        }
+        if (depth == mFrontierDepth) {
+            mFrontierListener.onFrontierNode(mCells, mEmptyCell, mPath, depth, previousDirection);
+            return NOT_FOUND;
+        }
+        if (mCancellation != null
+                && (mExpandedNodes & CANCELLATION_CHECK_MASK) == 0
+                && mCancellation.get()) {
+            return CANCELLED;
+        }
+        mExpandedNodes++;
+        int min = NOT_FOUND;
+        int emptyCell = mEmptyCell;
+        int skippedDirection = previousDirection == NO_DIRECTION
+                ? NO_DIRECTION : mOppositeDirections[previousDirection];
+        for (int direction = 0; direction < DIRECTIONS.length; direction++) {
+            if (direction == skippedDirection) {
+                continue;
+            }
+            int sourceCell = mSourceCells[emptyCell * DIRECTIONS.length + direction];
+            if (sourceCell < 0) {
+                continue;
+            }
+            short tile = mCells[sourceCell];
+            mCells[emptyCell] = tile;
+            mCells[sourceCell] = mEmptyOrderIndex;
+            mEmptyCell = sourceCell;
+            int childEstimate = mHeuristic.update(mCells, estimate, tile, sourceCell, emptyCell);
+            mPath[depth] = (byte) direction;
+
+            int result = search(depth + 1, childEstimate, bound, direction);
+            if (result == FOUND || result == CANCELLED) {
+                return result;
+            }
+
+            mCells[sourceCell] = tile;
+            mCells[emptyCell] = mEmptyOrderIndex;
+            mEmptyCell = emptyCell;
+            mHeuristic.update(mCells, childEstimate, tile, emptyCell, sourceCell);
+            if (result < min) {
+                min = result;
+            }
+        }
+        return min;
+    }
+
+    private void ensurePathCapacity(int bound) {
+        if (mPath.length < bound) {
+            mPath = new byte[Math.max(bound, mPath.length * 2)];
+        }
+    }
+
+    private Direction[] copyPath(int length) {
+        Direction[] moves = new Direction[length];
+        for (int i = 0; i < length; i++) {
+            moves[i] = DIRECTIONS[mPath[i]];
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,283 @@
+package com.mikeriv.ssui_2016.puzzlegame.solver;
+
+import static java.lang.Math.abs;
+
+/**
+ * Manhattan distance plus linear conflicts. Two tiles that are both in their goal row (or col)
+ * but in reversed order need at least two extra moves beyond their Manhattan distance; for each
+ * line the number of tiles that must leave it is the line length minus the longest increasing
+ * run of goal positions.
+ *
+ * A move can only change the conflicts of the one line that is the moving tile's goal row (or
+ * col). For lines of up to MAX_TABLE_LINE_LENGTH cells every line is kept as a key made of the
+ * goal positions of its tiles, which is adjusted in constant time per move and indexes a shared
+ * table of conflict costs. Longer lines are rescanned instead.
+ */
+public class ManhattanLinearConflictHeuristic implements Heuristic {
+
+    // Lines longer than this are rescanned; a table for length n has (n + 1)^n entries
+    private static final int MAX_TABLE_LINE_LENGTH = 6;
+
+    // Conflict cost tables indexed by line length, built on first use and shared by instances
+    private static final byte[][] sConflictTables = new byte[MAX_TABLE_LINE_LENGTH + 1][];
+
+    private final int mRows;
+    private final int mColumns;
+    private final int mEmptyOrderIndex;
+    // The row and col of each cell, which is also the goal row and col of the matching tile
+    private final int[] mRowOf;
+    private final int[] mColumnOf;
+    // Conflict cost of each row followed by each col
+    private final int[] mLineConflicts;
+    // Conflict table key of each row followed by each col, when tables are in use
+    private final int[] mLineKeys;
+    // The weight of each position in a row key and in a col key
+    private final int[] mRowKeyWeights;
+    private final int[] mColumnKeyWeights;
+    private final byte[] mRowTable;
+    private final byte[] mColumnTable;
+    // Scratch space for rescanning lines that are too long for a table
+    private final int[] mLineGoals;
+    private final int[] mLisLengths;
+
+    /**
+     * @param rows - the rows of the boards to estimate
+     * @param columns - the cols of the boards to estimate
+     */
+    public ManhattanLinearConflictHeuristic(int rows, int columns) {
+        mRows = rows;
+        mColumns = columns;
+        mEmptyOrderIndex = rows * columns - 1;
+        mRowOf = new int[rows * columns];
+        mColumnOf = new int[rows * columns];
+        for (int cell = 0; cell < rows * columns; cell++) {
+            mRowOf[cell] = cell / columns;
+            mColumnOf[cell] = cell % columns;
+        }
+        mLineConflicts = new int[rows + columns];
+        mLineKeys = new int[rows + columns];
+        // A row has one position per col and a col has one position per row
+        mRowTable = getConflictTable(columns);
+        mColumnTable = getConflictTable(rows);
+        mRowKeyWeights = keyWeights(columns);
+        mColumnKeyWeights = keyWeights(rows);
+        int longestLine = Math.max(rows, columns);
+        mLineGoals = new int[longestLine];
+        mLisLengths = new int[longestLine];
+    }
+
+    @Override
+    public int estimate(short[] cells) {
+        int estimate = 0;
+        for (int cell = 0; cell < cells.length; cell++) {
+            int tile = cells[cell];
+            if (tile != mEmptyOrderIndex) {
+                estimate += manhattanDistance(tile, cell);
+            }
+        }
+        for (int row = 0; row < mRows; row++) {
+            if (mRowTable != null) {
+                mLineKeys[row] = rowKey(cells, row);
+                mLineConflicts[row] = mRowTable[mLineKeys[row]];
+            } else {
+                mLineConflicts[row] = rowConflicts(cells, row);
+            }
+            estimate += mLineConflicts[row];
+        }
+        for (int col = 0; col < mColumns; col++) {
+            int line = mRows + col;
+            if (mColumnTable != null) {
+                mLineKeys[line] = columnKey(cells, col);
+                mLineConflicts[line] = mColumnTable[mLineKeys[line]];
+            } else {
+                mLineConflicts[line] = columnConflicts(cells, col);
+            }
+            estimate += mLineConflicts[line];
+        }
+        return estimate;
+    }
+
+    @Override
+    public int update(short[] cells, int estimate, int tile, int fromCell, int toCell) {
+        estimate += manhattanDistance(tile, toCell) - manhattanDistance(tile, fromCell);
+        int goalRow = mRowOf[tile];
+        int goalColumn = mColumnOf[tile];
+        int fromRow = mRowOf[fromCell];
+        int fromColumn = mColumnOf[fromCell];
+        int toRow = mRowOf[toCell];
+        int toColumn = mColumnOf[toCell];
+        if (fromRow == toRow) {
+            // A horizontal move keeps the order of the tiles in the row, so its conflicts stay
+            // the same, but the key of the tile's goal row has to follow the tile
+            if (mRowTable != null && goalRow == fromRow) {
+                int weightChange = mRowKeyWeights[toColumn] - mRowKeyWeights[fromColumn];
+                mLineKeys[goalRow] += (goalColumn + 1) * weightChange;
+            }
+            // It changes the cols the tile left and entered, and only the tile's goal col counts
+            // it as a conflict candidate
+            if (goalColumn != fromColumn && goalColumn != toColumn) {
+                return estimate;
+            }
+            int line = mRows + goalColumn;
+            int conflicts;
+            if (mColumnTable != null) {
+                int code = (goalRow + 1) * mColumnKeyWeights[fromRow];
+                mLineKeys[line] += goalColumn == fromColumn ? -code : code;
+                conflicts = mColumnTable[mLineKeys[line]];
+            } else {
+                conflicts = columnConflicts(cells, goalColumn);
+            }
+            estimate += conflicts - mLineConflicts[line];
+            mLineConflicts[line] = conflicts;
+        } else {
+            if (mColumnTable != null && goalColumn == fromColumn) {
+                int weightChange = mColumnKeyWeights[toRow] - mColumnKeyWeights[fromRow];
+                mLineKeys[mRows + goalColumn] += (goalRow + 1) * weightChange;
+            }
+            if (goalRow != fromRow && goalRow != toRow) {
+                return estimate;
+            }
+            int conflicts;
+            if (mRowTable != null) {
+                int code = (goalColumn + 1) * mRowKeyWeights[fromColumn];
+                mLineKeys[goalRow] += goalRow == fromRow ? -code : code;
+                conflicts = mRowTable[mLineKeys[goalRow]];
+            } else {
+                conflicts = rowConflicts(cells, goalRow);
+            }
+            estimate += conflicts - mLineConflicts[goalRow];
+            mLineConflicts[goalRow] = conflicts;
+        }
+        return estimate;
+    }
+
+    private int manhattanDistance(int tile, int cell) {
+        return abs(mRowOf[tile] - mRowOf[cell]) + abs(mColumnOf[tile] - mColumnOf[cell]);
+    }
+
+    /**
+     * A row key has one base (cols + 1) digit per col: the goal col + 1 of the tile there if
+     * its goal row is this row, 0 otherwise
+     */
+    private int rowKey(short[] cells, int row) {
+        int key = 0;
+        for (int col = 0; col < mColumns; col++) {
+            int tile = cells[row * mColumns + col];
+            if (tile != mEmptyOrderIndex && mRowOf[tile] == row) {
+                key += (mColumnOf[tile] + 1) * mRowKeyWeights[col];
+            }
+        }
+        return key;
+    }
+
+    private int columnKey(short[] cells, int col) {
+        int key = 0;
+        for (int row = 0; row < mRows; row++) {
+            int tile = cells[row * mColumns + col];
+            if (tile != mEmptyOrderIndex && mColumnOf[tile] == col) {
+                key += (mRowOf[tile] + 1) * mColumnKeyWeights[row];
+            }
+        }
+        return key;
+    }
+
+    private int rowConflicts(short[] cells, int row) {
+        int count = 0;
+        int start = row * mColumns;
+        for (int col = 0; col < mColumns; col++) {
+            int tile = cells[start + col];
+            if (tile != mEmptyOrderIndex && mRowOf[tile] == row) {
+                mLineGoals[count++] = mColumnOf[tile];
+            }
+        }
+        return conflictCost(mLineGoals, mLisLengths, count);
+    }
+
+    private int columnConflicts(short[] cells, int col) {
+        int count = 0;
+        for (int cell = col; cell < cells.length; cell += mColumns) {
+            int tile = cells[cell];
+            if (tile != mEmptyOrderIndex && mColumnOf[tile] == col) {
+                mLineGoals[count++] = mRowOf[tile];
+            }
+        }
+        return conflictCost(mLineGoals, mLisLengths, count);
+    }
+
+    /**
+     * @param goals - the goal positions of the tiles in a line that belong to it, in line order
+     * @param lisLengths - scratch space at least as long as count
+     * @param count - how many goal positions there are
+     * @return two moves for every tile that is not part of the longest increasing run
+     */
+    private static int conflictCost(int[] goals, int[] lisLengths, int count) {
+        if (count < 2) {
+            return 0;
+        }
+        int longest = 0;
+        for (int i = 0; i < count; i++) {
+            int length = 1;
+            for (int j = 0; j < i; j++) {
+                if (goals[j] < goals[i] && lisLengths[j] + 1 > length) {
+                    length = lisLengths[j] + 1;
+                }
+            }
+            lisLengths[i] = length;
+            if (length > longest) {
+                longest = length;
+            }
+        }
+        return 2 * (count - longest);
+    }
+
+    private static int[] keyWeights(int lineLength) {
+        int[] weights = new int[lineLength];
+        int weight = 1;
+        for (int i = 0; i < lineLength; i++) {
+            weights[i] = weight;
+            weight *= lineLength + 1;
+        }
+        return weights;
+    }
+
+    /**
+     * @param lineLength - the number of cells in the line
+     * @return the conflict costs of every key of a line of that length, or null if the line is
+     * too long for a table
+     */
+    private static byte[] getConflictTable(int lineLength) {
+        if (lineLength > MAX_TABLE_LINE_LENGTH) {
+            return null;
+        }
+        synchronized (sConflictTables) {
+            if (sConflictTables[lineLength] == null) {
+                sConflictTables[lineLength] = buildConflictTable(lineLength);
+            }
+            return sConflictTables[lineLength];
+        }
+    }
+
+    private static byte[] buildConflictTable(int lineLength) {
+        int base = lineLength + 1;
+        int size = 1;
+        for (int i = 0; i < lineLength; i++) {
+            size *= base;
+        }
+        byte[] table = new byte[size];
+        int[] goals = new int[lineLength];
+        int[] lisLengths = new int[lineLength];
+        for (int key = 0; key < size; key++) {
+            int count = 0;
+            int digits = key;
+            for (int position = 0; position < lineLength; position++) {
+                int digit = digits % base;
+                digits /= base;
+                if (digit != 0) {
+                    goals[count++] = digit - 1;
+                }
+            }
+            table[key] = (byte) conflictCost(goals, lisLengths, count);
+        }
+        return table;
+    }
+}
@@ -0,0 +1,38 @@
+package com.mikeriv.ssui_2016.puzzlegame.solver;
+
+/**
+ * Counts the bytes a search allocates for its tables against a fixed limit. Only the sizes the
+ * tables ask for are counted, not what the VM reports, so a search over the same board runs
+ * out of budget at the same point every time.
+ */
+class MemoryBudget {
+
+    private final long mMaxBytes;
+    private long mAllocatedBytes;
+
+    /**
+     * @param maxBytes - the most bytes the tables may take up together
+     */
+    MemoryBudget(long maxBytes) {
+        mMaxBytes = maxBytes;
+    }
+
+    /**
+     * @return true if the bytes fit in the budget and were counted, false if they do not fit
+     */
+    boolean tryAllocate(long bytes) {
+        if (bytes > mMaxBytes - mAllocatedBytes) {
+            return false;
+        }
+        mAllocatedBytes += bytes;
+        return true;
+    }
+
+    void release(long bytes) {
+        mAllocatedBytes -= bytes;
+    }
+
+    long getAllocatedBytes() {
+        return mAllocatedBytes;
+    }
+}
@@ -0,0 +1,202 @@
+package com.mikeriv.ssui_2016.puzzlegame.solver;
+
+import com.mikeriv.ssui_2016.puzzlegame.model.Direction;
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameBoard;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Solves a single hard board on several threads. Every IDA* iteration first searches on the
+ * calling thread down to a fixed split depth, then searches below each node at that depth as a
+ * separate fork-join task with the same bound. Workers share the next bound and stop as soon as
+ * one of them finds a solution, which is optimal because all of them use the same bound.
+ */
+public class ParallelIdaStarSolver {
+
+    // Deep enough to give every worker many subtrees on a 4x4 board
+    public static final int DEFAULT_SPLIT_DEPTH = 8;
+
+    private final int mRows;
+    private final int mColumns;
+    private final ForkJoinPool mPool;
+    private final HeuristicFactory mHeuristicFactory;
+    private final int mSplitDepth;
+    private final ThreadLocal<IdaStarSolver> mWorkerSolvers;
+
+    /**
+     * @param rows - the rows of the boards to solve
+     * @param columns - the cols of the boards to solve
+     * @param pool - the pool to run subtree searches on
+     * @param heuristicFactory - creates one heuristic per worker thread
+     * @param splitDepth - the depth at which the search tree is split into tasks
+     */
+    public ParallelIdaStarSolver(
+            final int rows,
+            final int columns,
+            ForkJoinPool pool,
+            final HeuristicFactory heuristicFactory,
+            int splitDepth) {
+        if (splitDepth <= 0) {
+            throw new IllegalArgumentException("Split depth must be greater than 0");
+        }
+        mRows = rows;
+        mColumns = columns;
+        mPool = pool;
+        mHeuristicFactory = heuristicFactory;
+        mSplitDepth = splitDepth;
+        mWorkerSolvers = new ThreadLocal<IdaStarSolver>() {
+            @Override
+            protected IdaStarSolver initialValue() {
+                return new IdaStarSolver(rows, columns,
+                        heuristicFactory.createHeuristic(rows, columns));
+            }
+        };
+    }
+
+    /**
+     * Finds a shortest sequence of moves that solves the board. The board is not modified.
+     * @param board the board to solve; its empty tile must have the last order index
+     * @return the optimal solution, with the nodes expanded by all threads
+     * @throws IllegalArgumentException if the board does not match this solver or is unsolvable
+     */
+    public PuzzleSolution solve(PuzzleGameBoard board) {
+        long startNanos = System.nanoTime();
+        IdaStarSolver rootSolver = new IdaStarSolver(mRows, mColumns,
+                mHeuristicFactory.createHeuristic(mRows, mColumns));
+        int bound = rootSolver.prepare(board);
+        long expandedNodes = 0;
+        while (true) {
+            final List<FrontierNode> frontier = new ArrayList<>();
+            rootSolver.resetExpandedNodes();
+            int result = rootSolver.collectFrontier(bound, mSplitDepth,
+                    new IdaStarSolver.FrontierListener() {
+                        @Override
+                        public void onFrontierNode(
+                                short[] cells,
+                                int emptyCell,
+                                byte[] path,
+                                int depth,
+                                int previousDirection) {
+                            frontier.add(new FrontierNode(
+                                    cells.clone(), emptyCell, Arrays.copyOf(path, depth),
+                                    previousDirection));
+                        }
+                    });
+            expandedNodes += rootSolver.getExpandedNodes();
+            if (result == IdaStarSolver.FOUND) {
+                return new PuzzleSolution(rootSolver.getSolutionMoves(), expandedNodes,
+                        System.nanoTime() - startNanos, true);
+            }
+
+            IterationState iteration = new IterationState(result);
+            mPool.invoke(new SubtreeTask(frontier, 0, frontier.size(), bound, iteration));
+            expandedNodes += iteration.mExpandedNodes.get();
+            Direction[] moves = iteration.mSolution.get();
+            if (moves != null) {
+                return new PuzzleSolution(moves, expandedNodes,
+                        System.nanoTime() - startNanos, true);
+            }
+            bound = iteration.mNextBound.get();
+        }
+    }
+
+    /**
+     * A node at the split depth, copied out of the root search
+     */
+    private static class FrontierNode {
+        final short[] mCells;
+        final int mEmptyCell;
+        final byte[] mPath;
+        final int mPreviousDirection;
+
+        FrontierNode(short[] cells, int emptyCell, byte[] path, int previousDirection) {
+            mCells = cells;
+            mEmptyCell = emptyCell;
+            mPath = path;
+            mPreviousDirection = previousDirection;
+        }
+    }
+
+    /**
+     * What the workers of one iteration share
+     */
+    private static class IterationState {
+        final AtomicInteger mNextBound;
+        final AtomicBoolean mCancellation = new AtomicBoolean();
+        final AtomicReference<Direction[]> mSolution = new AtomicReference<>();
+        final AtomicLong mExpandedNodes = new AtomicLong();
+
+        IterationState(int rootNextBound) {
+            mNextBound = new AtomicInteger(rootNextBound);
+        }
+
+        void offerNextBound(int bound) {
+            int current = mNextBound.get();
+            while (bound < current && !mNextBound.compareAndSet(current, bound)) {
+                current = mNextBound.get();
+            }
+        }
+    }
+
+    /**
+     * Searches a range of frontier nodes, splitting it in half until a single node is left
+     */
+    private class SubtreeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<FrontierNode> mFrontier;
+        private final int mStart;
+        private final int mEnd;
+        private final int mBound;
+        private final IterationState mIteration;
+
+        SubtreeTask(
+                List<FrontierNode> frontier,
+                int start,
+                int end,
+                int bound,
+                IterationState iteration) {
+            mFrontier = frontier;
+            mStart = start;
+            mEnd = end;
+            mBound = bound;
+            mIteration = iteration;
+        }
+
+        @Override
+        protected void compute() {
+            if (mEnd - mStart > 1) {
+                int middle = (mStart + mEnd) >>> 1;
+                invokeAll(
+                        new SubtreeTask(mFrontier, mStart, middle, mBound, mIteration),
+                        new SubtreeTask(mFrontier, middle, mEnd, mBound, mIteration));
+                return;
+            }
+            if (mEnd == mStart || mIteration.mCancellation.get()) {
+                return;
+            }
+            FrontierNode node = mFrontier.get(mStart);
+            IdaStarSolver solver = mWorkerSolvers.get();
+            solver.setCancellation(mIteration.mCancellation);
+            solver.resetExpandedNodes();
+            int result = solver.searchSubtree(node.mCells, node.mEmptyCell, node.mPath,
+                    mSplitDepth, node.mPreviousDirection, mBound);
+            mIteration.mExpandedNodes.addAndGet(solver.getExpandedNodes());
+            if (result == IdaStarSolver.FOUND) {
+                if (mIteration.mSolution.compareAndSet(null, solver.getSolutionMoves())) {
+                    mIteration.mCancellation.set(true);
+                }
+            } else if (result != IdaStarSolver.CANCELLED) {
+                mIteration.offerNextBound(result);
+            }
+        }
+    }
+}
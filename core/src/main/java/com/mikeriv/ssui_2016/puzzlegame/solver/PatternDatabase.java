@@ -0,0 +1,186 @@
+package com.mikeriv.ssui_2016.puzzlegame.solver;
+
+import com.mikeriv.ssui_2016.puzzlegame.rank.LexicographicRanker;
+import com.mikeriv.ssui_2016.puzzlegame.rank.PermutationRanker;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A table of the fewest moves of a fixed set of tiles (the pattern) needed to bring them to their
+ * goal cells, for every placement of those tiles. Moves of other tiles are free, so the tables of
+ * disjoint patterns can be added together into an admissible estimate.
+ *
+ * Entries are indexed by the lexicographic rank of the pattern tiles' cells, one byte each. On
+ * disk a small header is followed by the raw entries, so a file can be memory-mapped and looked
+ * up in place without copying it onto the heap.
+ */
+public class PatternDatabase {
+
+    // Boards are limited to 64 cells so a set of cells fits in a long
+    public static final int MAX_CELL_COUNT = LexicographicRanker.MAX_ELEMENT_COUNT;
+
+    private static final int MAGIC = 0x505a4442; // "PZDB"
+    private static final int FORMAT_VERSION = 1;
+    // Magic, version, rows, cols and pattern size; followed by the pattern's tiles
+    private static final int HEADER_SIZE = 8;
+
+    private final int mRows;
+    private final int mColumns;
+    private final int[] mPatternTiles;
+    // Ranks the cells of the pattern tiles
+    private final LexicographicRanker mRanker;
+    private final ByteBuffer mEntries;
+
+    /**
+     * @param rows - the rows of the boards this database is for
+     * @param columns - the cols of the boards this database is for
+     * @param patternTiles - the order indices of the pattern's tiles
+     * @param entries - one entry per placement rank, read with absolute gets
+     */
+    public PatternDatabase(int rows, int columns, int[] patternTiles, ByteBuffer entries) {
+        int cellCount = rows * columns;
+        if (cellCount > MAX_CELL_COUNT) {
+            throw new IllegalArgumentException(
+                    "Pattern databases only support boards of up to " + MAX_CELL_COUNT + " cells");
+        }
+        if (patternTiles.length == 0 || patternTiles.length >= cellCount) {
+            throw new IllegalArgumentException("Pattern must hold some, but not all, tiles");
+        }
+        mRows = rows;
+        mColumns = columns;
+        mPatternTiles = patternTiles.clone();
+        mRanker = new LexicographicRanker(cellCount, patternTiles.length);
+        long size = mRanker.getRankCount();
+        if (entries.capacity() != size) {
+            throw new IllegalArgumentException("Entry count does not match the pattern");
+        }
+        mEntries = entries;
+    }
+
+    public int getRowsCount() {
+        return mRows;
+    }
+
+    public int getColumnsCount() {
+        return mColumns;
+    }
+
+    /**
+     * @return the order indices of the pattern's tiles
+     */
+    public int[] getPatternTiles() {
+        return mPatternTiles.clone();
+    }
+
+    /**
+     * @return the number of entries, i.e. placements of the pattern tiles
+     */
+    public int getEntryCount() {
+        return mEntries.capacity();
+    }
+
+    /**
+     * Ranks a placement of the pattern tiles in lexicographic order
+     * @param tileCells - the cell of each pattern tile, in pattern order
+     * @return the index of the placement's entry
+     */
+    public int rank(int[] tileCells) {
+        return (int) mRanker.rank(tileCells);
+    }
+
+    /**
+     * @param rank - the rank of a placement of the pattern tiles
+     * @return the fewest pattern tile moves needed to solve that placement
+     */
+    public int lookup(int rank) {
+        return mEntries.get(rank) & 0xFF;
+    }
+
+    /**
+     * Writes the database in the format read by map()
+     * @param file - the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void write(File file) throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            FileChannel channel = out.getChannel();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + mPatternTiles.length);
+            header.putInt(MAGIC)
+                    .put((byte) FORMAT_VERSION)
+                    .put((byte) mRows)
+                    .put((byte) mColumns)
+                    .put((byte) mPatternTiles.length);
+            for (int tile : mPatternTiles) {
+                header.put((byte) tile);
+            }
+            header.flip();
+            writeFully(channel, header);
+            ByteBuffer entries = mEntries.duplicate();
+            entries.clear();
+            writeFully(channel, entries);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Memory-maps a database written by write(). Only the header is read; entries are paged in
+     * by the OS on lookup and stay off the heap.
+     * @param file - the file to map
+     * @return the mapped database
+     * @throws IOException if the file cannot be read or is not a pattern database
+     */
+    public static PatternDatabase map(File file) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(channel, header, 0);
+            if (header.getInt(0) != MAGIC || header.get(4) != FORMAT_VERSION) {
+                throw new IOException("Not a pattern database file: " + file);
+            }
+            int rows = header.get(5);
+            int columns = header.get(6);
+            int tileCount = header.get(7);
+            ByteBuffer tileBuffer = ByteBuffer.allocate(tileCount);
+            readFully(channel, tileBuffer, HEADER_SIZE);
+            int[] patternTiles = new int[tileCount];
+            for (int i = 0; i < tileCount; i++) {
+                patternTiles[i] = tileBuffer.get(i);
+            }
+            long entriesStart = HEADER_SIZE + tileCount;
+            long entryCount = PermutationRanker.countPlacements(rows * columns, tileCount);
+            if (channel.size() != entriesStart + entryCount) {
+                throw new IOException("Pattern database file is truncated: " + file);
+            }
+            // The mapping stays valid after the channel is closed
+            ByteBuffer entries =
+                    channel.map(FileChannel.MapMode.READ_ONLY, entriesStart, entryCount);
+            return new PatternDatabase(rows, columns, patternTiles, entries);
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of pattern database file");
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.mikeriv.ssui_2016.puzzlegame.solver;
+
+import com.mikeriv.ssui_2016.puzzlegame.rank.LexicographicRanker;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Builds PatternDatabases with a breadth-first search backwards from the solved board. The search
+ * runs over placements of the pattern tiles plus the empty tile; moving a pattern tile costs one
+ * move and moving any other tile is free, so it is a 0-1 BFS. Each pattern placement's entry is
+ * then the minimum over all empty tile positions.
+ *
+ * This is meant to be run offline: a 7 tile pattern on a 4x4 board searches about 500 million
+ * states and needs a byte per state.
+ */
+public class PatternDatabaseGenerator {
+
+    private static final byte UNVISITED = (byte) 0xFF;
+    private static final int MAX_DEPTH = 0xFE;
+
+    private final int mRows;
+    private final int mColumns;
+    private final int mCellCount;
+    private final int[] mPatternTiles;
+    // Ranks the cells of the pattern tiles followed by the empty tile
+    private final LexicographicRanker mRanker;
+    // Scratch space for the state being expanded
+    private final int[] mTileCells;
+    private final int[] mPatternIndexAt;
+
+    /**
+     * @param rows - the rows of the boards to build the database for
+     * @param columns - the cols of the boards to build the database for
+     * @param patternTiles - the order indices of the pattern's tiles; must not include the
+     *                     empty tile, which has the last order index
+     */
+    public PatternDatabaseGenerator(int rows, int columns, int[] patternTiles) {
+        mRows = rows;
+        mColumns = columns;
+        mCellCount = rows * columns;
+        if (mCellCount > PatternDatabase.MAX_CELL_COUNT) {
+            throw new IllegalArgumentException("Board is too large for a pattern database");
+        }
+        for (int tile : patternTiles) {
+            if (tile < 0 || tile >= mCellCount - 1) {
+                throw new IllegalArgumentException("Pattern tile " + tile + " is not on the board");
+            }
+        }
+        mPatternTiles = patternTiles.clone();
+        mRanker = new LexicographicRanker(mCellCount, patternTiles.length + 1);
+        mTileCells = new int[patternTiles.length + 1];
+        mPatternIndexAt = new int[mCellCount];
+    }
+
+    /**
+     * Runs the search and builds the database on the heap
+     * @return the database, which can then be written to a file
+     */
+    public PatternDatabase generate() {
+        int tileCount = mPatternTiles.length;
+        long stateCount = mRanker.getRankCount();
+        if (stateCount > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Pattern is too large to search");
+        }
+        byte[] depths = new byte[(int) stateCount];
+        Arrays.fill(depths, UNVISITED);
+
+        // Start from the solved board: every pattern tile and the empty tile in its goal cell
+        for (int i = 0; i < tileCount; i++) {
+            mTileCells[i] = mPatternTiles[i];
+        }
+        mTileCells[tileCount] = mCellCount - 1;
+        IntQueue current = new IntQueue();
+        IntQueue next = new IntQueue();
+        int start = rank(mTileCells);
+        depths[start] = 0;
+        current.add(start);
+
+        int depth = 0;
+        while (!current.isEmpty()) {
+            if (depth >= MAX_DEPTH) {
+                throw new IllegalStateException("Pattern search exceeded the maximum depth");
+            }
+            // Free moves add states to the current layer while it is being processed
+            for (int i = 0; i < current.size(); i++) {
+                int state = current.get(i);
+                if (depths[state] == depth) {
+                    expand(state, depth, depths, current, next);
+                }
+            }
+            IntQueue processed = current;
+            current = next;
+            next = processed;
+            next.clear();
+            depth++;
+        }
+        return new PatternDatabase(mRows, mColumns, mPatternTiles, reduce(depths));
+    }
+
+    /**
+     * Visits every state one move of the empty tile away from state
+     */
+    private void expand(int state, int depth, byte[] depths, IntQueue current, IntQueue next) {
+        int tileCount = mPatternTiles.length;
+        unrank(state, mTileCells);
+        Arrays.fill(mPatternIndexAt, -1);
+        for (int i = 0; i < tileCount; i++) {
+            mPatternIndexAt[mTileCells[i]] = i;
+        }
+        int emptyCell = mTileCells[tileCount];
+        int emptyRow = emptyCell / mColumns;
+        int emptyColumn = emptyCell % mColumns;
+        for (int neighbor = 0; neighbor < 4; neighbor++) {
+            int row = emptyRow + (neighbor == 0 ? -1 : neighbor == 1 ? 1 : 0);
+            int col = emptyColumn + (neighbor == 2 ? -1 : neighbor == 3 ? 1 : 0);
+            if (row < 0 || row >= mRows || col < 0 || col >= mColumns) {
+                continue;
+            }
+            int cell = row * mColumns + col;
+            int patternIndex = mPatternIndexAt[cell];
+            if (patternIndex >= 0) {
+                mTileCells[patternIndex] = emptyCell;
+            }
+            mTileCells[tileCount] = cell;
+            int child = rank(mTileCells);
+            if (patternIndex >= 0) {
+                mTileCells[patternIndex] = cell;
+                if (depths[child] == UNVISITED) {
+                    depths[child] = (byte) (depth + 1);
+                    next.add(child);
+                }
+            } else if (depths[child] == UNVISITED || depths[child] == depth + 1) {
+                depths[child] = (byte) depth;
+                current.add(child);
+            }
+            mTileCells[tileCount] = emptyCell;
+        }
+    }
+
+    /**
+     * Takes the minimum over empty tile positions. The empty tile is ranked last, so the states
+     * of one pattern placement are consecutive.
+     */
+    private ByteBuffer reduce(byte[] depths) {
+        int emptyPositions = mCellCount - mPatternTiles.length;
+        byte[] entries = new byte[depths.length / emptyPositions];
+        for (int entry = 0; entry < entries.length; entry++) {
+            int min = UNVISITED & 0xFF;
+            int base = entry * emptyPositions;
+            for (int i = 0; i < emptyPositions; i++) {
+                min = Math.min(min, depths[base + i] & 0xFF);
+            }
+            entries[entry] = (byte) min;
+        }
+        return ByteBuffer.wrap(entries);
+    }
+
+    private int rank(int[] cells) {
+        return (int) mRanker.rank(cells);
+    }
+
+    private void unrank(int rank, int[] cells) {
+        mRanker.unrank(rank, cells);
+    }
+
+    /**
+     * A growable list of ints, used as a BFS layer without boxing
+     */
+    private static class IntQueue {
+        private int[] mValues = new int[1024];
+        private int mSize;
+
+        void add(int value) {
+            if (mSize == mValues.length) {
+                mValues = Arrays.copyOf(mValues, mValues.length * 2);
+            }
+            mValues[mSize++] = value;
+        }
+
+        int get(int index) {
+            return mValues[index];
+        }
+
+        int size() {
+            return mSize;
+        }
+
+        boolean isEmpty() {
+            return mSize == 0;
+        }
+
+        void clear() {
+            mSize = 0;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.mikeriv.ssui_2016.puzzlegame.solver;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Adds up the entries of disjoint pattern databases. Together the patterns must cover every tile
+ * except the empty one, so the estimate is 0 only for the solved board. A move only changes the
+ * entry of the pattern the moving tile belongs to, so update() re-ranks just that pattern.
+ */
+public class PatternDatabaseHeuristic implements Heuristic {
+
+    // A 6-6-3 partition of the 15 tiles of a 4x4 board: the left three of the top row, the left
+    // half of the rest of the board and the right half
+    public static final int[][] PARTITION_4X4_663 = {
+            {0, 1, 2},
+            {4, 5, 8, 9, 12, 13},
+            {3, 6, 7, 10, 11, 14}
+    };
+
+    private final PatternDatabase[] mDatabases;
+    // For each order index, the database the tile belongs to, or -1 for the empty tile
+    private final int[] mDatabaseOf;
+    // For each order index, the tile's index within its database's pattern
+    private final int[] mPatternIndexOf;
+    // The current cell of every pattern tile, per database
+    private final int[][] mTileCells;
+    // The current entry of every database
+    private final int[] mEntries;
+
+    /**
+     * @param databases - databases for the same board size whose patterns partition the tiles
+     * @throws IllegalArgumentException if the patterns overlap or do not cover every tile
+     */
+    public PatternDatabaseHeuristic(PatternDatabase... databases) {
+        if (databases.length == 0) {
+            throw new IllegalArgumentException("At least one pattern database is required");
+        }
+        int rows = databases[0].getRowsCount();
+        int columns = databases[0].getColumnsCount();
+        int tileCount = rows * columns;
+        mDatabases = databases.clone();
+        mDatabaseOf = new int[tileCount];
+        mPatternIndexOf = new int[tileCount];
+        mTileCells = new int[databases.length][];
+        mEntries = new int[databases.length];
+        Arrays.fill(mDatabaseOf, -1);
+        int covered = 0;
+        for (int d = 0; d < databases.length; d++) {
+            if (databases[d].getRowsCount() != rows || databases[d].getColumnsCount() != columns) {
+                throw new IllegalArgumentException("Pattern databases are for different boards");
+            }
+            int[] pattern = databases[d].getPatternTiles();
+            mTileCells[d] = new int[pattern.length];
+            for (int i = 0; i < pattern.length; i++) {
+                if (mDatabaseOf[pattern[i]] != -1) {
+                    throw new IllegalArgumentException(
+                            "Tile " + pattern[i] + " is in two patterns");
+                }
+                mDatabaseOf[pattern[i]] = d;
+                mPatternIndexOf[pattern[i]] = i;
+                covered++;
+            }
+        }
+        if (covered != tileCount - 1) {
+            throw new IllegalArgumentException("Patterns must cover every non-empty tile");
+        }
+    }
+
+    /**
+     * Memory-maps pattern database files written by PatternDatabase.write(). Nothing but the file
+     * headers is read up front; entries are paged in as the search touches them.
+     * @param files - the database files, one per pattern
+     * @return a heuristic backed by the mapped databases
+     * @throws IOException if a file cannot be mapped
+     */
+    public static PatternDatabaseHeuristic map(File... files) throws IOException {
+        PatternDatabase[] databases = new PatternDatabase[files.length];
+        for (int i = 0; i < files.length; i++) {
+            databases[i] = PatternDatabase.map(files[i]);
+        }
+        return new PatternDatabaseHeuristic(databases);
+    }
+
+    /**
+     * Generates the databases of a partition on the heap; see PatternDatabaseGenerator
+     * @param rows - the rows of the boards to estimate
+     * @param columns - the cols of the boards to estimate
+     * @param partition - the tiles of each pattern
+     * @return a heuristic backed by the generated databases
+     */
+    public static PatternDatabaseHeuristic generate(int rows, int columns, int[][] partition) {
+        PatternDatabase[] databases = new PatternDatabase[partition.length];
+        for (int i = 0; i < partition.length; i++) {
+            databases[i] = new PatternDatabaseGenerator(rows, columns, partition[i]).generate();
+        }
+        return new PatternDatabaseHeuristic(databases);
+    }
+
+    /**
+     * @return a factory for heuristics that share this heuristic's databases
+     */
+    public HeuristicFactory asFactory() {
+        return new HeuristicFactory() {
+            @Override
+            public Heuristic createHeuristic(int rows, int columns) {
+                return new PatternDatabaseHeuristic(mDatabases);
+            }
+        };
+    }
+
+    @Override
+    public int estimate(short[] cells) {
+        for (int cell = 0; cell < cells.length; cell++) {
+            int tile = cells[cell];
+            int database = mDatabaseOf[tile];
+            if (database >= 0) {
+                mTileCells[database][mPatternIndexOf[tile]] = cell;
+            }
+        }
+        int estimate = 0;
+        for (int d = 0; d < mDatabases.length; d++) {
+            mEntries[d] = mDatabases[d].lookup(mDatabases[d].rank(mTileCells[d]));
+            estimate += mEntries[d];
+        }
+        return estimate;
+    }
+
+    @Override
+    public int update(short[] cells, int estimate, int tile, int fromCell, int toCell) {
+        int database = mDatabaseOf[tile];
+        mTileCells[database][mPatternIndexOf[tile]] = toCell;
+        int entry = mDatabases[database].lookup(mDatabases[database].rank(mTileCells[database]));
+        estimate += entry - mEntries[database];
+        mEntries[database] = entry;
+        return estimate;
+    }
+}
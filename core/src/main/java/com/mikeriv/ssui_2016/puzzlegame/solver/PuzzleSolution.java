@@ -0,0 +1,80 @@
+package com.mikeriv.ssui_2016.puzzlegame.solver;
+
+import com.mikeriv.ssui_2016.puzzlegame.model.Direction;
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameBoard;
+
+/**
+ * The result of solving a PuzzleGameBoard: the tile slides that solve it, in order, along with
+ * how much work the solver did to find them.
+ */
+public class PuzzleSolution {
+
+    private final Direction[] mMoves;
+    private final long mExpandedNodes;
+    private final long mElapsedNanos;
+    private final boolean mIsOptimal;
+
+    public PuzzleSolution(
+            Direction[] moves,
+            long expandedNodes,
+            long elapsedNanos,
+            boolean isOptimal) {
+        mMoves = moves;
+        mExpandedNodes = expandedNodes;
+        mElapsedNanos = elapsedNanos;
+        mIsOptimal = isOptimal;
+    }
+
+    /**
+     * @return the directions to slide tiles in, in order, passing each to PuzzleGameBoard.move
+     */
+    public Direction[] getMoves() {
+        return mMoves.clone();
+    }
+
+    /**
+     * @param index the index of the move
+     * @return the direction of the move at index
+     */
+    public Direction getMove(int index) {
+        return mMoves[index];
+    }
+
+    public int getMoveCount() {
+        return mMoves.length;
+    }
+
+    /**
+     * @return how many search nodes the solver expanded
+     */
+    public long getExpandedNodes() {
+        return mExpandedNodes;
+    }
+
+    /**
+     * @return the wall time spent solving, in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return mElapsedNanos;
+    }
+
+    /**
+     * @return true if no shorter solution exists
+     */
+    public boolean isOptimal() {
+        return mIsOptimal;
+    }
+
+    /**
+     * Plays every move of this solution on the board
+     * @param board the board this solution was computed for
+     * @throws IllegalStateException if a move cannot be made on the board
+     */
+    public void applyTo(PuzzleGameBoard board) {
+        for (Direction move : mMoves) {
+            if (!board.move(move)) {
+                throw new IllegalStateException("Solution does not match the board");
+            }
+        }
+    }
+}
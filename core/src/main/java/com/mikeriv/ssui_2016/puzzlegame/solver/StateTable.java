@@ -0,0 +1,268 @@
+package com.mikeriv.ssui_2016.puzzlegame.solver;
+
+import java.util.Arrays;
+
+/**
+ * The nodes of a best-first search, keyed by their packed cells. Nodes are stored in parallel
+ * primitive arrays and numbered in the order they are added, so parent links stay valid when
+ * the tables grow; an open-addressing index of node numbers with linear probing finds a node by
+ * its key. Each cell takes just enough bits for the largest order index, so a 5x5 board is two
+ * longs. Growing the tables is charged to a MemoryBudget and fails once it is used up.
+ */
+class StateTable {
+
+    // Returned by find() when there is no node with the key and by add() when out of budget
+    static final int NO_NODE = -1;
+
+    private static final int INITIAL_NODE_CAPACITY = 1024;
+    private static final int NO_MOVE = 0x7F;
+    private static final int CLOSED_FLAG = 0x80;
+    private static final int MOVE_MASK = 0x7F;
+
+    private final int mCellCount;
+    private final int mBitsPerCell;
+    private final int mWordsPerKey;
+    private final MemoryBudget mBudget;
+
+    // Node number + 1 in each slot, 0 for an empty slot; the length is a power of two
+    private int[] mSlots;
+    private long[] mKeys;
+    private int[] mCosts;
+    private int[] mParents;
+    // The direction ordinal of the move into each node, with CLOSED_FLAG once it is expanded
+    private byte[] mMoves;
+    private int mNodeCount;
+
+    /**
+     * @param cellCount - the cells of the boards searched
+     * @param budget - charged for every allocation of the tables
+     */
+    StateTable(int cellCount, MemoryBudget budget) {
+        mCellCount = cellCount;
+        mBitsPerCell = Math.max(1, 32 - Integer.numberOfLeadingZeros(cellCount - 1));
+        mWordsPerKey = (cellCount * mBitsPerCell + Long.SIZE - 1) / Long.SIZE;
+        mBudget = budget;
+        mSlots = new int[0];
+        mKeys = new long[0];
+        mCosts = new int[0];
+        mParents = new int[0];
+        mMoves = new byte[0];
+    }
+
+    int getWordsPerKey() {
+        return mWordsPerKey;
+    }
+
+    int size() {
+        return mNodeCount;
+    }
+
+    /**
+     * Packs cells into a key
+     * @param outKey - receives the key in its first getWordsPerKey() words
+     */
+    void pack(short[] cells, long[] outKey) {
+        Arrays.fill(outKey, 0, mWordsPerKey, 0L);
+        long bit = 0;
+        for (int cell = 0; cell < mCellCount; cell++, bit += mBitsPerCell) {
+            int word = (int) (bit >>> 6);
+            int shift = (int) (bit & 63);
+            long value = cells[cell];
+            outKey[word] |= value << shift;
+            if (shift + mBitsPerCell > Long.SIZE) {
+                outKey[word + 1] |= value >>> (Long.SIZE - shift);
+            }
+        }
+    }
+
+    /**
+     * Unpacks the cells of a node
+     * @return the cell of the empty tile, which has the last order index
+     */
+    int unpack(int node, short[] outCells) {
+        long mask = (1L << mBitsPerCell) - 1;
+        int base = node * mWordsPerKey;
+        int emptyCell = -1;
+        long bit = 0;
+        for (int cell = 0; cell < mCellCount; cell++, bit += mBitsPerCell) {
+            int word = base + (int) (bit >>> 6);
+            int shift = (int) (bit & 63);
+            long value = mKeys[word] >>> shift;
+            if (shift + mBitsPerCell > Long.SIZE) {
+                value |= mKeys[word + 1] << (Long.SIZE - shift);
+            }
+            outCells[cell] = (short) (value & mask);
+            if (outCells[cell] == mCellCount - 1) {
+                emptyCell = cell;
+            }
+        }
+        return emptyCell;
+    }
+
+    /**
+     * @return the node with the key, or NO_NODE
+     */
+    int find(long[] key) {
+        if (mSlots.length == 0) {
+            return NO_NODE;
+        }
+        int mask = mSlots.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int entry = mSlots[slot];
+            if (entry == 0) {
+                return NO_NODE;
+            }
+            if (keyEquals(entry - 1, key)) {
+                return entry - 1;
+            }
+        }
+    }
+
+    /**
+     * Adds a node that is not in the table yet
+     * @param key - the packed cells of the node
+     * @param cost - the number of moves to the node
+     * @param parent - the node it was reached from, or NO_NODE for a root
+     * @param move - the direction ordinal of the move from the parent
+     * @return the new node, or NO_NODE if the tables cannot grow within the budget
+     */
+    int add(long[] key, int cost, int parent, int move) {
+        if (mNodeCount == mCosts.length && !growNodes()) {
+            return NO_NODE;
+        }
+        // Keep the index at most half full
+        if ((mNodeCount + 1) * 2 > mSlots.length && !growSlots()) {
+            return NO_NODE;
+        }
+        int node = mNodeCount++;
+        System.arraycopy(key, 0, mKeys, node * mWordsPerKey, mWordsPerKey);
+        mCosts[node] = cost;
+        mParents[node] = parent;
+        mMoves[node] = (byte) (parent == NO_NODE ? NO_MOVE : move);
+        insertSlot(node);
+        return node;
+    }
+
+    int getCost(int node) {
+        return mCosts[node];
+    }
+
+    int getParent(int node) {
+        return mParents[node];
+    }
+
+    /**
+     * @return the direction ordinal of the move into the node; only valid if it has a parent
+     */
+    int getMove(int node) {
+        return mMoves[node] & MOVE_MASK;
+    }
+
+    boolean isClosed(int node) {
+        return (mMoves[node] & CLOSED_FLAG) != 0;
+    }
+
+    void close(int node) {
+        mMoves[node] |= (byte) CLOSED_FLAG;
+    }
+
+    /**
+     * Links a node to a cheaper path and opens it again
+     */
+    void reparent(int node, int cost, int parent, int move) {
+        mCosts[node] = cost;
+        mParents[node] = parent;
+        mMoves[node] = (byte) move;
+    }
+
+    /**
+     * Gives back everything the tables took from the budget
+     */
+    void release() {
+        mBudget.release(slotBytes(mSlots.length) + nodeBytes(mCosts.length));
+        mSlots = new int[0];
+        mKeys = new long[0];
+        mCosts = new int[0];
+        mParents = new int[0];
+        mMoves = new byte[0];
+        mNodeCount = 0;
+    }
+
+    private boolean growNodes() {
+        int capacity = Math.max(INITIAL_NODE_CAPACITY, mCosts.length * 2);
+        if (!mBudget.tryAllocate(nodeBytes(capacity) - nodeBytes(mCosts.length))) {
+            return false;
+        }
+        mKeys = Arrays.copyOf(mKeys, capacity * mWordsPerKey);
+        mCosts = Arrays.copyOf(mCosts, capacity);
+        mParents = Arrays.copyOf(mParents, capacity);
+        mMoves = Arrays.copyOf(mMoves, capacity);
+        return true;
+    }
+
+    private boolean growSlots() {
+        int length = Math.max(INITIAL_NODE_CAPACITY * 2, mSlots.length * 2);
+        if (!mBudget.tryAllocate(slotBytes(length) - slotBytes(mSlots.length))) {
+            return false;
+        }
+        mSlots = new int[length];
+        for (int node = 0; node < mNodeCount; node++) {
+            insertSlot(node);
+        }
+        return true;
+    }
+
+    private void insertSlot(int node) {
+        int mask = mSlots.length - 1;
+        int slot = hashAt(node) & mask;
+        while (mSlots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        mSlots[slot] = node + 1;
+    }
+
+    private boolean keyEquals(int node, long[] key) {
+        int base = node * mWordsPerKey;
+        for (int i = 0; i < mWordsPerKey; i++) {
+            if (mKeys[base + i] != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int hash(long[] key) {
+        long hash = 0;
+        for (int i = 0; i < mWordsPerKey; i++) {
+            hash = mix(hash ^ key[i]);
+        }
+        return (int) hash;
+    }
+
+    private int hashAt(int node) {
+        long hash = 0;
+        int base = node * mWordsPerKey;
+        for (int i = 0; i < mWordsPerKey; i++) {
+            hash = mix(hash ^ mKeys[base + i]);
+        }
+        return (int) hash;
+    }
+
+    /**
+     * The finalizer of SplitMix64, so that keys differing in a few cells spread over the index
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private long nodeBytes(int capacity) {
+        // Key words, cost, parent and move of each node
+        return (long) capacity * (mWordsPerKey * 8L + 4 + 4 + 1);
+    }
+
+    private static long slotBytes(int length) {
+        return length * 4L;
+    }
+}
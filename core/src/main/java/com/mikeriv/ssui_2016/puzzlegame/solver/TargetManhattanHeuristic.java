@@ -0,0 +1,54 @@
+package com.mikeriv.ssui_2016.puzzlegame.solver;
+
+import static java.lang.Math.abs;
+
+/**
+ * The Manhattan distance of every tile to its cell on a given target board rather than the
+ * solved board, so that a backward search from the solved board can be guided towards the board
+ * being solved.
+ */
+class TargetManhattanHeuristic implements Heuristic {
+
+    private final int mColumns;
+    private final int mEmptyOrderIndex;
+    // The row and col of each tile on the target board
+    private final int[] mTargetRows;
+    private final int[] mTargetColumns;
+
+    /**
+     * @param columns - the cols of the boards to estimate
+     * @param target - the cells of the target board
+     */
+    TargetManhattanHeuristic(int columns, short[] target) {
+        mColumns = columns;
+        mEmptyOrderIndex = target.length - 1;
+        mTargetRows = new int[target.length];
+        mTargetColumns = new int[target.length];
+        for (int cell = 0; cell < target.length; cell++) {
+            mTargetRows[target[cell]] = cell / columns;
+            mTargetColumns[target[cell]] = cell % columns;
+        }
+    }
+
+    @Override
+    public int estimate(short[] cells) {
+        int estimate = 0;
+        for (int cell = 0; cell < cells.length; cell++) {
+            int tile = cells[cell];
+            if (tile != mEmptyOrderIndex) {
+                estimate += distance(tile, cell);
+            }
+        }
+        return estimate;
+    }
+
+    @Override
+    public int update(short[] cells, int estimate, int tile, int fromCell, int toCell) {
+        return estimate - distance(tile, fromCell) + distance(tile, toCell);
+    }
+
+    private int distance(int tile, int cell) {
+        return abs(cell / mColumns - mTargetRows[tile])
+                + abs(cell % mColumns - mTargetColumns[tile]);
+    }
+}
@@ -0,0 +1,192 @@
+package com.mikeriv.ssui_2016.puzzlegame.stats;
+
+import java.util.Arrays;
+
+/**
+ * Counts non-negative long values, e.g. latencies in nanoseconds or moves per game, in buckets
+ * whose width grows with the value, the way HdrHistogram does. Values below 2^precisionBits
+ * get a bucket each; above that, every power of two range is split into 2^precisionBits
+ * buckets, so a value is known to within 1 / 2^precisionBits of itself. Recording is a few
+ * shifts and an array increment, and never allocates.
+ *
+ * A histogram is not thread-safe. Threads keep their own and add them together when done.
+ */
+public class Histogram {
+
+    private final int mPrecisionBits;
+    private final long mHighestTrackableValue;
+    private final long[] mCounts;
+    private long mTotalCount;
+    private long mSum;
+    private long mMin = Long.MAX_VALUE;
+    private long mMax = 0;
+
+    /**
+     * @param highestTrackableValue - larger values are counted as this value
+     * @param precisionBits - how finely values are bucketed, 1 to 16; 7 keeps values to
+     *                      within 1%
+     */
+    public Histogram(long highestTrackableValue, int precisionBits) {
+        if (highestTrackableValue < 1) {
+            throw new IllegalArgumentException("Highest trackable value must be positive");
+        }
+        if (precisionBits < 1 || precisionBits > 16) {
+            throw new IllegalArgumentException("Precision must be 1 to 16 bits");
+        }
+        mPrecisionBits = precisionBits;
+        mHighestTrackableValue = highestTrackableValue;
+        mCounts = new long[getBucketIndex(highestTrackableValue) + 1];
+    }
+
+    /**
+     * @param value - the value to count, clamped to 0 to the highest trackable value
+     */
+    public void record(long value) {
+        record(value, 1);
+    }
+
+    /**
+     * @param value - the value to count, clamped to 0 to the highest trackable value
+     * @param count - how many times to count it
+     */
+    public void record(long value, long count) {
+        if (value < 0) {
+            value = 0;
+        } else if (value > mHighestTrackableValue) {
+            value = mHighestTrackableValue;
+        }
+        mCounts[getBucketIndex(value)] += count;
+        mTotalCount += count;
+        mSum += value * count;
+        if (value < mMin) {
+            mMin = value;
+        }
+        if (value > mMax) {
+            mMax = value;
+        }
+    }
+
+    /**
+     * Adds the counts of another histogram to this one
+     * @param other - a histogram with the same range and precision
+     * @throws IllegalArgumentException if the histograms are bucketed differently
+     */
+    public void add(Histogram other) {
+        if (other.mPrecisionBits != mPrecisionBits
+                || other.mHighestTrackableValue != mHighestTrackableValue) {
+            throw new IllegalArgumentException("Histograms have different buckets");
+        }
+        for (int i = 0; i < mCounts.length; i++) {
+            mCounts[i] += other.mCounts[i];
+        }
+        mTotalCount += other.mTotalCount;
+        mSum += other.mSum;
+        mMin = Math.min(mMin, other.mMin);
+        mMax = Math.max(mMax, other.mMax);
+    }
+
+    /**
+     * Forgets every value
+     */
+    public void reset() {
+        Arrays.fill(mCounts, 0);
+        mTotalCount = 0;
+        mSum = 0;
+        mMin = Long.MAX_VALUE;
+        mMax = 0;
+    }
+
+    public long getTotalCount() {
+        return mTotalCount;
+    }
+
+    /**
+     * @return the smallest value recorded, or 0 if there is none
+     */
+    public long getMin() {
+        return mTotalCount == 0 ? 0 : mMin;
+    }
+
+    /**
+     * @return the largest value recorded, or 0 if there is none
+     */
+    public long getMax() {
+        return mMax;
+    }
+
+    /**
+     * @return the mean of the values recorded, or 0 if there is none
+     */
+    public double getMean() {
+        return mTotalCount == 0 ? 0 : (double) mSum / mTotalCount;
+    }
+
+    /**
+     * @param percentile - 0 to 100
+     * @return the largest value of the bucket holding the value at that percentile, at most
+     * getMax(), or 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (mTotalCount == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * mTotalCount));
+        long seen = 0;
+        for (int i = 0; i < mCounts.length; i++) {
+            seen += mCounts[i];
+            if (seen >= rank) {
+                return Math.min(getBucketHighValue(i), mMax);
+            }
+        }
+        return mMax;
+    }
+
+    /**
+     * @return how many buckets the histogram has, for walking through them
+     */
+    public int getBucketCount() {
+        return mCounts.length;
+    }
+
+    /**
+     * @param bucketIndex - a bucket, 0 to getBucketCount() - 1
+     * @return how many values fell in the bucket
+     */
+    public long getCountAtBucket(int bucketIndex) {
+        return mCounts[bucketIndex];
+    }
+
+    /**
+     * @param bucketIndex - a bucket, 0 to getBucketCount() - 1
+     * @return the smallest value the bucket holds
+     */
+    public long getBucketLowValue(int bucketIndex) {
+        int group = bucketIndex >>> mPrecisionBits;
+        long subBucket = bucketIndex & ((1 << mPrecisionBits) - 1);
+        if (group == 0) {
+            return subBucket;
+        }
+        return ((1L << mPrecisionBits) + subBucket) << (group - 1);
+    }
+
+    /**
+     * @param bucketIndex - a bucket, 0 to getBucketCount() - 1
+     * @return the largest value the bucket holds
+     */
+    public long getBucketHighValue(int bucketIndex) {
+        int group = bucketIndex >>> mPrecisionBits;
+        long width = group == 0 ? 1 : 1L << (group - 1);
+        return getBucketLowValue(bucketIndex) + width - 1;
+    }
+
+    private int getBucketIndex(long value) {
+        int highestBit = 63 - Long.numberOfLeadingZeros(value);
+        if (highestBit < mPrecisionBits) {
+            // Small values are counted exactly, in group 0
+            return (int) value;
+        }
+        int shift = highestBit - mPrecisionBits;
+        return ((shift + 1) << mPrecisionBits)
+                + (int) ((value >>> shift) - (1L << mPrecisionBits));
+    }
+}
@@ -0,0 +1,71 @@
+package com.mikeriv.ssui_2016.puzzlegame.metrics;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.Assert.*;
+
+public class FrameStatsTest {
+
+    private static final long FRAME_NANOS = 16666667L;
+
+    @Test(expected=IllegalArgumentException.class)
+    public void constructor_rejectsZeroInterval() throws Exception {
+        new FrameStats(0);
+    }
+
+    @Test
+    public void getDroppedFrameCount_roundsToTheNearestDeadline() throws Exception {
+        FrameStats stats = new FrameStats(FRAME_NANOS);
+        assertEquals(0, stats.getDroppedFrameCount(FRAME_NANOS));
+        assertEquals(0, stats.getDroppedFrameCount(FRAME_NANOS * 14 / 10));
+        assertEquals(1, stats.getDroppedFrameCount(FRAME_NANOS * 16 / 10));
+        assertEquals(2, stats.getDroppedFrameCount(FRAME_NANOS * 3));
+        assertEquals(0, stats.getDroppedFrameCount(0));
+    }
+
+    @Test
+    public void recordFrame_keepsBoardSizesAndInteractionsApart() throws Exception {
+        FrameStats stats = new FrameStats(FRAME_NANOS);
+        for (int i = 0; i < 10; i++) {
+            stats.recordFrame(4, 4, Interaction.IDLE, FRAME_NANOS);
+        }
+        stats.recordFrame(4, 4, Interaction.TILE_TAP, FRAME_NANOS * 4);
+        stats.recordFrame(8, 8, Interaction.TILE_TAP, FRAME_NANOS);
+
+        assertEquals(10, stats.getFrameCount(4, 4, Interaction.IDLE));
+        assertEquals(0, stats.getJankyFrameCount(4, 4, Interaction.IDLE));
+        assertEquals(1, stats.getFrameCount(4, 4, Interaction.TILE_TAP));
+        assertEquals(1, stats.getJankyFrameCount(4, 4, Interaction.TILE_TAP));
+        assertEquals(3, stats.getDroppedFrameCount(4, 4, Interaction.TILE_TAP));
+        assertEquals(1, stats.getFrameCount(8, 8, Interaction.TILE_TAP));
+        assertEquals(0, stats.getJankyFrameCount(8, 8, Interaction.TILE_TAP));
+        assertEquals(0, stats.getFrameCount(8, 8, Interaction.NEW_GAME));
+        assertEquals(0, stats.getFrameCount(3, 3, Interaction.IDLE));
+        long p50 = stats.getFrameNanosAtPercentile(4, 4, Interaction.IDLE, 50);
+        assertTrue(Math.abs(p50 - FRAME_NANOS) <= FRAME_NANOS / 32);
+    }
+
+    @Test
+    public void writeCsv_writesEverySeries() throws Exception {
+        FrameStats stats = new FrameStats(FRAME_NANOS);
+        stats.recordFrame(4, 4, Interaction.IDLE, FRAME_NANOS);
+        stats.recordFrame(5, 6, Interaction.WIN_DIALOG, FRAME_NANOS * 3);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, true, "UTF-8");
+        stats.writeCsv(out, "1.0");
+        String[] lines = bytes.toString("UTF-8").split("\n");
+
+        assertEquals("build,board,interaction,kind,name,low,high,value", lines[0]);
+        String csv = bytes.toString("UTF-8");
+        assertTrue(csv.contains("1.0,4x4,idle,summary,frames,,,1\n"));
+        assertTrue(csv.contains("1.0,5x6,win_dialog,summary,janky_frames,,,1\n"));
+        assertTrue(csv.contains("1.0,5x6,win_dialog,summary,dropped_frames,,,2\n"));
+        assertTrue(csv.contains("1.0,5x6,win_dialog,bucket,frame_nanos,"));
+        for (String line : lines) {
+            assertEquals(8, line.split(",", -1).length);
+        }
+    }
+}
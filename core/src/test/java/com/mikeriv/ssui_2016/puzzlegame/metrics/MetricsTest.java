@@ -0,0 +1,92 @@
+package com.mikeriv.ssui_2016.puzzlegame.metrics;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MetricsTest {
+
+    @After
+    public void tearDown() throws Exception {
+        Metrics.setEnabled(false);
+        Metrics.setTraceListener(null);
+        Metrics.reset();
+    }
+
+    @Test
+    public void disabled_recordsNothing() throws Exception {
+        Counter counter = Metrics.counter("test_disabled_counter");
+        Timer timer = Metrics.timer("test_disabled_timer");
+        counter.increment();
+        long start = timer.start();
+        timer.stop(start);
+        timer.record(1000);
+        assertEquals(0, start);
+        assertEquals(0, counter.getCount());
+        assertEquals(0, timer.getCount());
+    }
+
+    @Test
+    public void enabled_recordsCountsAndDurations() throws Exception {
+        Metrics.setEnabled(true);
+        Counter counter = Metrics.counter("test_counter");
+        Timer timer = Metrics.timer("test_timer");
+        counter.increment();
+        counter.add(4);
+        for (int i = 1; i <= 100; i++) {
+            timer.record(i * 1000000L);
+        }
+        assertEquals(5, counter.getCount());
+        assertEquals(100, timer.getCount());
+        long p50 = timer.getNanosAtPercentile(50);
+        long p99 = timer.getNanosAtPercentile(99);
+        assertTrue(Math.abs(p50 - 50000000L) <= 50000000L / 32);
+        assertTrue(Math.abs(p99 - 99000000L) <= 99000000L / 32);
+    }
+
+    @Test
+    public void counterAndTimer_areSharedByName() throws Exception {
+        assertSame(Metrics.counter("test_shared"), Metrics.counter("test_shared"));
+        assertSame(Metrics.timer("test_shared"), Metrics.timer("test_shared"));
+    }
+
+    @Test
+    public void startAndStop_emitTraceSections() throws Exception {
+        final List<String> events = new ArrayList<>();
+        Metrics.setTraceListener(new TraceListener() {
+            @Override
+            public void beginSection(String name) {
+                events.add("begin " + name);
+            }
+
+            @Override
+            public void endSection() {
+                events.add("end");
+            }
+        });
+        Timer timer = Metrics.timer("test_traced");
+        timer.stop(timer.start());
+        assertTrue(events.isEmpty());
+
+        Metrics.setEnabled(true);
+        timer.stop(timer.start());
+        assertEquals(2, events.size());
+        assertEquals("begin test_traced", events.get(0));
+        assertEquals("end", events.get(1));
+        assertEquals(1, timer.getCount());
+    }
+
+    @Test
+    public void dump_listsEveryMetric() throws Exception {
+        Metrics.setEnabled(true);
+        Metrics.counter("test_dump_counter").add(3);
+        Metrics.timer("test_dump_timer").record(2000000L);
+        String dump = Metrics.dump();
+        assertTrue(dump.contains("test_dump_counter: 3"));
+        assertTrue(dump.contains("test_dump_timer: count=1"));
+    }
+}
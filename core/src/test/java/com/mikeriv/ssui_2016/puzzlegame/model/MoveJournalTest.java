@@ -0,0 +1,96 @@
+package com.mikeriv.ssui_2016.puzzlegame.model;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MoveJournalTest {
+
+    private static PuzzleGameBoard newSolvedBoard(int rows, int columns) {
+        PuzzleGameBoard board = new PuzzleGameBoard(rows, columns);
+        board.resetToSolved();
+        return board;
+    }
+
+    @Test
+    public void undoAndRedo_walkTheRecordedMoves() throws Exception {
+        PuzzleGameBoard board = newSolvedBoard(3, 3);
+        MoveJournal journal = new MoveJournal();
+        board.setMoveJournal(journal);
+        assertEquals(2, board.slide(0, 2));
+        assertTrue(board.move(Direction.RIGHT));
+        assertFalse(board.move(Direction.DOWN));
+        assertEquals(3, journal.size());
+        assertEquals("DDR", journal.toMoveString());
+
+        assertTrue(board.undo());
+        assertTrue(board.undo());
+        assertTrue(board.undo());
+        assertFalse(board.undo());
+        assertTrue(board.isSolved());
+
+        assertTrue(board.redo());
+        assertEquals(1, journal.getPosition());
+        // A new move drops the moves that were undone
+        assertTrue(board.move(Direction.UP));
+        assertEquals(2, journal.size());
+        assertFalse(board.redo());
+        assertEquals(Direction.UP, journal.getMove(1));
+    }
+
+    @Test
+    public void replay_reproducesTheBoard() throws Exception {
+        PuzzleGameBoard board = newSolvedBoard(4, 5);
+        MoveJournal journal = new MoveJournal();
+        board.setMoveJournal(journal);
+        Random random = new Random(3);
+        Direction[] directions = Direction.values();
+        for (int i = 0; i < 1000; i++) {
+            board.move(directions[random.nextInt(directions.length)]);
+        }
+
+        PuzzleGameBoard replayed = newSolvedBoard(4, 5);
+        journal.replay(replayed, journal.getPosition());
+        for (int i = 0; i < board.getTotalTileCount(); i++) {
+            assertEquals(board.getOrderIndexAt(i), replayed.getOrderIndexAt(i));
+        }
+    }
+
+    @Test
+    public void packedMoves_roundTrip() throws Exception {
+        MoveJournal journal = new MoveJournal();
+        Random random = new Random(9);
+        Direction[] directions = Direction.values();
+        for (int i = 0; i < 203; i++) {
+            journal.record(directions[random.nextInt(directions.length)]);
+        }
+        journal.stepBack();
+        byte[] packed = journal.toPackedMoves();
+        assertEquals(51, packed.length);
+
+        MoveJournal restored = new MoveJournal(packed, journal.size(), journal.getPosition());
+        assertEquals(203, restored.size());
+        assertEquals(202, restored.getPosition());
+        for (int i = 0; i < journal.size(); i++) {
+            assertEquals(journal.getMove(i), restored.getMove(i));
+        }
+        assertEquals(restored.size(), restored.getFirstUnsyncedIndex());
+    }
+
+    @Test
+    public void firstUnsyncedIndex_coversReplacedMoves() throws Exception {
+        MoveJournal journal = new MoveJournal();
+        journal.record(Direction.UP);
+        journal.record(Direction.LEFT);
+        journal.record(Direction.UP);
+        journal.markSynced();
+        assertEquals(3, journal.getFirstUnsyncedIndex());
+        journal.stepBack();
+        journal.stepBack();
+        assertEquals(3, journal.getFirstUnsyncedIndex());
+        journal.record(Direction.RIGHT);
+        assertEquals(1, journal.getFirstUnsyncedIndex());
+    }
+}
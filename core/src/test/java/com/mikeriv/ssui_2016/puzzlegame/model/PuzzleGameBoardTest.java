@@ -0,0 +1,239 @@
+package com.mikeriv.ssui_2016.puzzlegame.model;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PuzzleGameBoardTest {
+
+    @Test
+    public void resetToSolved_isSolved() throws Exception {
+        PuzzleGameBoard board = new PuzzleGameBoard(3, 5);
+        board.resetToSolved();
+        assertTrue(board.isSolved());
+        assertEquals(14, board.getEmptyOrderIndex());
+        assertTrue(board.isEmptyTile(2, 4));
+    }
+
+    @Test
+    public void isSolved_usesColumnCountForRectangularBoards() throws Exception {
+        PuzzleGameBoard board = new PuzzleGameBoard(2, 3);
+        board.resetToSolved();
+        assertEquals(3, board.getOrderIndex(1, 0));
+        board.swapTiles(0, 2, 1, 0);
+        assertFalse(board.isSolved());
+    }
+
+    @Test
+    public void setTile_looksUpTilesByOrderIndex() throws Exception {
+        PuzzleGameBoard board = new PuzzleGameBoard(2);
+        PuzzleGameTile tile = new PuzzleGameTile(3, true);
+        board.setTile(tile, 0, 0);
+        assertSame(tile, board.getTile(0, 0));
+        assertSame(tile, board.getTileByOrderIndex(3));
+        assertTrue(board.isEmptyTile(0, 0));
+        assertNull(board.getTile(1, 1));
+        assertFalse(board.isEmptyTile(1, 1));
+    }
+
+    @Test
+    public void packState_roundTrips() throws Exception {
+        PuzzleGameBoard board = new PuzzleGameBoard(4);
+        board.resetToSolved();
+        board.swapCells(0, 15);
+        board.swapCells(3, 7);
+        long packed = board.packState();
+
+        PuzzleGameBoard other = new PuzzleGameBoard(4);
+        other.unpackState(packed);
+        for (int i = 0; i < 16; i++) {
+            assertEquals(board.getOrderIndexAt(i), other.getOrderIndexAt(i));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void packState_rejectsLargeBoards() throws Exception {
+        PuzzleGameBoard board = new PuzzleGameBoard(5);
+        board.resetToSolved();
+        board.packState();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setCells_rejectsNonPermutations() throws Exception {
+        PuzzleGameBoard board = new PuzzleGameBoard(2);
+        board.setCells(new short[] {0, 1, 1, 3});
+    }
+
+    @Test
+    public void swapCells_tracksEmptyCell() throws Exception {
+        PuzzleGameBoard board = new PuzzleGameBoard(3);
+        board.resetToSolved();
+        board.swapCells(8, 7);
+        assertEquals(7, board.getEmptyCellIndex());
+        assertEquals(2, board.getEmptyRow());
+        assertEquals(1, board.getEmptyColumn());
+    }
+
+    @Test
+    public void move_slidesNeighborIntoEmptyCell() throws Exception {
+        PuzzleGameBoard board = new PuzzleGameBoard(3);
+        board.resetToSolved();
+        assertFalse(board.move(Direction.UP));
+        assertTrue(board.move(Direction.RIGHT));
+        assertEquals(7, board.getEmptyCellIndex());
+        assertEquals(7, board.getOrderIndexAt(8));
+        assertTrue(board.move(Direction.LEFT));
+        assertTrue(board.isSolved());
+    }
+
+    @Test
+    public void slide_movesEveryTileInLine() throws Exception {
+        PuzzleGameBoard board = new PuzzleGameBoard(4);
+        board.resetToSolved();
+        assertEquals(3, board.slide(0, 3));
+        assertEquals(3, board.getEmptyCellIndex());
+        assertEquals(3, board.getOrderIndex(1, 3));
+        assertEquals(11, board.getOrderIndex(3, 3));
+        assertEquals(0, board.slide(1, 1));
+        assertEquals(0, board.slide(0, 3));
+    }
+
+    @Test
+    public void misplacedCount_tracksSwaps() throws Exception {
+        PuzzleGameBoard board = new PuzzleGameBoard(3, 4);
+        board.resetToSolved();
+        board.swapCells(0, 5);
+        assertEquals(2, board.getMisplacedCount());
+        board.swapCells(0, 5);
+        assertTrue(board.isSolved());
+    }
+
+    @Test
+    public void isSolvable_matchesFullRecount() throws Exception {
+        Random random = new Random(42);
+        short[] cells = new short[12];
+        for (int n = 0; n < 200; n++) {
+            PuzzleGameBoard board = new PuzzleGameBoard(3, 4);
+            board.resetToSolved();
+            for (int i = 0; i < 30; i++) {
+                board.swapCells(random.nextInt(12), random.nextInt(12));
+            }
+            board.copyCellsTo(cells);
+            PuzzleGameBoard copy = new PuzzleGameBoard(3, 4);
+            copy.resetToSolved();
+            copy.setCells(cells);
+            assertEquals(copy.isSolvable(), board.isSolvable());
+        }
+    }
+
+    @Test
+    public void isSolvable_staysTrueUnderLegalMoves() throws Exception {
+        Random random = new Random(7);
+        Direction[] directions = Direction.values();
+        PuzzleGameBoard board = new PuzzleGameBoard(5, 3);
+        board.resetToSolved();
+        for (int i = 0; i < 500; i++) {
+            board.move(directions[random.nextInt(directions.length)]);
+            assertTrue(board.isSolvable());
+        }
+        board.swapCells(0, 1);
+        assertFalse(board.isSolvable());
+    }
+
+    @Test
+    public void setCells_onNewBoardUsesLastOrderIndexAsEmpty() throws Exception {
+        PuzzleGameBoard board = new PuzzleGameBoard(2, 2);
+        board.setCells(new short[] {0, 3, 2, 1});
+        assertEquals(3, board.getEmptyOrderIndex());
+        assertEquals(1, board.getEmptyCellIndex());
+        assertEquals(1, board.slide(0, 0));
+        assertEquals(0, board.getEmptyCellIndex());
+    }
+
+    @Test
+    public void unpackState_onNewBoardUsesLastOrderIndexAsEmpty() throws Exception {
+        PuzzleGameBoard solved = new PuzzleGameBoard(3, 3);
+        solved.resetToSolved();
+        PuzzleGameBoard board = new PuzzleGameBoard(3, 3);
+        board.unpackState(solved.packState());
+        assertEquals(8, board.getEmptyCellIndex());
+        assertEquals(1, board.slide(2, 1));
+    }
+
+    @Test
+    public void isSolvable_singleRowNeedsTilesInOrder() throws Exception {
+        PuzzleGameBoard board = new PuzzleGameBoard(1, 4);
+        board.resetToSolved();
+        // The empty tile can be anywhere as long as the other tiles keep their order
+        board.setCells(new short[] {0, 3, 1, 2});
+        assertTrue(board.isSolvable());
+        // Same parities as a solvable board, but 1 and 2 can never pass each other
+        board.setCells(new short[] {2, 0, 3, 1});
+        assertFalse(board.isSolvable());
+        board.setCells(new short[] {1, 0, 2, 3});
+        assertFalse(board.isSolvable());
+    }
+
+    @Test
+    public void isSolvable_singleColumnNeedsTilesInOrder() throws Exception {
+        PuzzleGameBoard board = new PuzzleGameBoard(4, 1);
+        board.resetToSolved();
+        board.setCells(new short[] {3, 0, 1, 2});
+        assertTrue(board.isSolvable());
+        board.setCells(new short[] {2, 3, 0, 1});
+        assertFalse(board.isSolvable());
+    }
+
+    @Test
+    public void countInversions_matchesQuadraticCount() throws Exception {
+        Random random = new Random(3);
+        PuzzleGameBoard board = new PuzzleGameBoard(6);
+        board.resetToSolved();
+        for (int i = 0; i < 100; i++) {
+            board.swapCells(random.nextInt(36), random.nextInt(36));
+        }
+        long expected = 0;
+        int empty = board.getEmptyOrderIndex();
+        for (int i = 0; i < 36; i++) {
+            for (int j = i + 1; j < 36; j++) {
+                int a = board.getOrderIndexAt(i);
+                int b = board.getOrderIndexAt(j);
+                if (a != empty && b != empty && a > b) {
+                    expected++;
+                }
+            }
+        }
+        assertEquals(expected, board.countInversions());
+    }
+
+    @Test
+    public void changeListener_reportsSwappedCellsAndBulkChanges() throws Exception {
+        PuzzleGameBoard board = new PuzzleGameBoard(3, 4);
+        board.resetToSolved();
+        final StringBuilder events = new StringBuilder();
+        board.setOnBoardChangeListener(new PuzzleGameBoard.OnBoardChangeListener() {
+            @Override
+            public void onCellsSwapped(int firstCellIndex, int secondCellIndex) {
+                events.append(firstCellIndex).append('-').append(secondCellIndex).append(' ');
+            }
+
+            @Override
+            public void onBoardChanged() {
+                events.append("all ");
+            }
+        });
+
+        // Sliding the first tile of the last row moves three tiles, one swap each
+        assertEquals(3, board.slide(2, 0));
+        assertFalse(board.move(Direction.RIGHT));
+        board.swapCells(4, 4);
+        board.resetToSolved();
+        assertEquals("11-10 10-9 9-8 all ", events.toString());
+
+        board.setOnBoardChangeListener(null);
+        board.move(Direction.DOWN);
+        assertEquals("11-10 10-9 9-8 all ", events.toString());
+    }
+}
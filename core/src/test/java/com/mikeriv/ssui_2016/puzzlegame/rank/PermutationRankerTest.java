@@ -0,0 +1,94 @@
+package com.mikeriv.ssui_2016.puzzlegame.rank;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PermutationRankerTest {
+
+    /**
+     * Checks that unranking every rank gives distinct placements that rank back to the same rank
+     */
+    private static void assertBijective(PermutationRanker ranker) {
+        int n = ranker.getElementCount();
+        int k = ranker.getRankedCount();
+        long count = ranker.getRankCount();
+        boolean[] seen = new boolean[(int) count];
+        int[] values = new int[k];
+        for (long rank = 0; rank < count; rank++) {
+            ranker.unrank(rank, values);
+            boolean[] used = new boolean[n];
+            for (int value : values) {
+                assertFalse(used[value]);
+                used[value] = true;
+            }
+            assertEquals(rank, ranker.rank(values));
+            assertFalse(seen[(int) rank]);
+            seen[(int) rank] = true;
+        }
+    }
+
+    private static int[] shuffledValues(int n, Random random) {
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swapped = values[i];
+            values[i] = values[j];
+            values[j] = swapped;
+        }
+        return values;
+    }
+
+    @Test
+    public void ranksAreDenseAndInvertible() throws Exception {
+        assertBijective(new LexicographicRanker(6, 6));
+        assertBijective(new LexicographicRanker(9, 4));
+        assertBijective(MyrvoldRuskeyRanker.forPermutations(6));
+        assertBijective(new MyrvoldRuskeyRanker(9, 4));
+        assertBijective(new MyrvoldRuskeyRanker(7, 1));
+    }
+
+    @Test
+    public void lexicographicRanks_keepPlacementsWithTheSamePrefixTogether() throws Exception {
+        LexicographicRanker ranker = new LexicographicRanker(16, 3);
+        assertEquals(0, ranker.rank(new int[]{0, 1, 2}));
+        assertEquals(1, ranker.rank(new int[]{0, 1, 3}));
+        assertEquals(14, ranker.rank(new int[]{0, 2, 1}));
+        assertEquals(16 * 15 * 14 - 1, ranker.rank(new int[]{15, 14, 13}));
+    }
+
+    @Test
+    public void wideRanks_matchLongRanksAndRoundTripLargeBoards() throws Exception {
+        Random random = new Random(1);
+        MyrvoldRuskeyRanker small = MyrvoldRuskeyRanker.forPermutations(20);
+        long[] wide = new long[small.getRankWordCount()];
+        int[] values = shuffledValues(20, random);
+        small.rank(values, wide);
+        assertEquals(small.rank(values), wide[0]);
+        assertEquals(PermutationRanker.NO_LONG_RANK_COUNT,
+                MyrvoldRuskeyRanker.forPermutations(21).getRankCount());
+
+        MyrvoldRuskeyRanker large = MyrvoldRuskeyRanker.forPermutations(32 * 32);
+        wide = new long[large.getRankWordCount()];
+        short[] cells = new short[32 * 32];
+        int[] shuffled = shuffledValues(cells.length, random);
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = (short) shuffled[i];
+        }
+        large.rank(cells, wide);
+        short[] unranked = new short[cells.length];
+        large.unrank(wide, unranked);
+        assertArrayEquals(cells, unranked);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void longRanks_areRefusedWhenTheyDoNotFit() throws Exception {
+        MyrvoldRuskeyRanker.forPermutations(25).rank(shuffledValues(25, new Random(2)));
+    }
+}
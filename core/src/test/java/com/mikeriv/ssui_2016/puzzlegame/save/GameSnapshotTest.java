@@ -0,0 +1,98 @@
+package com.mikeriv.ssui_2016.puzzlegame.save;
+
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameBoard;
+import com.mikeriv.ssui_2016.puzzlegame.shuffle.UniformShuffler;
+
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+public class GameSnapshotTest {
+
+    private static PuzzleGameBoard newShuffledBoard(int rows, int columns, long seed) {
+        PuzzleGameBoard board = new PuzzleGameBoard(rows, columns);
+        new UniformShuffler().shuffle(board, new SplittableRandom(seed));
+        return board;
+    }
+
+    @Test
+    public void roundTripsTheWholeGame() throws Exception {
+        PuzzleGameBoard board = newShuffledBoard(4, 4, 7);
+        GameSnapshot snapshot = new GameSnapshot(board, 3, 0x7f020055, -42L);
+        byte[] bytes = snapshot.toByteArray();
+        // 1 format byte, 3 one byte varints, 12 bytes of image id and seed and 16 cells of 4 bits
+        assertEquals(24, bytes.length);
+
+        GameSnapshot restored = GameSnapshot.fromByteArray(bytes);
+        assertEquals(4, restored.getRowsCount());
+        assertEquals(4, restored.getColumnsCount());
+        assertEquals(3, restored.getScore());
+        assertEquals(0x7f020055, restored.getImageId());
+        assertEquals(-42L, restored.getShuffleSeed());
+        assertEquals(board.getEmptyCellIndex(), restored.getEmptyCellIndex());
+
+        PuzzleGameBoard other = new PuzzleGameBoard(4, 4);
+        other.resetToSolved();
+        restored.applyTo(other);
+        for (int i = 0; i < 16; i++) {
+            assertEquals(board.getOrderIndexAt(i), other.getOrderIndexAt(i));
+        }
+        assertEquals(board.getMisplacedCount(), other.getMisplacedCount());
+    }
+
+    @Test
+    public void roundTripsLargeRectangularBoards() throws Exception {
+        PuzzleGameBoard board = newShuffledBoard(32, 27, 11);
+        byte[] bytes = new GameSnapshot(board, 0, 1, 2).toByteArray();
+        // 864 cells of 10 bits
+        assertEquals(1 + 3 + 12 + 1080, bytes.length);
+
+        PuzzleGameBoard other = new PuzzleGameBoard(32, 27);
+        other.resetToSolved();
+        GameSnapshot.fromByteArray(bytes).applyTo(other);
+        for (int i = 0; i < board.getTotalTileCount(); i++) {
+            assertEquals(board.getOrderIndexAt(i), other.getOrderIndexAt(i));
+        }
+    }
+
+    @Test
+    public void rejectsCorruptBytes() throws Exception {
+        byte[] bytes = new GameSnapshot(newShuffledBoard(3, 3, 5), 0, 1, 2).toByteArray();
+        byte[] truncated = new byte[bytes.length - 1];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+        try {
+            GameSnapshot.fromByteArray(truncated);
+            fail("Truncated bytes were accepted");
+        } catch (IllegalArgumentException expected) {
+        }
+
+        // Every cell of a 3x3 board is 4 bits, so this repeats an order index
+        bytes[bytes.length - 1] = bytes[bytes.length - 2];
+        try {
+            GameSnapshot.fromByteArray(bytes);
+            fail("Repeated order index was accepted");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void readsTheFormatWithAMoveCount() throws Exception {
+        // Format 1 of a solved 2x2 board: rows, cols, score 5, 300 moves as a two byte varint,
+        // image id 7, seed 9 and the cells 0, 1, 2, 3 at 2 bits each
+        byte[] bytes = {1, 2, 2, 5, (byte) 0xAC, 0x02, 7, 0, 0, 0, 9, 0, 0, 0, 0, 0, 0, 0,
+                (byte) 0xE4};
+        GameSnapshot snapshot = GameSnapshot.fromByteArray(bytes);
+        assertEquals(5, snapshot.getScore());
+        assertEquals(7, snapshot.getImageId());
+        assertEquals(9L, snapshot.getShuffleSeed());
+        assertEquals(3, snapshot.getEmptyCellIndex());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void applyTo_rejectsBoardsOfAnotherSize() throws Exception {
+        GameSnapshot snapshot = new GameSnapshot(newShuffledBoard(3, 4, 1), 0, 1, 2);
+        snapshot.applyTo(new PuzzleGameBoard(4, 3));
+    }
+}
@@ -0,0 +1,61 @@
+package com.mikeriv.ssui_2016.puzzlegame.save;
+
+import com.mikeriv.ssui_2016.puzzlegame.model.Direction;
+import com.mikeriv.ssui_2016.puzzlegame.model.MoveJournal;
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameBoard;
+
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class MoveJournalFileTest {
+
+    @Test
+    public void readsBackIncrementalSyncs() throws Exception {
+        PuzzleGameBoard board = new PuzzleGameBoard(3, 3);
+        board.resetToSolved();
+        GameSnapshot start = new GameSnapshot(board, 2, 5, 99L);
+        MoveJournal journal = new MoveJournal();
+        board.setMoveJournal(journal);
+
+        File file = File.createTempFile("moves", ".journal");
+        try {
+            MoveJournalFile journalFile = MoveJournalFile.create(file, start);
+            try {
+                board.move(Direction.DOWN);
+                board.move(Direction.RIGHT);
+                board.move(Direction.DOWN);
+                journalFile.sync(journal, 2);
+                board.move(Direction.RIGHT);
+                board.move(Direction.UP);
+                journalFile.sync(journal, 2);
+                // Replaces the last two moves with one
+                board.undo();
+                board.undo();
+                board.move(Direction.UP);
+                journalFile.sync(journal, 3);
+            } finally {
+                journalFile.close();
+            }
+
+            MoveJournalFile.Contents contents = MoveJournalFile.read(file);
+            assertEquals(3, contents.getScore());
+            assertEquals(99L, contents.getStartSnapshot().getShuffleSeed());
+            MoveJournal read = contents.getMoveJournal();
+            assertEquals("DRDU", read.toMoveString());
+            assertEquals(4, read.size());
+
+            PuzzleGameBoard recovered = new PuzzleGameBoard(3, 3);
+            recovered.resetToSolved();
+            contents.getStartSnapshot().applyTo(recovered);
+            read.replay(recovered, read.getPosition());
+            for (int i = 0; i < 9; i++) {
+                assertEquals(board.getOrderIndexAt(i), recovered.getOrderIndexAt(i));
+            }
+        } finally {
+            file.delete();
+        }
+    }
+}
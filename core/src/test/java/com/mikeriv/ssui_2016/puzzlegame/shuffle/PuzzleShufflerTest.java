@@ -0,0 +1,72 @@
+package com.mikeriv.ssui_2016.puzzlegame.shuffle;
+
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameBoard;
+import com.mikeriv.ssui_2016.puzzlegame.solver.IdaStarSolver;
+
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+public class PuzzleShufflerTest {
+
+    @Test
+    public void randomWalk_isReproducibleFromSeed() throws Exception {
+        PuzzleShuffler shuffler = new RandomWalkShuffler(200);
+        PuzzleGameBoard first = new PuzzleGameBoard(4, 5);
+        PuzzleGameBoard second = new PuzzleGameBoard(4, 5);
+        shuffler.shuffle(first, new SplittableRandom(1234));
+        shuffler.shuffle(second, new SplittableRandom(1234));
+        for (int i = 0; i < first.getTotalTileCount(); i++) {
+            assertEquals(first.getOrderIndexAt(i), second.getOrderIndexAt(i));
+        }
+        assertTrue(first.isSolvable());
+        assertFalse(first.isSolved());
+    }
+
+    @Test
+    public void uniform_alwaysSolvable() throws Exception {
+        PuzzleShuffler shuffler = new UniformShuffler();
+        SplittableRandom random = new SplittableRandom(99);
+        PuzzleGameBoard board = new PuzzleGameBoard(3, 4);
+        int[] emptyCellCounts = new int[board.getTotalTileCount()];
+        for (int i = 0; i < 12000; i++) {
+            shuffler.shuffle(board, random);
+            assertTrue(board.isSolvable());
+            emptyCellCounts[board.getEmptyCellIndex()]++;
+        }
+        // The empty tile should land in every cell about equally often
+        for (int count : emptyCellCounts) {
+            assertTrue(count > 800 && count < 1200);
+        }
+    }
+
+    @Test
+    public void uniform_singleRowIsSolvable() throws Exception {
+        PuzzleShuffler shuffler = new UniformShuffler();
+        SplittableRandom random = new SplittableRandom(5);
+        PuzzleGameBoard board = new PuzzleGameBoard(1, 4);
+        int[] emptyCellCounts = new int[board.getTotalTileCount()];
+        for (int i = 0; i < 4000; i++) {
+            shuffler.shuffle(board, random);
+            assertTrue(board.isSolvable());
+            emptyCellCounts[board.getEmptyCellIndex()]++;
+        }
+        for (int count : emptyCellCounts) {
+            assertTrue(count > 800 && count < 1200);
+        }
+    }
+
+    @Test
+    public void exactDistance_hasRequestedOptimalLength() throws Exception {
+        IdaStarSolver solver = new IdaStarSolver(3, 3);
+        PuzzleShuffler shuffler = new ExactDistanceShuffler(solver, 14);
+        SplittableRandom random = new SplittableRandom(5);
+        PuzzleGameBoard board = new PuzzleGameBoard(3);
+        for (int i = 0; i < 5; i++) {
+            shuffler.shuffle(board, random);
+            assertEquals(14, solver.solve(board).getMoveCount());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.mikeriv.ssui_2016.puzzlegame.solver;
+
+import com.mikeriv.ssui_2016.puzzlegame.model.Direction;
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameBoard;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class AStarSolverTest {
+
+    private static PuzzleGameBoard scramble(int rows, int columns, int moves, Random random) {
+        Direction[] directions = Direction.values();
+        PuzzleGameBoard board = new PuzzleGameBoard(rows, columns);
+        board.resetToSolved();
+        int made = 0;
+        while (made < moves) {
+            if (board.move(directions[random.nextInt(directions.length)])) {
+                made++;
+            }
+        }
+        return board;
+    }
+
+    private static AStarSolver newSolver(
+            int rows,
+            int columns,
+            AStarSolver.Mode mode,
+            double weight,
+            long memoryBudget) {
+        return new AStarSolver(rows, columns, new ManhattanLinearConflictHeuristic(rows, columns),
+                mode, weight, memoryBudget);
+    }
+
+    private static void assertSolves(PuzzleSolution solution, PuzzleGameBoard board) {
+        solution.applyTo(board);
+        assertTrue(board.isSolved());
+    }
+
+    @Test
+    public void solve_matchesIdaStarLengths() throws Exception {
+        Random random = new Random(17);
+        IdaStarSolver idaStar = new IdaStarSolver(3, 4);
+        AStarSolver aStar = new AStarSolver(3, 4);
+        AStarSolver bidirectional = newSolver(3, 4, AStarSolver.Mode.BIDIRECTIONAL, 1.0,
+                AStarSolver.DEFAULT_MEMORY_BUDGET);
+        for (int n = 0; n < 10; n++) {
+            PuzzleGameBoard board = scramble(3, 4, 60, random);
+            int optimal = idaStar.solve(board).getMoveCount();
+
+            PuzzleSolution solution = aStar.solve(board);
+            assertEquals(optimal, solution.getMoveCount());
+            assertTrue(solution.isOptimal());
+            assertFalse(aStar.usedFallback());
+
+            PuzzleSolution bidirectionalSolution = bidirectional.solve(board);
+            assertEquals(optimal, bidirectionalSolution.getMoveCount());
+            assertSolves(bidirectionalSolution, board);
+        }
+    }
+
+    @Test
+    public void solve_solvedBoardNeedsNoMoves() throws Exception {
+        PuzzleGameBoard board = new PuzzleGameBoard(3);
+        board.resetToSolved();
+        assertEquals(0, new AStarSolver(3, 3).solve(board).getMoveCount());
+        assertEquals(0, newSolver(3, 3, AStarSolver.Mode.BIDIRECTIONAL, 1.0,
+                AStarSolver.DEFAULT_MEMORY_BUDGET).solve(board).getMoveCount());
+    }
+
+    @Test
+    public void solve_weightedSearchStaysWithinTheWeight() throws Exception {
+        Random random = new Random(23);
+        IdaStarSolver idaStar = new IdaStarSolver(4, 4);
+        AStarSolver weighted = newSolver(4, 4, AStarSolver.Mode.BIDIRECTIONAL, 1.5,
+                AStarSolver.DEFAULT_MEMORY_BUDGET);
+        for (int n = 0; n < 5; n++) {
+            PuzzleGameBoard board = scramble(4, 4, 80, random);
+            int optimal = idaStar.solve(board).getMoveCount();
+            PuzzleSolution solution = weighted.solve(board);
+            assertFalse(solution.isOptimal());
+            assertTrue(solution.getMoveCount() <= optimal * 1.5);
+            assertSolves(solution, board);
+        }
+    }
+
+    @Test
+    public void solve_fallsBackToIdaStarWhenOutOfBudget() throws Exception {
+        PuzzleGameBoard board = new PuzzleGameBoard(3);
+        board.resetToSolved();
+        // The hardest 3x3 boards take 31 moves
+        board.setCells(new short[] {7, 5, 6, 1, 4, 3, 2, 8, 0});
+        AStarSolver solver = newSolver(3, 3, AStarSolver.Mode.A_STAR, 1.0, 16 * 1024);
+        PuzzleSolution solution = solver.solve(board);
+        assertTrue(solver.usedFallback());
+        assertEquals(31, solution.getMoveCount());
+        assertTrue(solution.isOptimal());
+    }
+
+    @Test
+    public void solve_findsNearOptimalPathsOn5x5Boards() throws Exception {
+        Random random = new Random(29);
+        AStarSolver solver = newSolver(5, 5, AStarSolver.Mode.A_STAR, 2.0,
+                AStarSolver.DEFAULT_MEMORY_BUDGET);
+        for (int n = 0; n < 3; n++) {
+            PuzzleGameBoard board = scramble(5, 5, 200, random);
+            PuzzleSolution solution = solver.solve(board);
+            assertFalse(solver.usedFallback());
+            assertSolves(solution, board);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.mikeriv.ssui_2016.puzzlegame.solver;
+
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameBoard;
+import com.mikeriv.ssui_2016.puzzlegame.shuffle.UniformShuffler;
+
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+public class ConstructiveSolverTest {
+
+    private static void assertSolvesRandomBoards(int rows, int columns, int count) {
+        SplittableRandom random = new SplittableRandom(rows * 100 + columns);
+        ConstructiveSolver solver = new ConstructiveSolver(rows, columns);
+        for (int n = 0; n < count; n++) {
+            PuzzleGameBoard board = new PuzzleGameBoard(rows, columns);
+            board.resetToSolved();
+            new UniformShuffler().shuffle(board, random);
+
+            PuzzleSolution solution = solver.solve(board);
+            solution.applyTo(board);
+            assertTrue(rows + "x" + columns, board.isSolved());
+        }
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void constructor_rejectsSingleRowBoards() throws Exception {
+        new ConstructiveSolver(1, 4);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void constructor_rejectsSingleColumnBoards() throws Exception {
+        new ConstructiveSolver(4, 1);
+    }
+
+    @Test
+    public void solve_solvesSquareBoardsOfEverySize() throws Exception {
+        for (int size = 2; size <= 32; size++) {
+            assertSolvesRandomBoards(size, size, size <= 8 ? 20 : 2);
+        }
+    }
+
+    @Test
+    public void solve_solvesRectangularBoards() throws Exception {
+        int[][] sizes = {{2, 3}, {3, 2}, {2, 9}, {9, 2}, {3, 7}, {7, 3}, {5, 12}, {32, 4}};
+        for (int[] size : sizes) {
+            assertSolvesRandomBoards(size[0], size[1], 10);
+        }
+    }
+
+    @Test
+    public void solve_staysWithinTheLengthBound() throws Exception {
+        SplittableRandom random = new SplittableRandom(5);
+        ConstructiveSolver solver = new ConstructiveSolver(32, 32);
+        PuzzleGameBoard board = new PuzzleGameBoard(32, 32);
+        board.resetToSolved();
+        new UniformShuffler().shuffle(board, random);
+        // Each tile travels at most across the board and back, with a few moves per step
+        assertTrue(solver.solve(board).getMoveCount() < 32 * 32 * 4 * 32 * 2);
+    }
+
+    @Test
+    public void solve_solvedBoardNeedsNoMoves() throws Exception {
+        PuzzleGameBoard board = new PuzzleGameBoard(4, 5);
+        board.resetToSolved();
+        PuzzleSolution solution = new ConstructiveSolver(4, 5).solve(board);
+        assertEquals(0, solution.getMoveCount());
+        assertTrue(solution.isOptimal());
+    }
+}
@@ -0,0 +1,106 @@
+package com.mikeriv.ssui_2016.puzzlegame.solver;
+
+import com.mikeriv.ssui_2016.puzzlegame.model.Direction;
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameBoard;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class IdaStarSolverTest {
+
+    @Test
+    public void solve_solvedBoardNeedsNoMoves() throws Exception {
+        PuzzleGameBoard board = new PuzzleGameBoard(3);
+        board.resetToSolved();
+        assertEquals(0, new IdaStarSolver(3, 3).solve(board).getMoveCount());
+    }
+
+    @Test
+    public void solve_findsKnownOptimalLength() throws Exception {
+        // The hardest 3x3 boards take 31 moves
+        PuzzleGameBoard board = new PuzzleGameBoard(3);
+        board.resetToSolved();
+        board.setCells(new short[] {7, 5, 6, 1, 4, 3, 2, 8, 0});
+        PuzzleSolution solution = new IdaStarSolver(3, 3).solve(board);
+        assertEquals(31, solution.getMoveCount());
+        solution.applyTo(board);
+        assertTrue(board.isSolved());
+        assertTrue(solution.isOptimal());
+    }
+
+    @Test
+    public void solve_neverExceedsScrambleLength() throws Exception {
+        Random random = new Random(11);
+        Direction[] directions = Direction.values();
+        IdaStarSolver solver = new IdaStarSolver(4, 4);
+        for (int n = 0; n < 20; n++) {
+            PuzzleGameBoard board = new PuzzleGameBoard(4);
+            board.resetToSolved();
+            int moves = 0;
+            while (moves < 30) {
+                if (board.move(directions[random.nextInt(directions.length)])) {
+                    moves++;
+                }
+            }
+            PuzzleSolution solution = solver.solve(board);
+            assertTrue(solution.getMoveCount() <= 30);
+            solution.applyTo(board);
+            assertTrue(board.isSolved());
+        }
+    }
+
+    @Test
+    public void solve_matchesBreadthFirstOnRectangularBoards() throws Exception {
+        Random random = new Random(5);
+        Direction[] directions = Direction.values();
+        IdaStarSolver solver = new IdaStarSolver(2, 3);
+        for (int n = 0; n < 50; n++) {
+            PuzzleGameBoard board = new PuzzleGameBoard(2, 3);
+            board.resetToSolved();
+            for (int i = 0; i < 40; i++) {
+                board.move(directions[random.nextInt(directions.length)]);
+            }
+            assertEquals(breadthFirstDistance(board), solver.solve(board).getMoveCount());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void solve_rejectsUnsolvableBoards() throws Exception {
+        PuzzleGameBoard board = new PuzzleGameBoard(3);
+        board.resetToSolved();
+        board.swapCells(0, 1);
+        new IdaStarSolver(3, 3).solve(board);
+    }
+
+    private static int breadthFirstDistance(PuzzleGameBoard board) {
+        Map<Long, Integer> distances = new HashMap<>();
+        ArrayDeque<Long> queue = new ArrayDeque<>();
+        PuzzleGameBoard scratch = new PuzzleGameBoard(board.getRowsCount(),
+                board.getColumnsCount());
+        scratch.resetToSolved();
+        long target = board.packState();
+        distances.put(scratch.packState(), 0);
+        queue.add(scratch.packState());
+        while (!queue.isEmpty()) {
+            long state = queue.poll();
+            int distance = distances.get(state);
+            if (state == target) {
+                return distance;
+            }
+            for (Direction direction : Direction.values()) {
+                scratch.unpackState(state);
+                if (scratch.move(direction) && !distances.containsKey(scratch.packState())) {
+                    distances.put(scratch.packState(), distance + 1);
+                    queue.add(scratch.packState());
+                }
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,57 @@
+package com.mikeriv.ssui_2016.puzzlegame.solver;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ManhattanLinearConflictHeuristicTest {
+
+    @Test
+    public void estimate_countsReversedPairTwice() throws Exception {
+        // Tiles 0 and 1 are swapped in their goal row: Manhattan 2 plus one conflict
+        short[] cells = {1, 0, 2, 3, 4, 5, 6, 7, 8};
+        assertEquals(4, new ManhattanLinearConflictHeuristic(3, 3).estimate(cells));
+    }
+
+    @Test
+    public void update_matchesFullEstimateOnTableLines() throws Exception {
+        checkIncrementalMatchesFull(4, 5);
+    }
+
+    @Test
+    public void update_matchesFullEstimateOnScannedLines() throws Exception {
+        checkIncrementalMatchesFull(7, 8);
+    }
+
+    private static void checkIncrementalMatchesFull(int rows, int columns) {
+        Random random = new Random(rows * 31 + columns);
+        ManhattanLinearConflictHeuristic incremental =
+                new ManhattanLinearConflictHeuristic(rows, columns);
+        ManhattanLinearConflictHeuristic full = new ManhattanLinearConflictHeuristic(rows, columns);
+        short[] cells = new short[rows * columns];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = (short) i;
+        }
+        int empty = cells.length - 1;
+        int estimate = incremental.estimate(cells);
+        int[] rowDeltas = {-1, 1, 0, 0};
+        int[] columnDeltas = {0, 0, -1, 1};
+        for (int step = 0; step < 5000; step++) {
+            int direction = random.nextInt(4);
+            int row = empty / columns + rowDeltas[direction];
+            int col = empty % columns + columnDeltas[direction];
+            if (row < 0 || row >= rows || col < 0 || col >= columns) {
+                continue;
+            }
+            int source = row * columns + col;
+            short tile = cells[source];
+            cells[empty] = tile;
+            cells[source] = (short) (cells.length - 1);
+            estimate = incremental.update(cells, estimate, tile, source, empty);
+            empty = source;
+            assertEquals(full.estimate(cells), estimate);
+        }
+    }
+}
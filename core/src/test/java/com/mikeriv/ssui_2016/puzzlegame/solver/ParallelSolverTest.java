@@ -0,0 +1,101 @@
+package com.mikeriv.ssui_2016.puzzlegame.solver;
+
+import com.mikeriv.ssui_2016.puzzlegame.model.Direction;
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameBoard;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class ParallelSolverTest {
+
+    @Test
+    public void parallelSolve_matchesSequentialLength() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ParallelIdaStarSolver parallelSolver = new ParallelIdaStarSolver(4, 4, pool,
+                    HeuristicFactory.MANHATTAN_LINEAR_CONFLICT, 6);
+            IdaStarSolver solver = new IdaStarSolver(4, 4);
+            for (PuzzleGameBoard board : scrambledBoards(4, 10, 40, 21)) {
+                PuzzleSolution solution = parallelSolver.solve(board);
+                assertEquals(solver.solve(board).getMoveCount(), solution.getMoveCount());
+                solution.applyTo(board);
+                assertTrue(board.isSolved());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void parallelSolve_handlesSolutionsAboveSplitDepth() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            ParallelIdaStarSolver parallelSolver = new ParallelIdaStarSolver(3, 3, pool,
+                    HeuristicFactory.MANHATTAN_LINEAR_CONFLICT, 8);
+            for (PuzzleGameBoard board : scrambledBoards(3, 10, 5, 4)) {
+                PuzzleSolution solution = parallelSolver.solve(board);
+                assertTrue(solution.getMoveCount() <= 5);
+                solution.applyTo(board);
+                assertTrue(board.isSolved());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void solveAll_reportsEveryBoard() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            final List<PuzzleGameBoard> boards = scrambledBoards(4, 40, 30, 8);
+            PuzzleGameBoard unsolvable = new PuzzleGameBoard(4);
+            unsolvable.resetToSolved();
+            unsolvable.swapCells(0, 1);
+            boards.add(unsolvable);
+            final int[] solved = new int[boards.size()];
+            final int[] failed = new int[boards.size()];
+            new BatchSolver(4, 4, pool, HeuristicFactory.MANHATTAN_LINEAR_CONFLICT).solveAll(
+                    boards.iterator(), new BatchSolver.OnBoardSolvedListener() {
+                        @Override
+                        public void onBoardSolved(int boardIndex, PuzzleSolution solution) {
+                            solved[boardIndex]++;
+                            solution.applyTo(boards.get(boardIndex));
+                            assertTrue(boards.get(boardIndex).isSolved());
+                        }
+
+                        @Override
+                        public void onBoardFailed(int boardIndex, RuntimeException error) {
+                            failed[boardIndex]++;
+                        }
+                    });
+            for (int i = 0; i < boards.size() - 1; i++) {
+                assertEquals(1, solved[i]);
+            }
+            assertEquals(1, failed[boards.size() - 1]);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static List<PuzzleGameBoard> scrambledBoards(
+            int size, int count, int moves, long seed) {
+        Random random = new Random(seed);
+        Direction[] directions = Direction.values();
+        List<PuzzleGameBoard> boards = new ArrayList<>();
+        for (int n = 0; n < count; n++) {
+            PuzzleGameBoard board = new PuzzleGameBoard(size);
+            board.resetToSolved();
+            for (int i = 0; i < moves; i++) {
+                board.move(directions[random.nextInt(directions.length)]);
+            }
+            boards.add(board);
+        }
+        return boards;
+    }
+}
@@ -0,0 +1,66 @@
+package com.mikeriv.ssui_2016.puzzlegame.solver;
+
+import com.mikeriv.ssui_2016.puzzlegame.model.Direction;
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameBoard;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PatternDatabaseHeuristicTest {
+
+    private static final int[][] PARTITION_3X3 = {{0, 1, 3, 4}, {2, 5, 6, 7}};
+
+    @Test
+    public void generate_solvedPlacementIsZero() throws Exception {
+        PatternDatabase database = new PatternDatabaseGenerator(3, 3, new int[] {0, 1}).generate();
+        assertEquals(72, database.getEntryCount());
+        assertEquals(0, database.lookup(database.rank(new int[] {0, 1})));
+        // Swapping two pattern tiles in place cannot take fewer moves than moving each of them
+        assertTrue(database.lookup(database.rank(new int[] {1, 0})) >= 2);
+    }
+
+    @Test
+    public void write_mapRoundTrips() throws Exception {
+        PatternDatabase database =
+                new PatternDatabaseGenerator(3, 3, PARTITION_3X3[0]).generate();
+        File file = File.createTempFile("pattern", ".pdb");
+        try {
+            database.write(file);
+            PatternDatabase mapped = PatternDatabase.map(file);
+            assertEquals(database.getEntryCount(), mapped.getEntryCount());
+            for (int i = 0; i < database.getEntryCount(); i++) {
+                assertEquals(database.lookup(i), mapped.lookup(i));
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void solve_matchesLinearConflictSolver() throws Exception {
+        Random random = new Random(9);
+        Direction[] directions = Direction.values();
+        IdaStarSolver patternSolver = new IdaStarSolver(3, 3,
+                PatternDatabaseHeuristic.generate(3, 3, PARTITION_3X3));
+        IdaStarSolver conflictSolver = new IdaStarSolver(3, 3);
+        for (int n = 0; n < 30; n++) {
+            PuzzleGameBoard board = new PuzzleGameBoard(3);
+            board.resetToSolved();
+            for (int i = 0; i < 100; i++) {
+                board.move(directions[random.nextInt(directions.length)]);
+            }
+            assertEquals(conflictSolver.solve(board).getMoveCount(),
+                    patternSolver.solve(board).getMoveCount());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_rejectsIncompletePartitions() throws Exception {
+        new PatternDatabaseHeuristic(
+                new PatternDatabaseGenerator(3, 3, PARTITION_3X3[0]).generate());
+    }
+}
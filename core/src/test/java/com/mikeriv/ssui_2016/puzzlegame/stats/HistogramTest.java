@@ -0,0 +1,72 @@
+package com.mikeriv.ssui_2016.puzzlegame.stats;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class HistogramTest {
+
+    @Test
+    public void record_smallValuesAreExact() throws Exception {
+        Histogram histogram = new Histogram(1000, 4);
+        for (int value = 0; value < 16; value++) {
+            histogram.record(value);
+        }
+        assertEquals(16, histogram.getTotalCount());
+        assertEquals(0, histogram.getMin());
+        assertEquals(15, histogram.getMax());
+        assertEquals(7, histogram.getValueAtPercentile(50));
+        assertEquals(15, histogram.getValueAtPercentile(100));
+        assertEquals(7.5, histogram.getMean(), 1e-9);
+    }
+
+    @Test
+    public void getValueAtPercentile_staysWithinThePrecision() throws Exception {
+        Random random = new Random(3);
+        Histogram histogram = new Histogram(Long.MAX_VALUE, 7);
+        long[] values = new long[10000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 30);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        for (double percentile : new double[] {1, 50, 90, 99, 99.9}) {
+            long exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long estimate = histogram.getValueAtPercentile(percentile);
+            assertTrue(estimate >= exact);
+            assertTrue(estimate - exact <= exact / 128);
+        }
+    }
+
+    @Test
+    public void buckets_coverEveryValueOnce() throws Exception {
+        Histogram histogram = new Histogram(1L << 20, 3);
+        for (int i = 1; i < histogram.getBucketCount(); i++) {
+            assertEquals(histogram.getBucketHighValue(i - 1) + 1, histogram.getBucketLowValue(i));
+        }
+        histogram.record(1L << 40);
+        assertEquals(1, histogram.getCountAtBucket(histogram.getBucketCount() - 1));
+        assertEquals(1L << 20, histogram.getMax());
+    }
+
+    @Test
+    public void add_mergesCounts() throws Exception {
+        Histogram first = new Histogram(1000, 5);
+        Histogram second = new Histogram(1000, 5);
+        first.record(10);
+        second.record(500, 3);
+        first.add(second);
+        assertEquals(4, first.getTotalCount());
+        assertEquals(10, first.getMin());
+        assertEquals(500, first.getMax());
+        assertEquals(500, first.getValueAtPercentile(50));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void add_rejectsDifferentBuckets() throws Exception {
+        new Histogram(1000, 5).add(new Histogram(1000, 6));
+    }
+}
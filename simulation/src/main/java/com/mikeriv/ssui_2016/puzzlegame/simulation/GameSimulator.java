@@ -0,0 +1,68 @@
+package com.mikeriv.ssui_2016.puzzlegame.simulation;
+
+import com.mikeriv.ssui_2016.puzzlegame.model.Direction;
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameBoard;
+import com.mikeriv.ssui_2016.puzzlegame.shuffle.PuzzleShuffler;
+
+import java.util.SplittableRandom;
+
+/**
+ * Plays games one after the other on a single board, the way the game does: shuffle, then let
+ * the player slide tiles until the board is solved. One simulator is used by one thread, and
+ * its board, shuffler and player are reused for every game, so playing allocates nothing per
+ * move.
+ */
+public class GameSimulator {
+
+    private final PuzzleGameBoard mBoard;
+    private final PuzzleShuffler mShuffler;
+    private final Player mPlayer;
+    private final int mMaxMoves;
+
+    /**
+     * @param rows - the rows of the board
+     * @param columns - the cols of the board
+     * @param shuffler - shuffles the board for each game
+     * @param player - plays each game
+     * @param maxMoves - the moves after which a game counts as lost
+     */
+    public GameSimulator(
+            int rows,
+            int columns,
+            PuzzleShuffler shuffler,
+            Player player,
+            int maxMoves) {
+        mBoard = new PuzzleGameBoard(rows, columns);
+        mShuffler = shuffler;
+        mPlayer = player;
+        mMaxMoves = maxMoves;
+    }
+
+    /**
+     * Plays a game and records it
+     * @param random - draws the shuffle and the player's choices
+     * @param stats - receives the result
+     * @return true if the player won
+     * @throws IllegalStateException if the player makes an illegal move
+     */
+    public boolean playGame(SplittableRandom random, SimulationStats stats) {
+        long startNanos = System.nanoTime();
+        mBoard.resetToSolved();
+        mShuffler.shuffle(mBoard, random);
+        mPlayer.startGame(mBoard, random);
+        int moveCount = 0;
+        while (!mBoard.isSolved() && moveCount < mMaxMoves) {
+            Direction move = mPlayer.nextMove(mBoard, random);
+            if (move == null) {
+                break;
+            }
+            if (!mBoard.move(move)) {
+                throw new IllegalStateException("Player made an illegal move " + move);
+            }
+            moveCount++;
+        }
+        boolean won = mBoard.isSolved();
+        stats.recordGame(won, moveCount, System.nanoTime() - startNanos);
+        return won;
+    }
+}
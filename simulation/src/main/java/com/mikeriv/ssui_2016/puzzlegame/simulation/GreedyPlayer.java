@@ -0,0 +1,69 @@
+package com.mikeriv.ssui_2016.puzzlegame.simulation;
+
+import com.mikeriv.ssui_2016.puzzlegame.model.Direction;
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameBoard;
+
+import java.util.SplittableRandom;
+
+/**
+ * Slides the tile that gets closest to its solved cell, i.e. the move that lowers the sum of
+ * the tiles' Manhattan distances the most, breaking ties at random and never undoing its last
+ * move. Greedy play gets stuck in cycles, so some moves are made at random instead.
+ */
+public class GreedyPlayer implements Player {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final double mRandomMoveProbability;
+    private Direction mLastMove;
+
+    /**
+     * @param randomMoveProbability - how often to make a random move instead, 0 to 1
+     */
+    public GreedyPlayer(double randomMoveProbability) {
+        mRandomMoveProbability = randomMoveProbability;
+    }
+
+    @Override
+    public void startGame(PuzzleGameBoard board, SplittableRandom random) {
+        mLastMove = null;
+    }
+
+    @Override
+    public Direction nextMove(PuzzleGameBoard board, SplittableRandom random) {
+        // A random move is one where every tile gains the same
+        boolean isRandomMove = random.nextDouble() < mRandomMoveProbability;
+        int columns = board.getColumnsCount();
+        int emptyRow = board.getEmptyRow();
+        int emptyCol = board.getEmptyColumn();
+        Direction undo = mLastMove == null ? null : mLastMove.opposite();
+        Direction best = null;
+        int bestGain = Integer.MIN_VALUE;
+        int ties = 0;
+        for (Direction direction : DIRECTIONS) {
+            if (direction == undo || !board.canMove(direction)) {
+                continue;
+            }
+            // The tile that slides comes from the cell on the other side of the empty cell
+            int row = emptyRow - direction.getRowDelta();
+            int col = emptyCol - direction.getColumnDelta();
+            int gain = 0;
+            if (!isRandomMove) {
+                int orderIndex = board.getOrderIndex(row, col);
+                int targetRow = orderIndex / columns;
+                int targetCol = orderIndex % columns;
+                gain = Math.abs(targetRow - row) + Math.abs(targetCol - col)
+                        - Math.abs(targetRow - emptyRow) - Math.abs(targetCol - emptyCol);
+            }
+            if (gain > bestGain) {
+                best = direction;
+                bestGain = gain;
+                ties = 1;
+            } else if (gain == bestGain && random.nextInt(++ties) == 0) {
+                best = direction;
+            }
+        }
+        mLastMove = best == null ? undo : best;
+        return mLastMove;
+    }
+}
@@ -0,0 +1,26 @@
+package com.mikeriv.ssui_2016.puzzlegame.simulation;
+
+import com.mikeriv.ssui_2016.puzzlegame.model.Direction;
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameBoard;
+
+import java.util.SplittableRandom;
+
+/**
+ * Plays simulated games. A player is used by one thread and reused for every game it plays, so
+ * it should keep whatever it needs between moves in fields rather than allocating per move.
+ */
+public interface Player {
+    /**
+     * Called with each newly shuffled board, before its first move
+     * @param board - the board to play
+     * @param random - the random number generator of the game
+     */
+    void startGame(PuzzleGameBoard board, SplittableRandom random);
+
+    /**
+     * @param board - the board being played
+     * @param random - the random number generator of the game
+     * @return the next tile to slide, which must be a legal move, or null to give up
+     */
+    Direction nextMove(PuzzleGameBoard board, SplittableRandom random);
+}
@@ -0,0 +1,37 @@
+package com.mikeriv.ssui_2016.puzzlegame.simulation;
+
+import com.mikeriv.ssui_2016.puzzlegame.model.Direction;
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameBoard;
+
+import java.util.SplittableRandom;
+
+/**
+ * Slides a random tile next to the empty cell, never the one it just slid unless there is no
+ * other. A baseline for how far random tapping gets.
+ */
+public class RandomPlayer implements Player {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final Direction[] mCandidates = new Direction[DIRECTIONS.length];
+    private Direction mLastMove;
+
+    @Override
+    public void startGame(PuzzleGameBoard board, SplittableRandom random) {
+        mLastMove = null;
+    }
+
+    @Override
+    public Direction nextMove(PuzzleGameBoard board, SplittableRandom random) {
+        int candidateCount = 0;
+        Direction undo = mLastMove == null ? null : mLastMove.opposite();
+        for (Direction direction : DIRECTIONS) {
+            if (direction != undo && board.canMove(direction)) {
+                mCandidates[candidateCount++] = direction;
+            }
+        }
+        // A corner of a 2-wide board leaves only the way back
+        mLastMove = candidateCount == 0 ? undo : mCandidates[random.nextInt(candidateCount)];
+        return mLastMove;
+    }
+}
@@ -0,0 +1,224 @@
+package com.mikeriv.ssui_2016.puzzlegame.simulation;
+
+import com.mikeriv.ssui_2016.puzzlegame.shuffle.PuzzleShuffler;
+import com.mikeriv.ssui_2016.puzzlegame.shuffle.RandomWalkShuffler;
+import com.mikeriv.ssui_2016.puzzlegame.shuffle.UniformShuffler;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Plays many games headless on every core and aggregates the results, to tune shuffle
+ * difficulty and scoring. Each worker thread has its own GameSimulator and SimulationStats and
+ * claims games in chunks; every chunk draws from a random number generator seeded from the
+ * run's seed and the chunk's index, so a run plays the same games whatever the thread count.
+ *
+ * Run from the command line with --name=value options, e.g.
+ *     --rows=4 --columns=4 --games=1000000 --player=greedy --walk=0 --out=greedy.csv
+ * A walk of 0 shuffles uniformly; a positive walk shuffles with that many random moves.
+ */
+public class SimulationRunner {
+
+    // Games claimed by a worker at a time
+    private static final int CHUNK_SIZE = 1024;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    // Enough to get a greedy player out of most cycles without making it a random one
+    private static final double GREEDY_RANDOM_MOVE_PROBABILITY = 0.1;
+
+    /**
+     * The kinds of player a run can simulate
+     */
+    public enum PlayerKind {
+        RANDOM,
+        GREEDY,
+        SOLVER;
+
+        /**
+         * @param rows - the rows of the boards to play
+         * @param columns - the cols of the boards to play
+         * @return a new player of this kind
+         */
+        public Player createPlayer(int rows, int columns) {
+            switch (this) {
+                case RANDOM:
+                    return new RandomPlayer();
+                case GREEDY:
+                    return new GreedyPlayer(GREEDY_RANDOM_MOVE_PROBABILITY);
+                default:
+                    return new SolverPlayer(rows, columns);
+            }
+        }
+    }
+
+    private final int mRows;
+    private final int mColumns;
+    private final PlayerKind mPlayerKind;
+    private final int mWalkLength;
+    private final int mMaxMoves;
+    private final int mThreadCount;
+
+    /**
+     * @param rows - the rows of the boards
+     * @param columns - the cols of the boards
+     * @param playerKind - who plays the games
+     * @param walkLength - the random moves that shuffle each board, or 0 to shuffle uniformly
+     * @param maxMoves - the moves after which a game counts as lost
+     * @param threadCount - how many games to play at once
+     */
+    public SimulationRunner(
+            int rows,
+            int columns,
+            PlayerKind playerKind,
+            int walkLength,
+            int maxMoves,
+            int threadCount) {
+        mRows = rows;
+        mColumns = columns;
+        mPlayerKind = playerKind;
+        mWalkLength = walkLength;
+        mMaxMoves = maxMoves;
+        mThreadCount = threadCount;
+    }
+
+    /**
+     * Plays the games and waits for them to finish
+     * @param gameCount - how many games to play
+     * @param seed - the seed the games are drawn from
+     * @return the stats of every game
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public SimulationStats run(final long gameCount, final long seed)
+            throws InterruptedException {
+        final AtomicLong nextChunk = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(mThreadCount);
+        try {
+            List<Future<SimulationStats>> workers = new ArrayList<>(mThreadCount);
+            for (int i = 0; i < mThreadCount; i++) {
+                workers.add(executor.submit(new Callable<SimulationStats>() {
+                    @Override
+                    public SimulationStats call() {
+                        GameSimulator simulator = new GameSimulator(mRows, mColumns,
+                                createShuffler(), mPlayerKind.createPlayer(mRows, mColumns),
+                                mMaxMoves);
+                        SimulationStats stats = new SimulationStats();
+                        long chunk;
+                        while ((chunk = nextChunk.getAndIncrement()) * CHUNK_SIZE < gameCount) {
+                            SplittableRandom random = new SplittableRandom(mix(seed, chunk));
+                            long end = Math.min(gameCount, (chunk + 1) * CHUNK_SIZE);
+                            for (long game = chunk * CHUNK_SIZE; game < end; game++) {
+                                simulator.playGame(random, stats);
+                            }
+                        }
+                        return stats;
+                    }
+                }));
+            }
+            SimulationStats total = new SimulationStats();
+            for (Future<SimulationStats> worker : workers) {
+                total.add(worker.get());
+            }
+            return total;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private PuzzleShuffler createShuffler() {
+        if (mWalkLength > 0) {
+            return new RandomWalkShuffler(mWalkLength);
+        }
+        return new UniformShuffler();
+    }
+
+    /**
+     * @return a seed for a chunk that shares no sequence with the seeds of other chunks
+     */
+    private static long mix(long seed, long chunk) {
+        // The finalizer of MurmurHash3
+        long z = seed + (chunk + 1) * GOLDEN_GAMMA;
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+
+    public static void main(String[] args) throws InterruptedException, FileNotFoundException {
+        int rows = 4;
+        int columns = 4;
+        long gameCount = 100000;
+        PlayerKind playerKind = PlayerKind.GREEDY;
+        int walkLength = 0;
+        int maxMoves = 100000;
+        int threadCount = Runtime.getRuntime().availableProcessors();
+        long seed = 1;
+        String outPath = null;
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (!arg.startsWith("--") || split < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            String name = arg.substring(2, split);
+            String value = arg.substring(split + 1);
+            switch (name) {
+                case "rows":
+                    rows = Integer.parseInt(value);
+                    break;
+                case "columns":
+                    columns = Integer.parseInt(value);
+                    break;
+                case "games":
+                    gameCount = Long.parseLong(value);
+                    break;
+                case "player":
+                    playerKind = PlayerKind.valueOf(value.toUpperCase(Locale.US));
+                    break;
+                case "walk":
+                    walkLength = Integer.parseInt(value);
+                    break;
+                case "max-moves":
+                    maxMoves = Integer.parseInt(value);
+                    break;
+                case "threads":
+                    threadCount = Integer.parseInt(value);
+                    break;
+                case "seed":
+                    seed = Long.parseLong(value);
+                    break;
+                case "out":
+                    outPath = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option --" + name);
+            }
+        }
+
+        long startNanos = System.nanoTime();
+        SimulationStats stats = new SimulationRunner(rows, columns, playerKind, walkLength,
+                maxMoves, threadCount).run(gameCount, seed);
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        System.err.println(String.format(Locale.US,
+                "%d %dx%d games by %s players in %.1f s (%.0f games/s), %.1f%% won",
+                stats.getGameCount(), rows, columns, playerKind, seconds,
+                stats.getGameCount() / seconds, stats.getWinRate() * 100));
+
+        PrintStream out = outPath == null ? System.out : new PrintStream(outPath);
+        try {
+            stats.writeCsv(out);
+        } finally {
+            if (out != System.out) {
+                out.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.mikeriv.ssui_2016.puzzlegame.simulation;
+
+import com.mikeriv.ssui_2016.puzzlegame.stats.Histogram;
+
+import java.io.PrintStream;
+import java.util.Locale;
+
+/**
+ * Aggregates simulated games as they finish, so that no per-game data is kept: a count of games
+ * and wins, and histograms of the moves it took to win and the time each game took. Each
+ * thread records into its own stats, which are added together at the end.
+ */
+public class SimulationStats {
+
+    // Moves and nanoseconds are kept to within 1%
+    private static final int PRECISION_BITS = 7;
+    private static final long MAX_MOVES = Integer.MAX_VALUE;
+    private static final long MAX_GAME_NANOS = 3600L * 1000 * 1000 * 1000;
+
+    private final Histogram mMovesToWin = new Histogram(MAX_MOVES, PRECISION_BITS);
+    private final Histogram mGameNanos = new Histogram(MAX_GAME_NANOS, PRECISION_BITS);
+    private long mGameCount;
+    private long mWinCount;
+
+    /**
+     * @param won - whether the board was solved
+     * @param moveCount - the moves made
+     * @param elapsedNanos - the time the game took, shuffling included
+     */
+    public void recordGame(boolean won, int moveCount, long elapsedNanos) {
+        mGameCount++;
+        if (won) {
+            mWinCount++;
+            mMovesToWin.record(moveCount);
+        }
+        mGameNanos.record(elapsedNanos);
+    }
+
+    /**
+     * @param other - stats to add to these
+     */
+    public void add(SimulationStats other) {
+        mGameCount += other.mGameCount;
+        mWinCount += other.mWinCount;
+        mMovesToWin.add(other.mMovesToWin);
+        mGameNanos.add(other.mGameNanos);
+    }
+
+    public long getGameCount() {
+        return mGameCount;
+    }
+
+    public long getWinCount() {
+        return mWinCount;
+    }
+
+    /**
+     * @return the fraction of games won, 0 to 1
+     */
+    public double getWinRate() {
+        return mGameCount == 0 ? 0 : (double) mWinCount / mGameCount;
+    }
+
+    /**
+     * @return the moves taken by each won game
+     */
+    public Histogram getMovesToWin() {
+        return mMovesToWin;
+    }
+
+    /**
+     * @return the nanoseconds taken by each game
+     */
+    public Histogram getGameNanos() {
+        return mGameNanos;
+    }
+
+    /**
+     * Writes the stats as CSV with the columns kind, name, low, high and value. Summary rows have
+     * the kind "summary" and only a value; histogram rows have the kind "bucket", the
+     * histogram's name, the bucket's range and its count. Empty buckets are left out.
+     * @param out - where to write
+     */
+    public void writeCsv(PrintStream out) {
+        out.println("kind,name,low,high,value");
+        writeSummary(out, "games", mGameCount);
+        writeSummary(out, "wins", mWinCount);
+        out.println(String.format(Locale.US, "summary,win_rate,,,%.6f", getWinRate()));
+        writeSummaries(out, "moves_to_win", mMovesToWin);
+        writeSummaries(out, "game_nanos", mGameNanos);
+        writeBuckets(out, "moves_to_win", mMovesToWin);
+        writeBuckets(out, "game_nanos", mGameNanos);
+    }
+
+    private static void writeSummaries(PrintStream out, String name, Histogram histogram) {
+        out.println(String.format(Locale.US, "summary,%s_mean,,,%.3f", name, histogram.getMean()));
+        writeSummary(out, name + "_p50", histogram.getValueAtPercentile(50));
+        writeSummary(out, name + "_p90", histogram.getValueAtPercentile(90));
+        writeSummary(out, name + "_p99", histogram.getValueAtPercentile(99));
+        writeSummary(out, name + "_max", histogram.getMax());
+    }
+
+    private static void writeSummary(PrintStream out, String name, long value) {
+        out.println("summary," + name + ",,," + value);
+    }
+
+    private static void writeBuckets(PrintStream out, String name, Histogram histogram) {
+        for (int i = 0; i < histogram.getBucketCount(); i++) {
+            long count = histogram.getCountAtBucket(i);
+            if (count != 0) {
+                out.println("bucket," + name + "," + histogram.getBucketLowValue(i) + ","
+                        + histogram.getBucketHighValue(i) + "," + count);
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.mikeriv.ssui_2016.puzzlegame.simulation;
+
+import com.mikeriv.ssui_2016.puzzlegame.model.Direction;
+import com.mikeriv.ssui_2016.puzzlegame.model.PuzzleGameBoard;
+import com.mikeriv.ssui_2016.puzzlegame.solver.ConstructiveSolver;
+import com.mikeriv.ssui_2016.puzzlegame.solver.PuzzleSolution;
+
+import java.util.SplittableRandom;
+
+/**
+ * Solves each board when the game starts and plays the solution, like a player following the
+ * auto-solve hints. Uses the constructive solver, which handles every board size quickly.
+ */
+public class SolverPlayer implements Player {
+
+    private final ConstructiveSolver mSolver;
+    private PuzzleSolution mSolution;
+    private int mNextMove;
+
+    /**
+     * @param rows - the rows of the boards to play
+     * @param columns - the cols of the boards to play
+     */
+    public SolverPlayer(int rows, int columns) {
+        mSolver = new ConstructiveSolver(rows, columns);
+    }
+
+    @Override
+    public void startGame(PuzzleGameBoard board, SplittableRandom random) {
+        mSolution = mSolver.solve(board);
+        mNextMove = 0;
+    }
+
+    @Override
+    public Direction nextMove(PuzzleGameBoard board, SplittableRandom random) {
+        if (mNextMove == mSolution.getMoveCount()) {
+            return null;
+        }
+        return mSolution.getMove(mNextMove++);
+    }
+}
@@ -0,0 +1,57 @@
+package com.mikeriv.ssui_2016.puzzlegame.simulation;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.Assert.*;
+
+public class SimulationRunnerTest {
+
+    @Test
+    public void run_solverPlayerWinsEveryGame() throws Exception {
+        SimulationStats stats = new SimulationRunner(4, 4, SimulationRunner.PlayerKind.SOLVER, 0,
+                100000, 2).run(3000, 1);
+        assertEquals(3000, stats.getGameCount());
+        assertEquals(3000, stats.getWinCount());
+        assertEquals(3000, stats.getMovesToWin().getTotalCount());
+        assertEquals(3000, stats.getGameNanos().getTotalCount());
+    }
+
+    @Test
+    public void run_resultsDoNotDependOnTheThreadCount() throws Exception {
+        SimulationStats single = new SimulationRunner(3, 3, SimulationRunner.PlayerKind.GREEDY,
+                40, 200, 1).run(5000, 7);
+        SimulationStats parallel = new SimulationRunner(3, 3, SimulationRunner.PlayerKind.GREEDY,
+                40, 200, 4).run(5000, 7);
+        assertEquals(single.getWinCount(), parallel.getWinCount());
+        for (int i = 0; i < single.getMovesToWin().getBucketCount(); i++) {
+            assertEquals(single.getMovesToWin().getCountAtBucket(i),
+                    parallel.getMovesToWin().getCountAtBucket(i));
+        }
+    }
+
+    @Test
+    public void run_gamesOverTheMoveLimitAreLost() throws Exception {
+        SimulationStats stats = new SimulationRunner(5, 5, SimulationRunner.PlayerKind.RANDOM, 0,
+                10, 2).run(100, 3);
+        assertEquals(100, stats.getGameCount());
+        assertEquals(0, stats.getWinCount());
+        assertEquals(0.0, stats.getWinRate(), 0.0);
+    }
+
+    @Test
+    public void writeCsv_writesSummaryAndBuckets() throws Exception {
+        SimulationStats stats = new SimulationStats();
+        stats.recordGame(true, 20, 1000);
+        stats.recordGame(false, 50, 3000);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        stats.writeCsv(new PrintStream(bytes, true, "UTF-8"));
+        String csv = bytes.toString("UTF-8");
+        assertTrue(csv.startsWith("kind,name,low,high,value\n"));
+        assertTrue(csv.contains("summary,games,,,2\n"));
+        assertTrue(csv.contains("summary,win_rate,,,0.500000\n"));
+        assertTrue(csv.contains("bucket,moves_to_win,20,20,1\n"));
+    }
+}